@@ -0,0 +1,227 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.generator.iface;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ws.jaxme.js.JavaQName;
+import org.apache.ws.jaxme.js.JavaQNameImpl;
+import org.apache.ws.jaxme.js.JavaSource;
+import org.apache.ws.jaxme.js.JavaSourceFactory;
+
+/**
+ * Collects the getters of the generated configuration interfaces and emits, for each of them, a serializer that turns
+ * a configuration into compiler arguments by calling the getters directly. The serializers delegate the formatting of
+ * every value to <code>net.flexmojos.oss.compiler.util.ArgumentWriter</code>, the same code used by the reflective
+ * parser, so both produce the same command line.
+ */
+class ArgumentSerializersGenerator
+{
+
+    private static final String IFACE_PACKAGE = "net.flexmojos.oss.compiler";
+
+    private static final String PACKAGE = "net.flexmojos.oss.compiler.util";
+
+    private static final String SUFFIX = "ArgumentSerializer";
+
+    private static final String NAMESPACE = "INamespace";
+
+    // the reflective parser walks the getters sorted by name, the serializers must write them in the same order
+    private static final Comparator<String[]> BY_GETTER = new Comparator<String[]>()
+    {
+        public int compare( String[] g1, String[] g2 )
+        {
+            return g1[1].compareTo( g2[1] );
+        }
+    };
+
+    private final Map<String, List<String[]>> configurations = new LinkedHashMap<String, List<String[]>>();
+
+    private final Map<String, String[]> arguments = new LinkedHashMap<String, String[]>();
+
+    void addConfiguration( String iface )
+    {
+        if ( !configurations.containsKey( iface ) )
+        {
+            configurations.put( iface, new ArrayList<String[]>() );
+        }
+    }
+
+    /**
+     * A plain value, formatted at runtime according to its type.
+     */
+    void addOption( String iface, String getter )
+    {
+        add( iface, new String[] { "option", getter } );
+    }
+
+    /**
+     * A nested configuration, written with its own serializer.
+     */
+    void addChild( String iface, String getter, String childIface )
+    {
+        add( iface, new String[] { "child", getter, childIface } );
+    }
+
+    /**
+     * An <code>IFlexArgument</code> (or an array of them) whose values are read in <code>ORDER</code>.
+     */
+    void addArgument( String iface, String getter, String argumentIface, boolean multiple )
+    {
+        add( iface, new String[] { "argument", getter, argumentIface, String.valueOf( multiple ) } );
+    }
+
+    void addArgumentType( String argumentIface, String[] order )
+    {
+        arguments.put( argumentIface, order );
+    }
+
+    private void add( String iface, String[] getter )
+    {
+        addConfiguration( iface );
+        List<String[]> getters = configurations.get( iface );
+        for ( String[] existing : getters )
+        {
+            if ( existing[1].equals( getter[1] ) )
+            {
+                return;
+            }
+        }
+        getters.add( getter );
+    }
+
+    void generate( JavaSourceFactory factory )
+    {
+        for ( Map.Entry<String, List<String[]>> configuration : configurations.entrySet() )
+        {
+            Collections.sort( configuration.getValue(), BY_GETTER );
+            generateSerializer( factory, configuration.getKey(), configuration.getValue() );
+        }
+        generateRegistry( factory );
+    }
+
+    private void generateSerializer( JavaSourceFactory factory, String iface, List<String[]> getters )
+    {
+        JavaQName className = JavaQNameImpl.getInstance( PACKAGE, serializerName( iface ) );
+        JavaSource js = factory.newJavaSource( className, "public" );
+
+        StringBuilder src = new StringBuilder();
+        for ( String[] getter : getters )
+        {
+            String factoryMethod = "child".equals( getter[0] ) ? "configurationName" : "optionName";
+            src.append( "  private static final String " ).append( StringUtil.toUpperCamelCase( getter[1] ) );
+            src.append( " = ArgumentWriter." ).append( factoryMethod ).append( "( \"" ).append( getter[1] );
+            src.append( "\" );\n" );
+        }
+
+        src.append( "\n  static void write( " ).append( IFACE_PACKAGE ).append( '.' ).append( iface );
+        src.append( " cfg, ArgumentWriter out ) {\n" );
+        src.append( "    if ( cfg == null ) {\n      return;\n    }\n" );
+
+        List<String> argumentTypes = new ArrayList<String>();
+        for ( String[] getter : getters )
+        {
+            String constant = StringUtil.toUpperCamelCase( getter[1] );
+            if ( "option".equals( getter[0] ) )
+            {
+                src.append( "    out.option( cfg, " ).append( constant ).append( ", cfg." ).append( getter[1] );
+                src.append( "() );\n" );
+            }
+            else if ( "child".equals( getter[0] ) )
+            {
+                src.append( "    " ).append( serializerName( getter[2] ) ).append( ".write( cfg." );
+                src.append( getter[1] ).append( "(), out.nested( " ).append( constant ).append( " ) );\n" );
+            }
+            else
+            {
+                String type = IFACE_PACKAGE + '.' + getter[2];
+                boolean namespace = NAMESPACE.equals( getter[2] );
+                src.append( "    {\n" );
+                if ( Boolean.parseBoolean( getter[3] ) )
+                {
+                    src.append( "      " ).append( type ).append( "[] args = cfg." ).append( getter[1] );
+                    src.append( "();\n      if ( args != null ) {\n" );
+                    src.append( "        for ( " ).append( type ).append( " arg : args ) {\n" );
+                    src.append( "          out.argument( " ).append( constant ).append( ", " ).append( namespace );
+                    src.append( ", values( arg ) );\n        }\n      }\n" );
+                }
+                else
+                {
+                    src.append( "      " ).append( type ).append( " arg = cfg." ).append( getter[1] );
+                    src.append( "();\n      if ( arg != null ) {\n" );
+                    src.append( "        out.argument( " ).append( constant ).append( ", " ).append( namespace );
+                    src.append( ", values( arg ) );\n      }\n" );
+                }
+                src.append( "    }\n" );
+                if ( !argumentTypes.contains( getter[2] ) )
+                {
+                    argumentTypes.add( getter[2] );
+                }
+            }
+        }
+        src.append( "  }\n" );
+
+        for ( String argumentType : argumentTypes )
+        {
+            src.append( "\n  private static Object[] values( " ).append( IFACE_PACKAGE ).append( '.' );
+            src.append( argumentType ).append( " arg ) {\n    return new Object[] { " );
+            String[] order = arguments.get( argumentType );
+            for ( int i = 0; i < order.length; i++ )
+            {
+                if ( i != 0 )
+                {
+                    src.append( ", " );
+                }
+                src.append( "arg." ).append( order[i] ).append( "()" );
+            }
+            src.append( " };\n  }\n" );
+        }
+
+        js.addRawJavaSource( src.toString() );
+    }
+
+    private void generateRegistry( JavaSourceFactory factory )
+    {
+        JavaQName className = JavaQNameImpl.getInstance( PACKAGE, "ArgumentSerializers" );
+        JavaSource js = factory.newJavaSource( className, "public" );
+
+        StringBuilder src = new StringBuilder();
+        src.append( "  static boolean write( Object cfg, Class<?> configClass, ArgumentWriter out ) {\n" );
+        for ( String iface : configurations.keySet() )
+        {
+            String type = IFACE_PACKAGE + '.' + iface;
+            src.append( "    if ( configClass == " ).append( type ).append( ".class && cfg instanceof " );
+            src.append( type ).append( " ) {\n      " ).append( serializerName( iface ) ).append( ".write( (" );
+            src.append( type ).append( ") cfg, out );\n      return true;\n    }\n" );
+        }
+        src.append( "    return false;\n  }\n" );
+
+        js.addRawJavaSource( src.toString() );
+    }
+
+    private static String serializerName( String iface )
+    {
+        return iface.substring( 1 ) + SUFFIX;
+    }
+
+}
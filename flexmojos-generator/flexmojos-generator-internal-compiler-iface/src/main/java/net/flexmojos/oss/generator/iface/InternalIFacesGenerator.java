@@ -71,6 +71,8 @@ public final class InternalIFacesGenerator
         JavaSource argSource = factory.newJavaSource( arg, "public" );
         argSource.setType( JavaSource.INTERFACE );
 
+        ArgumentSerializersGenerator serializers = new ArgumentSerializersGenerator();
+
         for ( String classname : request.getClasses().keySet() )
         {
             Class<?> clazz;
@@ -83,7 +85,7 @@ public final class InternalIFacesGenerator
                 throw new GenerationException( e.getMessage(), e );
             }
 
-            getMethods( clazz, factory, ann, arg );
+            getMethods( clazz, factory, ann, arg, serializers );
 
             File outDir = request.getTransientOutputFolder();
             outDir.mkdirs();
@@ -97,6 +99,17 @@ public final class InternalIFacesGenerator
                 throw new GenerationException( "Error generating " + clazz.getName(), e );
             }
         }
+
+        // non-reflective serializers for the interfaces generated above
+        serializers.generate( factory );
+        try
+        {
+            factory.write( request.getTransientOutputFolder() );
+        }
+        catch ( Exception e )
+        {
+            throw new GenerationException( "Error generating argument serializers", e );
+        }
     }
 
     private String varname( String membername, String basename )
@@ -104,7 +117,8 @@ public final class InternalIFacesGenerator
         return ( ( basename == null ) ? membername : ( basename + "." + membername ) );
     }
 
-    private JavaQName getMethods( Class<?> clazz, JavaSourceFactory factory, JavaQName ann, JavaQName arg )
+    private JavaQName getMethods( Class<?> clazz, JavaSourceFactory factory, JavaQName ann, JavaQName arg,
+                                  ArgumentSerializersGenerator serializers )
         throws GenerationException
     {
         JavaQName className = JavaQNameImpl.getInstance( PACKAGE, "I" + clazz.getSimpleName() );
@@ -116,6 +130,7 @@ public final class InternalIFacesGenerator
         JavaSource js = factory.newJavaSource( className, "public" );
         js.setType( JavaSource.INTERFACE );
         js.addExtends( ann );
+        serializers.addConfiguration( className.getClassName() );
 
         Method methods[] = clazz.getMethods();
 
@@ -138,6 +153,8 @@ public final class InternalIFacesGenerator
                     String name = varname( leafname, null );
 
                     JavaQName type;
+                    // the IFlexArgument subinterface holding the values, if any
+                    JavaQName argType = null;
                     int args = info.getArgCount();
                     if ( args == 0 )
                     {
@@ -145,15 +162,17 @@ public final class InternalIFacesGenerator
                     }
                     else if ( "RuntimeSharedLibraryPath".equals( name ) )
                     {
-                        type = generateSubclass( factory, arg, info, name, 2, String.class, Map.class );
+                        type = generateSubclass( factory, serializers, arg, info, name, 2, String.class, Map.class );
                     }
                     else if ( "Extension".equals( name ) )
                     {
-                        type = generateSubclass( factory, arg, info, name, 2, File.class, String[].class );
+                        type = generateSubclass( factory, serializers, arg, info, name, 2, File.class, String[].class );
+                        argType = type;
                     }
                     else if ( "Frame".equals( name ) )
                     {
-                        type = generateSubclass( factory, arg, info, name, 2, String.class, String[].class );
+                        type = generateSubclass( factory, serializers, arg, info, name, 2, String.class, String[].class );
+                        argType = type;
                     }
                     else if ( args == 1 )
                     {
@@ -174,7 +193,10 @@ public final class InternalIFacesGenerator
                         }
                         if ( argnames != null && argnames.getClass().isArray() && ( (Object[]) argnames ).length != 1 )
                         {
-                            type = generateSubclass( factory, arg, info, name, ( (Object[]) argnames ).length );
+                            type =
+                                generateSubclass( factory, serializers, arg, info, name,
+                                                  ( (Object[]) argnames ).length );
+                            argType = type;
                         }
                         else
                         {
@@ -183,12 +205,14 @@ public final class InternalIFacesGenerator
                     }
                     else
                     {
-                        type = generateSubclass( factory, arg, info, name, args );
+                        type = generateSubclass( factory, serializers, arg, info, name, args );
+                        argType = type;
                     }
 
                     if ( info.isPath() && args <= 1 )
                     {
                         type = JavaQNameImpl.getInstance( File.class );
+                        argType = null;
                     }
 
                     type = promoteWrappers( type );
@@ -201,6 +225,16 @@ public final class InternalIFacesGenerator
 
                     /* JavaMethod nm = */js.newJavaMethod( GET_PREFIX + name, type );
 
+                    if ( argType == null )
+                    {
+                        serializers.addOption( className.getClassName(), GET_PREFIX + name );
+                    }
+                    else
+                    {
+                        serializers.addArgument( className.getClassName(), GET_PREFIX + name,
+                                                 argType.getClassName(), type.isArray() );
+                    }
+
                     StringBuilder order = new StringBuilder();
                     order.append( "  String " + StringUtil.toUpperCamelCase( name ) + " = " );
                     order.append( '"' ).append( GET_PREFIX ).append( name ).append( '"' ).append( ';' );
@@ -218,8 +252,9 @@ public final class InternalIFacesGenerator
             String name = method.getName();
             if ( name.startsWith( GET_PREFIX ) && name.endsWith( CONFIGURATION_SUFFIX ) )
             {
-                JavaQName source = getMethods( method.getReturnType(), factory, ann, arg );
+                JavaQName source = getMethods( method.getReturnType(), factory, ann, arg, serializers );
                 js.newJavaMethod( name, source );
+                serializers.addChild( className.getClassName(), name, source.getClassName() );
             }
             else
             {
@@ -230,8 +265,9 @@ public final class InternalIFacesGenerator
         return className;
     }
 
-    private JavaQName generateSubclass( JavaSourceFactory factory, JavaQName arg, ConfigurationInfo info, String name,
-                                        int args, Class<?>... typeClasses )
+    private JavaQName generateSubclass( JavaSourceFactory factory, ArgumentSerializersGenerator serializers,
+                                        JavaQName arg, ConfigurationInfo info, String name, int args,
+                                        Class<?>... typeClasses )
     {
         JavaQName type;
         type = JavaQNameImpl.getInstance( PACKAGE, "I" + name );
@@ -244,6 +280,7 @@ public final class InternalIFacesGenerator
 
             StringBuilder order = new StringBuilder();
             order.append( "  String[] ORDER = new String[] {" );
+            String[] argNames = new String[args];
             for ( int i = 0; i < args; i++ )
             {
                 Class<?> argType = getArgType( info, i, typeClasses );
@@ -252,10 +289,12 @@ public final class InternalIFacesGenerator
                 subClass.newJavaMethod( argName, argType );
 
                 order.append( '"' ).append( argName ).append( '"' ).append( ", " );
+                argNames[i] = argName;
             }
             order.append( " };" );
 
             subClass.addRawJavaSource( order.toString() );
+            serializers.addArgumentType( type.getClassName(), argNames );
         }
         return type;
     }
@@ -0,0 +1,79 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.compatibilitykit;
+
+import static net.flexmojos.oss.compatibilitykit.VersionUtils.isMaxVersionOK;
+import static net.flexmojos.oss.compatibilitykit.VersionUtils.isMinVersionOK;
+import static net.flexmojos.oss.compatibilitykit.VersionUtils.splitVersion;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Min/max version bounds parsed once, remembering the answer for every version checked against them.
+ */
+public final class VersionRange
+{
+
+    private final String minVersion;
+
+    private final String maxVersion;
+
+    private final int[] min;
+
+    private final int[] max;
+
+    private final ConcurrentMap<String, Boolean> includes = new ConcurrentHashMap<String, Boolean>();
+
+    public VersionRange( String minVersion, String maxVersion )
+    {
+        this.minVersion = minVersion;
+        this.maxVersion = maxVersion;
+        this.min = splitVersion( minVersion );
+        this.max = splitVersion( maxVersion );
+    }
+
+    public VersionRange( FlexCompatibility compatibility )
+    {
+        this( compatibility.minVersion(), compatibility.maxVersion() );
+    }
+
+    public boolean includes( String version )
+    {
+        String key = version == null ? "" : version;
+        Boolean included = includes.get( key );
+        if ( included == null )
+        {
+            int[] fdkVersion = splitVersion( key );
+            included = isMinVersionOK( fdkVersion, min ) && isMaxVersionOK( fdkVersion, max );
+            includes.put( key, included );
+        }
+        return included;
+    }
+
+    public String getMinVersion()
+    {
+        return minVersion;
+    }
+
+    public String getMaxVersion()
+    {
+        return maxVersion;
+    }
+
+}
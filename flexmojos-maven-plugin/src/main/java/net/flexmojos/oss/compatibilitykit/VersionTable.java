@@ -0,0 +1,75 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.compatibilitykit;
+
+import static net.flexmojos.oss.compatibilitykit.VersionUtils.isMinVersionOK;
+import static net.flexmojos.oss.compatibilitykit.VersionUtils.splitVersion;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Maps versions to values by minimum version, like player versions to swf versions. Rows are checked in the order they
+ * were added, so the highest minimum version goes first. Answers are remembered for every version looked up.
+ */
+public final class VersionTable
+{
+
+    private static final Integer NONE = Integer.MIN_VALUE;
+
+    private final List<int[]> minVersions = new ArrayList<int[]>();
+
+    private final List<Integer> values = new ArrayList<Integer>();
+
+    private final ConcurrentMap<String, Integer> lookups = new ConcurrentHashMap<String, Integer>();
+
+    public VersionTable add( String minVersion, int value )
+    {
+        minVersions.add( splitVersion( minVersion ) );
+        values.add( value );
+        lookups.clear();
+        return this;
+    }
+
+    /**
+     * @return the value of the first row whose minimum version is satisfied, null if none is
+     */
+    public Integer get( String version )
+    {
+        String key = version == null ? "" : version;
+        Integer value = lookups.get( key );
+        if ( value == null )
+        {
+            value = NONE;
+            int[] split = splitVersion( key );
+            for ( int i = 0; i < minVersions.size(); i++ )
+            {
+                if ( isMinVersionOK( split, minVersions.get( i ) ) )
+                {
+                    value = values.get( i );
+                    break;
+                }
+            }
+            lookups.put( key, value );
+        }
+        return value == NONE ? null : value;
+    }
+
+}
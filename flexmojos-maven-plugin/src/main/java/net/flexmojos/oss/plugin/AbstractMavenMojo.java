@@ -20,34 +20,41 @@ package net.flexmojos.oss.plugin;
 import flex2.compiler.Logger;
 import flex2.compiler.common.SinglePathResolver;
 import flex2.tools.oem.internal.OEMLogAdapter;
+import net.flexmojos.oss.compiler.command.CommandUtil;
 import net.flexmojos.oss.compiler.command.Result;
 import net.flexmojos.oss.compiler.util.ThreadLocalToolkitHelper;
+import net.flexmojos.oss.matcher.artifact.ArtifactIndex;
 import net.flexmojos.oss.plugin.common.flexbridge.MavenLogger;
 import net.flexmojos.oss.plugin.common.flexbridge.MavenPathResolver;
 import net.flexmojos.oss.plugin.compiler.attributes.MavenRuntimeException;
+import net.flexmojos.oss.plugin.compiler.cache.BuildCache;
 import net.flexmojos.oss.plugin.compiler.lazyload.Cacheable;
+import net.flexmojos.oss.plugin.compiler.lazyload.GetterCache;
 import net.flexmojos.oss.plugin.compiler.lazyload.NotCacheable;
+import net.flexmojos.oss.plugin.compiler.lazyload.Shared;
+import net.flexmojos.oss.plugin.utilities.ArtifactResolutionCache;
+import net.flexmojos.oss.plugin.utilities.AtomicUnpacker;
+import net.flexmojos.oss.plugin.utilities.BuildMetrics;
+import net.flexmojos.oss.plugin.utilities.FrameworkConfig;
 import net.flexmojos.oss.plugin.utilities.MavenUtils;
 import net.flexmojos.oss.util.PathUtil;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang.ArrayUtils;
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.artifact.repository.ArtifactRepository;
-import org.apache.maven.artifact.resolver.ArtifactResolutionRequest;
-import org.apache.maven.artifact.resolver.ArtifactResolutionResult;
 import org.apache.maven.execution.MavenSession;
 import org.apache.maven.model.FileSet;
 import org.apache.maven.model.PatternSet;
 import org.apache.maven.model.Resource;
 import org.apache.maven.plugin.ContextEnabled;
 import org.apache.maven.plugin.Mojo;
+import org.apache.maven.plugin.MojoExecution;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugin.logging.Log;
 import org.apache.maven.project.MavenProject;
 import org.apache.maven.project.MavenProjectHelper;
 import org.apache.maven.repository.RepositorySystem;
-import org.codehaus.plexus.archiver.UnArchiver;
 import org.codehaus.plexus.archiver.manager.ArchiverManager;
 import org.codehaus.plexus.util.DirectoryScanner;
 import org.codehaus.plexus.util.FileUtils;
@@ -62,8 +69,6 @@ import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.*;
 
-import static ch.lambdaj.Lambda.filter;
-import static ch.lambdaj.Lambda.selectFirst;
 import static net.flexmojos.oss.matcher.artifact.ArtifactMatcher.*;
 import static net.flexmojos.oss.plugin.common.FlexExtension.*;
 import static org.hamcrest.CoreMatchers.allOf;
@@ -105,6 +110,12 @@ public abstract class AbstractMavenMojo
      */
     protected ArchiverManager archiverManager;
 
+    /**
+     * @component
+     * @readonly
+     */
+    protected ArtifactResolutionCache resolutionCache;
+
     /**
      * @parameter expression="${basedir}"
      * @required
@@ -112,7 +123,9 @@ public abstract class AbstractMavenMojo
      */
     private File basedir;
 
-    protected Map<String, Object> cache = new LinkedHashMap<String, Object>();
+    protected GetterCache cache = new GetterCache();
+
+    private ArtifactIndex dependencyIndex;
 
     /**
      * The maven configuration directory
@@ -124,13 +137,48 @@ public abstract class AbstractMavenMojo
     protected File configDirectory;
 
     /**
-     * When false (faster) Flexmojos will compiler modules and resource bundles using multiple threads (One per SWF). If
-     * true, Thread.join() will be invoked to make the execution synchronous (sequential).
+     * When false (faster) Flexmojos will compiler modules and resource bundles concurrently (up to compilerThreads at a
+     * time). If true, every compilation is waited for, making the execution synchronous (sequential).
      * 
      * @parameter expression="${flex.fullSynchronization}" default-value="false"
      */
     protected boolean fullSynchronization;
 
+    /**
+     * Maximum number of compilations (application, modules, runtime locales) running at the same time. When 0,
+     * Flexmojos uses the number of available processors.
+     * 
+     * @parameter expression="${flex.compilerThreads}" default-value="0"
+     */
+    protected int compilerThreads;
+
+    /**
+     * Maximum number of compilations waiting for a free compiler thread. Once the queue is full, new compilations run
+     * on the calling thread.
+     * 
+     * @parameter expression="${flex.compilerQueueSize}" default-value="64"
+     */
+    protected int compilerQueueSize;
+
+    /**
+     * Estimated heap, in megabytes, used by a single compilation. The number of compiler threads is capped so all of
+     * them fit on the maximum heap available to maven. Set to 0 to disable the cap.
+     * 
+     * @parameter expression="${flex.compilerThreadMemory}" default-value="256"
+     */
+    protected int compilerThreadMemory;
+
+    /**
+     * Write the time spent on each phase of the build (dependency resolution, resource bundle adaptation, argument
+     * parsing, compilation, output copying) to <code>target/flexmojos/metrics</code>, as JSON and CSV, so it can be
+     * trended by CI.
+     * 
+     * @parameter expression="${flex.metrics}" default-value="true"
+     */
+    protected boolean metrics;
+
+    protected BuildMetrics buildMetrics = new BuildMetrics();
+
     /**
      * Adobe Flash version
      *
@@ -209,7 +257,8 @@ public abstract class AbstractMavenMojo
 
     /**
      * Quick compile mode. When true, Flexmojos will check if the latest artifact available at maven repository for this
-     * project is newer then sources. If so, wont recompile.
+     * project is newer then sources. If so, wont recompile. Sources are fingerprinted on target/flexmojos/fingerprints,
+     * so once a build ran only changed inputs are reported and hashed.
      * 
      * @parameter default-value="false" expression="${flexmojos.quick}"
      */
@@ -247,6 +296,14 @@ public abstract class AbstractMavenMojo
      */
     protected MavenSession session;
 
+    /**
+     * The execution of this mojo, names the build metrics files
+     * 
+     * @parameter expression="${mojoExecution}"
+     * @readonly
+     */
+    protected MojoExecution mojoExecution;
+
     /**
      * Skips flexmojos goal execution
      * 
@@ -298,6 +355,10 @@ public abstract class AbstractMavenMojo
         {
             throw new MojoExecutionException( e.getMessage(), e );
         }
+        finally
+        {
+            buildMetrics.addAll( result.drainTimes() );
+        }
         if ( exitCode != 0 )
         {
             throw new MojoFailureException( "Got " + exitCode + " errors building project, check logs" );
@@ -431,11 +492,12 @@ public abstract class AbstractMavenMojo
 
     @Override
     @NotCacheable
-    public Map<String, Object> getCache()
+    public GetterCache getCache()
     {
         return cache;
     }
 
+    @Shared
     protected Artifact getCompilerArtifact()
     {
         Artifact apacheCompiler = MavenUtils.searchFor(pluginArtifacts, "org.apache.flex", "compiler", null, "pom", null);
@@ -449,6 +511,7 @@ public abstract class AbstractMavenMojo
         return null;
     }
 
+    @Shared
     protected Artifact getFrameworkArtifact()
     {
         Artifact apacheFramework = MavenUtils.searchFor(getDependencies(), "org.apache.flex", "framework", null, "pom", null);
@@ -463,6 +526,7 @@ public abstract class AbstractMavenMojo
     }
 
 
+    @Shared
     public String getFdkGroupId()
     {
         Artifact compilerArtifact = getCompilerArtifact();
@@ -472,6 +536,7 @@ public abstract class AbstractMavenMojo
         return null;
     }
 
+    @Shared
     public String getCompilerGroupId()
     {
         final Artifact compilerArtifact = getCompilerArtifact();
@@ -481,6 +546,7 @@ public abstract class AbstractMavenMojo
         return null;
     }
 
+    @Shared
     public String getFrameworkGroupId()
     {
         final Artifact frameworkArtifact = getFrameworkArtifact();
@@ -490,6 +556,7 @@ public abstract class AbstractMavenMojo
         return null;
     }
 
+    @Shared
     public String getCompilerVersion()
     {
         Artifact compilerArtifact = getCompilerArtifact();
@@ -508,6 +575,7 @@ public abstract class AbstractMavenMojo
         return null;
     }
 
+    @Shared
     public Set<Artifact> getDependencies()
     {
         return Collections.unmodifiableSet(project.getArtifacts());
@@ -515,17 +583,40 @@ public abstract class AbstractMavenMojo
 
     protected Set<Artifact> getDependencies( Matcher<? extends Artifact>... matchers )
     {
-        Set<Artifact> dependencies = getDependencies();
-
-        return new LinkedHashSet<Artifact>( filter( allOf( matchers ), dependencies ) );
+        return indexDependencies().select( matchers );
     }
 
     protected Artifact getDependency( Matcher<? extends Artifact>... matchers )
     {
-        return selectFirst(getDependencies(), allOf(matchers));
+        return indexDependencies().selectFirst( matchers );
+    }
+
+    /**
+     * Dependencies grouped by scope, type and groupId:artifactId. {@link #getDependencies()} being {@link Shared}, the
+     * mojo and its clones get the same set on every call, so the index is built once and only rebuilt when that set is
+     * replaced, see {@link #dependenciesChanged()}.
+     */
+    private synchronized ArtifactIndex indexDependencies()
+    {
+        Set<Artifact> dependencies = getDependencies();
+        if ( dependencyIndex == null || !dependencyIndex.isIndexOf( dependencies ) )
+        {
+            dependencyIndex = new ArtifactIndex( dependencies );
+        }
+        return dependencyIndex;
+    }
+
+    /**
+     * Must be called after the project artifacts are changed, so the next query sees them.
+     */
+    protected synchronized void dependenciesChanged()
+    {
+        cache.invalidate( "getDependencies" );
+        dependencyIndex = null;
     }
 
     @SuppressWarnings( "unchecked" )
+    @Shared
     protected Artifact getFrameworkConfig()
     {
         if(getFrameworkGroupId() == null) {
@@ -548,6 +639,7 @@ public abstract class AbstractMavenMojo
     }
 
     @SuppressWarnings( "unchecked" )
+    @Shared
     public String getFrameworkVersion()
     {
         Artifact dep = getDependency(
@@ -572,6 +664,7 @@ public abstract class AbstractMavenMojo
     }
 
     @SuppressWarnings( "unchecked" )
+    @Shared
     protected Artifact getGlobalArtifact()
     {
         Artifact global = getDependency(GLOBAL_MATCHER);
@@ -602,16 +695,19 @@ public abstract class AbstractMavenMojo
         return global;
     }
 
+    @Shared
     public Artifact getAirGlobal() {
         return getDependency( groupId( AIR_GROUP_ID ), artifactId( AIR_GLOBAL ), type( SWC ) );
     }
 
     @SuppressWarnings( "unchecked" )
+    @Shared
     public boolean getIsAirProject()
     {
         return (getAirGlobal() != null);
     }
 
+    @Shared
     public String getAirVersion() {
         if(getIsAirProject()) {
             return getAirGlobal().getVersion();
@@ -619,16 +715,19 @@ public abstract class AbstractMavenMojo
         return null;
     }
 
+    @Shared
     public Artifact getFlashGlobal() {
         return getDependency( groupId( FLASH_GROUP_ID ), artifactId( PLAYER_GLOBAL ), type( SWC ) );
     }
 
     @SuppressWarnings( "unchecked" )
+    @Shared
     public boolean getIsFlashProject()
     {
         return (getFlashGlobal() != null);
     }
 
+    @Shared
     public String getFlashVersion() {
         if(getIsFlashProject()) {
             return getFlashGlobal().getVersion();
@@ -724,19 +823,15 @@ public abstract class AbstractMavenMojo
         } else {
             dir = destDir;
         }
-        if ( dir.isDirectory() )
-        {
-            return dir;
-        }
-
-        dir.mkdirs();
 
         try
         {
-            UnArchiver unarchive = archiverManager.getUnArchiver( artifact.getFile() );
-            unarchive.setSourceFile( artifact.getFile() );
-            unarchive.setDestDirectory( dir );
-            unarchive.extract();
+            if ( AtomicUnpacker.isUnpacked( artifact.getFile(), dir ) )
+            {
+                return dir;
+            }
+
+            AtomicUnpacker.unpack( artifact.getFile(), dir, archiverManager.getUnArchiver( artifact.getFile() ) );
         }
         catch ( Exception e )
         {
@@ -746,8 +841,11 @@ public abstract class AbstractMavenMojo
         return dir;
     }
 
-    // TODO lazy load here would be awesome
-    protected File getUnpackedFrameworkConfig()
+    /**
+     * @return the framework configuration, read on demand instead of unpacked up front
+     */
+    @Shared
+    protected FrameworkConfig getFrameworkConfiguration()
     {
         Artifact frmkCfg = getFrameworkConfig();
 
@@ -756,8 +854,10 @@ public abstract class AbstractMavenMojo
             return null;
         }
 
-        return getUnpackedArtifact(frmkCfg.getGroupId(), frmkCfg.getArtifactId(), frmkCfg.getVersion(),
-                frmkCfg.getClassifier(), frmkCfg.getType());
+        // not the directory getUnpackedArtifact() would use, a full unpack replaces it while others may read it
+        String dirName =
+            ( frmkCfg.getClassifier() == null ? "" : frmkCfg.getClassifier() ) + "_" + frmkCfg.getType() + "-entries";
+        return FrameworkConfig.get( frmkCfg.getFile(), new File( frmkCfg.getFile().getParentFile(), dirName ) );
     }
 
     @SuppressWarnings( "unchecked" )
@@ -791,21 +891,14 @@ public abstract class AbstractMavenMojo
             repositorySystem.createArtifactWithClassifier(groupId, artifactId, version, type, classifier);
         if ( !artifact.isResolved() )
         {
-            ArtifactResolutionRequest req = new ArtifactResolutionRequest();
-            req.setArtifact( artifact );
-            req.setLocalRepository( localRepository );
-            req.setRemoteRepositories( remoteRepositories );
-            ArtifactResolutionResult res = repositorySystem.resolve( req );
-            if ( !res.isSuccess() )
+            long start = System.currentTimeMillis();
+            try
             {
-                if ( getLog().isDebugEnabled() )
-                {
-                    for ( Exception e : res.getExceptions() )
-                    {
-                        getLog().error( e );
-                    }
-                }
-                throw new RuntimeMavenResolutionException( "Failed to resolve artifact " + artifact, res, artifact );
+                artifact = resolutionCache.resolve( session, artifact, localRepository, remoteRepositories );
+            }
+            finally
+            {
+                buildMetrics.record( BuildMetrics.DEPENDENCY_RESOLUTION, start );
             }
         }
         return artifact;
@@ -923,9 +1016,53 @@ public abstract class AbstractMavenMojo
 
     @Override
     public void execute() throws MojoExecutionException, MojoFailureException {
+        PathUtil.bindCache( session == null ? null : session.getRequest() );
+        BuildCache.bindDigests( session == null ? null : session.getRequest() );
         ThreadLocalToolkitHelper.setMavenLogger(getMavenLogger());
         ThreadLocalToolkitHelper.setMavenResolver(getMavenPathResolver() );
-        fmExecute();
+        int threads = CommandUtil.configure( compilerThreads, compilerQueueSize, compilerThreadMemory * 1024L * 1024L );
+        getLog().debug( "Compiling with up to " + threads + " concurrent compiler thread(s)" );
+        try
+        {
+            fmExecute();
+        }
+        finally
+        {
+            writeMetrics();
+        }
+
+        if ( getLog().isDebugEnabled() )
+        {
+            getLog().debug( "Getter cache: " + cache );
+            for ( Map.Entry<String, GetterCache.Statistics> entry : cache.getStatistics().entrySet() )
+            {
+                getLog().debug( "  " + entry.getKey() + ": " + entry.getValue() );
+            }
+        }
+    }
+
+    private void writeMetrics()
+    {
+        if ( getLog().isDebugEnabled() )
+        {
+            getLog().debug( "Build phases: " + buildMetrics.getPhases() );
+        }
+
+        if ( !metrics )
+        {
+            return;
+        }
+
+        File directory = new File( project.getBuild().getDirectory(), BuildMetrics.DIRECTORY );
+        try
+        {
+            buildMetrics.write( directory, getClass().getSimpleName(),
+                                mojoExecution == null ? null : mojoExecution.getExecutionId(), project.getId() );
+        }
+        catch ( IOException e )
+        {
+            getLog().warn( "Unable to write build metrics to " + directory, e );
+        }
     }
 
     public abstract void fmExecute() throws MojoExecutionException, MojoFailureException;
@@ -0,0 +1,304 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import net.flexmojos.oss.plugin.utilities.BuildMetrics;
+import net.flexmojos.oss.plugin.utilities.ReactorProfile;
+
+import org.apache.maven.AbstractMavenLifecycleParticipant;
+import org.apache.maven.MavenExecutionException;
+import org.apache.maven.execution.ExecutionEvent;
+import org.apache.maven.execution.ExecutionListener;
+import org.apache.maven.execution.MavenExecutionRequest;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.MojoExecution;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.component.annotations.Component;
+import org.codehaus.plexus.component.annotations.Requirement;
+import org.codehaus.plexus.logging.Logger;
+
+/**
+ * Gathers every flexmojos goal execution of the session and writes <code>flexmojos/reactor-profile.txt</code> on the
+ * build directory of the top level project once the build ends. The mojos run on their own class realm, so the times
+ * are read back from the {@link BuildMetrics} each execution leaves on its module.
+ */
+@Component( role = AbstractMavenLifecycleParticipant.class, hint = "ReactorProfile" )
+public class ReactorProfileMavenExtension
+    extends AbstractMavenLifecycleParticipant
+{
+
+    private static final String FLEXMOJOS = "net.flexmojos.oss";
+
+    @Requirement
+    private Logger logger;
+
+    @Override
+    public void afterProjectsRead( MavenSession session )
+        throws MavenExecutionException
+    {
+        if ( session.getRequest().getUserProperties().containsKey( "flexmojos.ignore.reactor.profile" ) )
+        {
+            return;
+        }
+
+        // maven 3.0 has no afterSessionEnd, the end of the build is only seen by the execution listener
+        MavenExecutionRequest request = session.getRequest();
+        if ( !( request.getExecutionListener() instanceof ProfileListener ) )
+        {
+            request.setExecutionListener( new ProfileListener( request.getExecutionListener() ) );
+        }
+    }
+
+    private Map<String, BuildMetrics.Phase> readMetrics( MavenProject project, MojoExecution execution, long start )
+    {
+        String implementation = execution.getMojoDescriptor().getImplementation();
+        String mojo = implementation.substring( implementation.lastIndexOf( '.' ) + 1 );
+        String name = BuildMetrics.getFileName( mojo, execution.getExecutionId() );
+        File csv = new File( project.getBuild().getDirectory(), BuildMetrics.DIRECTORY + "/" + name + ".csv" );
+
+        // left by a previous build, or metrics are disabled
+        if ( !csv.exists() || csv.lastModified() / 1000 < start / 1000 )
+        {
+            return Collections.emptyMap();
+        }
+
+        try
+        {
+            return BuildMetrics.read( csv );
+        }
+        catch ( IOException e )
+        {
+            logger.debug( "Unable to read build metrics from " + csv, e );
+            return Collections.emptyMap();
+        }
+    }
+
+    private void writeReport( MavenSession session, ReactorProfile profile )
+    {
+        if ( profile.getExecutions() == 0 )
+        {
+            return;
+        }
+
+        MavenProject top = session.getTopLevelProject();
+        File directory =
+            top != null ? new File( top.getBuild().getDirectory() ) : new File( session.getExecutionRootDirectory(),
+                                                                                "target" );
+        File report = new File( directory, "flexmojos/reactor-profile.txt" );
+        try
+        {
+            profile.write( report );
+            logger.info( "Flexmojos reactor profile written to " + report );
+        }
+        catch ( IOException e )
+        {
+            logger.warn( "Unable to write flexmojos reactor profile to " + report, e );
+        }
+    }
+
+    private class ProfileListener
+        implements ExecutionListener
+    {
+
+        private final ExecutionListener delegate;
+
+        private final ReactorProfile profile = new ReactorProfile();
+
+        // projects may build in parallel
+        private final Map<MojoExecution, Long> started = new ConcurrentHashMap<MojoExecution, Long>();
+
+        ProfileListener( ExecutionListener delegate )
+        {
+            this.delegate = delegate;
+        }
+
+        private boolean isFlexmojos( ExecutionEvent event )
+        {
+            return event.getMojoExecution() != null && FLEXMOJOS.equals( event.getMojoExecution().getGroupId() );
+        }
+
+        private void mojoFinished( ExecutionEvent event )
+        {
+            if ( !isFlexmojos( event ) )
+            {
+                return;
+            }
+
+            Long start = started.remove( event.getMojoExecution() );
+            if ( start == null )
+            {
+                return;
+            }
+
+            MavenProject project = event.getProject();
+            MojoExecution execution = event.getMojoExecution();
+            profile.addExecution( project.getId(), execution.getGoal(), System.currentTimeMillis() - start,
+                                  readMetrics( project, execution, start ) );
+        }
+
+        public void projectDiscoveryStarted( ExecutionEvent event )
+        {
+            if ( delegate != null )
+            {
+                delegate.projectDiscoveryStarted( event );
+            }
+        }
+
+        public void sessionStarted( ExecutionEvent event )
+        {
+            if ( delegate != null )
+            {
+                delegate.sessionStarted( event );
+            }
+        }
+
+        public void sessionEnded( ExecutionEvent event )
+        {
+            writeReport( event.getSession(), profile );
+            if ( delegate != null )
+            {
+                delegate.sessionEnded( event );
+            }
+        }
+
+        public void projectSkipped( ExecutionEvent event )
+        {
+            if ( delegate != null )
+            {
+                delegate.projectSkipped( event );
+            }
+        }
+
+        public void projectStarted( ExecutionEvent event )
+        {
+            if ( delegate != null )
+            {
+                delegate.projectStarted( event );
+            }
+        }
+
+        public void projectSucceeded( ExecutionEvent event )
+        {
+            if ( delegate != null )
+            {
+                delegate.projectSucceeded( event );
+            }
+        }
+
+        public void projectFailed( ExecutionEvent event )
+        {
+            if ( delegate != null )
+            {
+                delegate.projectFailed( event );
+            }
+        }
+
+        public void mojoSkipped( ExecutionEvent event )
+        {
+            if ( delegate != null )
+            {
+                delegate.mojoSkipped( event );
+            }
+        }
+
+        public void mojoStarted( ExecutionEvent event )
+        {
+            if ( isFlexmojos( event ) )
+            {
+                started.put( event.getMojoExecution(), System.currentTimeMillis() );
+            }
+            if ( delegate != null )
+            {
+                delegate.mojoStarted( event );
+            }
+        }
+
+        public void mojoSucceeded( ExecutionEvent event )
+        {
+            mojoFinished( event );
+            if ( delegate != null )
+            {
+                delegate.mojoSucceeded( event );
+            }
+        }
+
+        public void mojoFailed( ExecutionEvent event )
+        {
+            mojoFinished( event );
+            if ( delegate != null )
+            {
+                delegate.mojoFailed( event );
+            }
+        }
+
+        public void forkStarted( ExecutionEvent event )
+        {
+            if ( delegate != null )
+            {
+                delegate.forkStarted( event );
+            }
+        }
+
+        public void forkSucceeded( ExecutionEvent event )
+        {
+            if ( delegate != null )
+            {
+                delegate.forkSucceeded( event );
+            }
+        }
+
+        public void forkFailed( ExecutionEvent event )
+        {
+            if ( delegate != null )
+            {
+                delegate.forkFailed( event );
+            }
+        }
+
+        public void forkedProjectStarted( ExecutionEvent event )
+        {
+            if ( delegate != null )
+            {
+                delegate.forkedProjectStarted( event );
+            }
+        }
+
+        public void forkedProjectSucceeded( ExecutionEvent event )
+        {
+            if ( delegate != null )
+            {
+                delegate.forkedProjectSucceeded( event );
+            }
+        }
+
+        public void forkedProjectFailed( ExecutionEvent event )
+        {
+            if ( delegate != null )
+            {
+                delegate.forkedProjectFailed( event );
+            }
+        }
+    }
+
+}
@@ -48,27 +48,32 @@ import static net.flexmojos.oss.util.PathUtil.pathsList;
 
 import java.awt.GraphicsEnvironment;
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
-import java.io.Reader;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
-import org.apache.commons.io.filefilter.AgeFileFilter;
 import org.apache.commons.io.filefilter.TrueFileFilter;
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.model.Contributor;
 import org.apache.maven.model.Developer;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.model.PluginExecution;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.codehaus.plexus.archiver.UnArchiver;
 import org.codehaus.plexus.util.FileUtils;
-import org.codehaus.plexus.util.IOUtil;
 import org.codehaus.plexus.util.xml.Xpp3Dom;
-import org.codehaus.plexus.util.xml.Xpp3DomBuilder;
 import org.hamcrest.Matcher;
 import net.flexmojos.oss.compatibilitykit.FlexMojo;
-import net.flexmojos.oss.compatibilitykit.VersionUtils;
+import net.flexmojos.oss.compatibilitykit.VersionTable;
 import net.flexmojos.oss.compiler.IApplicationDomain;
 import net.flexmojos.oss.compiler.ICompcConfiguration;
 import net.flexmojos.oss.compiler.ICompilerConfiguration;
@@ -90,7 +95,9 @@ import net.flexmojos.oss.compiler.INamespace;
 import net.flexmojos.oss.compiler.INamespacesConfiguration;
 import net.flexmojos.oss.compiler.IRuntimeSharedLibraryPath;
 import net.flexmojos.oss.compiler.IRuntimeSharedLibrarySettingsConfiguration;
+import net.flexmojos.oss.compiler.command.CommandUtil;
 import net.flexmojos.oss.compiler.command.Result;
+import net.flexmojos.oss.compiler.util.FlexCompilerArgumentParser;
 import net.flexmojos.oss.license.LicenseCalculator;
 import net.flexmojos.oss.plugin.AbstractMavenMojo;
 import net.flexmojos.oss.plugin.RuntimeMavenResolutionException;
@@ -104,8 +111,12 @@ import net.flexmojos.oss.plugin.compiler.attributes.MavenFrame;
 import net.flexmojos.oss.plugin.compiler.attributes.MavenMetadataConfiguration;
 import net.flexmojos.oss.plugin.compiler.attributes.MavenNamespace;
 import net.flexmojos.oss.plugin.compiler.attributes.MavenRuntimeException;
+import net.flexmojos.oss.plugin.compiler.cache.BuildCache;
+import net.flexmojos.oss.plugin.compiler.cache.FingerprintIndex;
 import net.flexmojos.oss.plugin.compiler.lazyload.Cacheable;
+import net.flexmojos.oss.plugin.utilities.BuildMetrics;
 import net.flexmojos.oss.plugin.utilities.ConfigurationResolver;
+import net.flexmojos.oss.plugin.utilities.FrameworkConfig;
 import net.flexmojos.oss.plugin.utilities.MavenUtils;
 import net.flexmojos.oss.util.PathUtil;
 
@@ -118,6 +129,66 @@ public abstract class AbstractFlexCompilerMojo<CFG, C extends AbstractFlexCompil
 
     private static final Object lock = new Object();
 
+    private static final String FLEXMOJOS = "net.flexmojos.oss:flexmojos-maven-plugin";
+
+    // shared by every module of the build, threads go away once idle
+    private static final ExecutorService RESOURCE_BUNDLE_RESOLVER = Executors.newCachedThreadPool( new ThreadFactory()
+    {
+        private final AtomicInteger count = new AtomicInteger();
+
+        public Thread newThread( Runnable runnable )
+        {
+            Thread thread = new Thread( runnable, "flexmojos-resource-bundles-" + count.incrementAndGet() );
+            thread.setDaemon( true );
+            return thread;
+        }
+    } );
+
+    /**
+     * swf version by minimum flash player version, highest first
+     */
+    private static final VersionTable FLASH_SWF_VERSIONS = new VersionTable()
+        .add( "17.0", 28 )
+        .add( "16.0", 27 )
+        .add( "15.0", 26 )
+        .add( "14.0", 25 )
+        .add( "13.0", 24 )
+        .add( "12.0", 23 )
+        .add( "11.9", 22 )
+        .add( "11.8", 21 )
+        .add( "11.7", 20 )
+        .add( "11.6", 19 )
+        .add( "11.5", 18 )
+        .add( "11.4", 17 )
+        .add( "11.3", 16 )
+        .add( "11.2", 15 )
+        .add( "11.1", 14 )
+        .add( "11", 13 )
+        .add( "10.3", 12 )
+        .add( "10.2", 11 )
+        .add( "10.1", 10 )
+        .add( "9", 9 );
+
+    /**
+     * swf version by minimum AIR version, highest first
+     */
+    private static final VersionTable AIR_SWF_VERSIONS = new VersionTable()
+        .add( "17.0", 28 )
+        .add( "16.0", 27 )
+        .add( "15.0", 26 )
+        .add( "14.0", 25 )
+        .add( "13.0", 24 )
+        .add( "4.0", 23 )
+        .add( "3.9", 22 )
+        .add( "3.8", 21 )
+        .add( "3.7", 20 )
+        .add( "3.6", 19 )
+        .add( "3.5", 18 )
+        .add( "3.4", 17 )
+        .add( "3.3", 16 )
+        .add( "3.2", 15 )
+        .add( "3.0", 13 );
+
     public static final String PROJECT_TYPE = "getProjectType";
 
     /**
@@ -211,6 +282,12 @@ public abstract class AbstractFlexCompilerMojo<CFG, C extends AbstractFlexCompil
      */
     private Boolean archiveClassesAndAssets;
 
+    /**
+     * @component
+     * @readonly
+     */
+    protected FlexCompilerArgumentParser argumentParser;
+
     /**
      * Use the ActionScript 3 class based object model for greater performance and better error reporting. In the class
      * based object model most built-in functions are implemented as fixed methods of classes
@@ -254,6 +331,48 @@ public abstract class AbstractFlexCompilerMojo<CFG, C extends AbstractFlexCompil
      */
     private Long benchmarkTimeFilter;
 
+    /**
+     * When true, compiler outputs (swf/swc, link report and size report) are kept on a local cache keyed by the
+     * compiler arguments, the sources and the dependencies. Later builds with the very same inputs, even from a clean
+     * checkout, restore the outputs from the cache instead of invoking the compiler.
+     * 
+     * @parameter expression="${flex.buildCache}" default-value="false"
+     */
+    private boolean buildCache;
+
+    /**
+     * Directory holding the build cache, usually shared by every project on the machine. Resource bundles adapted from
+     * another locale are cached there even when the build cache is off, they only depend on the bundle they come from.
+     * 
+     * @parameter expression="${flex.buildCacheDirectory}" default-value="${user.home}/.flexmojos/build-cache"
+     */
+    private File buildCacheDirectory;
+
+    /**
+     * Maximum size of the build cache, in megabytes. Least recently used entries are evicted above that.
+     * 
+     * @parameter expression="${flex.buildCacheMaxSize}" default-value="1024"
+     */
+    private long buildCacheMaxSize;
+
+    /**
+     * Maximum number of resource bundles (one per beacon and locale) resolved concurrently.
+     * 
+     * @parameter expression="${flex.resourceBundleResolutionThreads}" default-value="4"
+     */
+    private int resourceBundleResolutionThreads;
+
+    // shared with the clones, which compile runtime locales and modules out of the same beacons
+    private final Map<String, Artifact> resolvedResourceBundles = new ConcurrentHashMap<String, Artifact>();
+
+    private FingerprintIndex fingerprintIndex;
+
+    // what every adapted resource bundle of this mojo is compiled against, hashed once
+    private String adaptedResourceBundleInputs;
+
+    private final Map<Result, CachedCompilation> pendingBuildCacheStores =
+        Collections.synchronizedMap( new HashMap<Result, CachedCompilation>() );
+
     /**
      * Classifier to add to the artifact generated. If given, the artifact will be an attachment instead.
      * 
@@ -746,7 +865,7 @@ public abstract class AbstractFlexCompilerMojo<CFG, C extends AbstractFlexCompil
      * 
      * @parameter expression="${flex.incremental}"
      */
-    private Boolean incremental;
+    protected Boolean incremental;
 
     /**
      * Enables the compiled application or module to set styles that only affect itself and its children.<BR>
@@ -1456,6 +1575,16 @@ public abstract class AbstractFlexCompilerMojo<CFG, C extends AbstractFlexCompil
             return rbSwc;
         }
 
+        String output = PathUtil.path( baseRbSwc.getFile() ).replace( baseRbSwc.getClassifier(), rbSwc.getClassifier() );
+        Map<String, File> outputs = Collections.singletonMap( "output", new File( output ) );
+        String cacheKey = calculateAdaptedResourceBundleKey( baseRbSwc, requestedLocale );
+        if ( cacheKey != null && restoreAdaptedResourceBundle( cacheKey, outputs ) )
+        {
+            rbSwc.setFile( new File( output ) );
+            rbSwc.setResolved( true );
+            return rbSwc;
+        }
+
         File dest;
         try
         {
@@ -1479,7 +1608,6 @@ public abstract class AbstractFlexCompilerMojo<CFG, C extends AbstractFlexCompil
         ICompcConfiguration cfg = mock( ICompcConfiguration.class, RETURNS_NULL );
         when( cfg.getLoadConfig() ).thenReturn( getLoadConfig() );
         when( cfg.getIncludeResourceBundles() ).thenReturn( bundles );
-        String output = PathUtil.path( baseRbSwc.getFile() ).replace( baseRbSwc.getClassifier(), rbSwc.getClassifier() );
         when( cfg.getOutput() ).thenReturn( output );
 
         ICompilerConfiguration compilerCfg = mock( ICompilerConfiguration.class, RETURNS_NULL );
@@ -1501,11 +1629,113 @@ public abstract class AbstractFlexCompilerMojo<CFG, C extends AbstractFlexCompil
             throw new MavenRuntimeException( "Unable to compile adapted resource bundle", e );
         }
 
+        if ( cacheKey != null )
+        {
+            try
+            {
+                openBuildCache().store( cacheKey, outputs );
+            }
+            catch ( IOException e )
+            {
+                getLog().warn( "Unable to store adapted resource bundle on build cache", e );
+            }
+        }
+
         rbSwc.setFile( new File( output ) );
         rbSwc.setResolved( true );
         return rbSwc;
     }
 
+    /**
+     * An adapted resource bundle only depends on the bundle it is adapted from, the locale it is adapted to and the
+     * compiler, plus the configuration and libraries it is compiled against.
+     * 
+     * @return the build cache key of the adapted bundle, null if it can't be cached
+     */
+    private String calculateAdaptedResourceBundleKey( Artifact baseRbSwc, String requestedLocale )
+    {
+        if ( !buildCache || buildCacheDirectory == null )
+        {
+            return null;
+        }
+
+        BuildCache.Key key = new BuildCache.Key();
+        key.normalize( project.getBasedir(), "${basedir}" );
+        if ( localRepository != null )
+        {
+            key.normalize( new File( localRepository.getBasedir() ), "${localRepository}" );
+        }
+
+        try
+        {
+            key.add( "adapted-resource-bundle" ).add( requestedLocale ).add( compilerName ).add( getCompilerVersion() );
+            key.add( baseRbSwc.getClassifier() ).addFile( baseRbSwc.getFile() );
+            key.add( getAdaptedResourceBundleInputs() );
+        }
+        catch ( IOException e )
+        {
+            getLog().debug( "Unable to calculate the build cache key of " + baseRbSwc, e );
+            return null;
+        }
+        return key.build();
+    }
+
+    /**
+     * @return a hash of the configuration and libraries every adapted resource bundle is compiled against, the same for
+     *         all the bundles and locales of this mojo
+     */
+    private synchronized String getAdaptedResourceBundleInputs()
+        throws IOException
+    {
+        if ( adaptedResourceBundleInputs == null )
+        {
+            BuildCache.Key key = new BuildCache.Key();
+            key.normalize( project.getBasedir(), "${basedir}" );
+            if ( localRepository != null )
+            {
+                key.normalize( new File( localRepository.getBasedir() ), "${localRepository}" );
+            }
+
+            if ( getLoadConfig() != null )
+            {
+                for ( String loadConfig : getLoadConfig() )
+                {
+                    key.addFile( new File( loadConfig ) );
+                }
+            }
+            // a snapshot or reactor library keeps its path when rebuilt, so its content goes into the key
+            for ( File library : getExternalLibraryPath() )
+            {
+                key.addFile( library );
+            }
+            for ( File library : getLibraryPath( false ) )
+            {
+                key.addFile( library );
+            }
+            adaptedResourceBundleInputs = key.build();
+        }
+        return adaptedResourceBundleInputs;
+    }
+
+    private boolean restoreAdaptedResourceBundle( String cacheKey, Map<String, File> outputs )
+    {
+        BuildCache cache = openBuildCache();
+        try
+        {
+            if ( cache.restore( cacheKey, outputs ) )
+            {
+                getLog().info( "Restored adapted resource bundle " + outputs.get( "output" ).getName()
+                                   + " from build cache, no need to recompile (" + cache + ")" );
+                return true;
+            }
+        }
+        catch ( IOException e )
+        {
+            getLog().warn( "Unable to restore adapted resource bundle from build cache, compiling it", e );
+        }
+        return false;
+    }
+
     protected Map<String, String> calculateRuntimeLibraryPath( Artifact artifact, String[] rslUrls,
                                                                String[] policyFileUrls )
     {
@@ -1553,7 +1783,9 @@ public abstract class AbstractFlexCompilerMojo<CFG, C extends AbstractFlexCompil
         try
         {
             C clone = (C) super.clone();
-            clone.cache = new LinkedHashMap<String, Object>();
+            clone.cache = cache.fork();
+            // may be compiled against another configuration
+            clone.adaptedResourceBundleInputs = null;
             return clone;
         }
         catch ( CloneNotSupportedException e )
@@ -1643,7 +1875,15 @@ public abstract class AbstractFlexCompilerMojo<CFG, C extends AbstractFlexCompil
                 {
                     getLog().info( "Resolved resource bundle for '" + beacon + "' using localization chain. The '"
                                        + locale + "' will be used to build the missing '" + requestedLocale + "'" );
-                    return adaptResourceBundle( rbSwc, requestedLocale );
+                    long start = System.currentTimeMillis();
+                    try
+                    {
+                        return adaptResourceBundle( rbSwc, requestedLocale );
+                    }
+                    finally
+                    {
+                        buildMetrics.record( BuildMetrics.RESOURCE_BUNDLE_ADAPTATION, start );
+                    }
                 }
 
                 return rbSwc;
@@ -1657,10 +1897,23 @@ public abstract class AbstractFlexCompilerMojo<CFG, C extends AbstractFlexCompil
     protected Result executeCompiler( CFG cfg, boolean synchronize )
         throws MojoExecutionException, MojoFailureException
     {
+        AbstractFlexCompilerMojo<?, ?> cacheable = buildCache ? getBuildCacheConfiguration( cfg ) : null;
+        String cacheKey = null;
+        List<String> arguments = null;
+        if ( cacheable != null )
+        {
+            arguments = getCompilerArguments( cfg );
+            cacheKey = calculateBuildCacheKey( arguments, cacheable );
+            if ( restoreFromBuildCache( cacheKey, cacheable ) )
+            {
+                return Result.completed( 0 );
+            }
+        }
+
         Result result;
         try
         {
-            result = doCompile( cfg, synchronize );
+            result = arguments == null ? doCompile( cfg, synchronize ) : doCompile( cfg, arguments, synchronize );
         }
         catch ( Exception e )
         {
@@ -1670,11 +1923,214 @@ public abstract class AbstractFlexCompilerMojo<CFG, C extends AbstractFlexCompil
         if ( synchronize )
         {
             checkResult( result );
+            if ( cacheKey != null )
+            {
+                storeOnBuildCache( cacheKey, cacheable );
+            }
+        }
+        else if ( cacheKey != null )
+        {
+            // stored once the compilation is waited for
+            pendingBuildCacheStores.put( result, new CachedCompilation( cacheKey, cacheable ) );
         }
 
         return result;
     }
 
+    @Override
+    public void wait( Collection<Result> results )
+        throws MojoFailureException, MojoExecutionException
+    {
+        for ( Result result : results )
+        {
+            checkResult( result );
+
+            CachedCompilation compilation = pendingBuildCacheStores.remove( result );
+            if ( compilation != null )
+            {
+                storeOnBuildCache( compilation.key, compilation.configuration );
+            }
+        }
+    }
+
+    @Override
+    protected void wait( Result... results )
+        throws MojoFailureException, MojoExecutionException
+    {
+        wait( Arrays.asList( results ) );
+    }
+
+    /**
+     * Reports how long one of the compilations of this mojo (the application, a locale or a module) took.
+     */
+    void recordCompilation( String name, long millis )
+    {
+        buildMetrics.add( BuildMetrics.COMPILATION + name, millis );
+    }
+
+    /**
+     * @return the mojo configuring the given compilation, or null when its outputs can't be cached
+     */
+    protected AbstractFlexCompilerMojo<?, ?> getBuildCacheConfiguration( CFG cfg )
+    {
+        return null;
+    }
+
+    /**
+     * @return the arguments handed to the compiler for the given compilation, parsed once for both the build cache key
+     *         and {@link #doCompile(Object, List, boolean)}
+     */
+    protected List<String> getCompilerArguments( CFG cfg )
+    {
+        return Collections.emptyList();
+    }
+
+    /**
+     * Compiles with the arguments already returned by {@link #getCompilerArguments(Object)}.
+     */
+    protected Result doCompile( CFG cfg, List<String> arguments, boolean synchronize )
+        throws Exception
+    {
+        return doCompile( cfg, synchronize );
+    }
+
+    private BuildCache openBuildCache()
+    {
+        return BuildCache.getInstance( buildCacheDirectory, buildCacheMaxSize * 1024 * 1024 );
+    }
+
+    private Map<String, File> getBuildCacheOutputs( AbstractFlexCompilerMojo<?, ?> cfg )
+    {
+        Map<String, File> outputs = new LinkedHashMap<String, File>();
+        outputs.put( "output", new File( cfg.getOutput() ) );
+        if ( cfg.getLinkReport() != null )
+        {
+            outputs.put( LINK_REPORT, new File( cfg.getLinkReport() ) );
+        }
+        if ( cfg.getSizeReport() != null )
+        {
+            outputs.put( SIZE_REPORT, new File( cfg.getSizeReport() ) );
+        }
+        return outputs;
+    }
+
+    private String calculateBuildCacheKey( List<String> arguments, AbstractFlexCompilerMojo<?, ?> cacheable )
+        throws MojoExecutionException
+    {
+        Collection<File> outputs = getBuildCacheOutputs( cacheable ).values();
+
+        BuildCache.Key key = new BuildCache.Key();
+        key.normalize( project.getBasedir(), "${basedir}" );
+        if ( localRepository != null )
+        {
+            key.normalize( new File( localRepository.getBasedir() ), "${localRepository}" );
+        }
+
+        try
+        {
+            key.add( getClass().getName() ).add( compilerName ).add( getCompilerVersion() );
+
+            for ( String arg : arguments )
+            {
+                key.add( arg );
+
+                // content of configuration files, css, manifests and anything else referenced by path
+                String value =
+                    arg.startsWith( "-" ) && arg.contains( "=" ) ? arg.substring( arg.indexOf( '=' ) + 1 ) : arg;
+                for ( String path : value.split( "," ) )
+                {
+                    File file = new File( path );
+                    if ( file.isFile() && !outputs.contains( file ) )
+                    {
+                        key.addFile( file );
+                    }
+                }
+            }
+
+            for ( File sourcePath : cacheable.getSourcePath() )
+            {
+                key.addFile( sourcePath );
+            }
+
+            List<Artifact> dependencies = new ArrayList<Artifact>( cacheable.getDependencies() );
+            Collections.sort( dependencies );
+            for ( Artifact dependency : dependencies )
+            {
+                key.add( dependency.getDependencyConflictId() );
+                if ( dependency.getFile() != null )
+                {
+                    key.addFile( dependency.getFile() );
+                }
+            }
+        }
+        catch ( IOException e )
+        {
+            throw new MojoExecutionException( "Unable to calculate build cache key", e );
+        }
+
+        return key.build();
+    }
+
+    private boolean restoreFromBuildCache( String cacheKey, AbstractFlexCompilerMojo<?, ?> cacheable )
+    {
+        BuildCache cache = openBuildCache();
+        Map<String, File> outputs = getBuildCacheOutputs( cacheable );
+        long start = System.currentTimeMillis();
+        try
+        {
+            if ( !cache.restore( cacheKey, outputs ) )
+            {
+                getLog().debug( "Build cache miss for " + outputs.get( "output" ) + " (" + cacheKey + ")" );
+                return false;
+            }
+        }
+        catch ( IOException e )
+        {
+            getLog().warn( "Unable to restore " + outputs.get( "output" ) + " from build cache, compiling it", e );
+            return false;
+        }
+        finally
+        {
+            buildMetrics.record( BuildMetrics.OUTPUT_COPY, start );
+        }
+
+        getLog().info( "Restored " + outputs.get( "output" ).getName() + " from build cache, no need to recompile ("
+                           + cache + ")" );
+        return true;
+    }
+
+    private void storeOnBuildCache( String cacheKey, AbstractFlexCompilerMojo<?, ?> cacheable )
+    {
+        BuildCache cache = openBuildCache();
+        long start = System.currentTimeMillis();
+        try
+        {
+            cache.store( cacheKey, getBuildCacheOutputs( cacheable ) );
+            getLog().info( "Build cache: " + cache );
+        }
+        catch ( IOException e )
+        {
+            getLog().warn( "Unable to store compilation on build cache", e );
+        }
+        finally
+        {
+            buildMetrics.record( BuildMetrics.OUTPUT_COPY, start );
+        }
+    }
+
+    private static final class CachedCompilation
+    {
+        final String key;
+
+        final AbstractFlexCompilerMojo<?, ?> configuration;
+
+        CachedCompilation( String key, AbstractFlexCompilerMojo<?, ?> configuration )
+        {
+            this.key = key;
+            this.configuration = configuration;
+        }
+    }
+
     public Boolean getAccessible()
     {
         return accessible;
@@ -1784,8 +2240,6 @@ public abstract class AbstractFlexCompilerMojo<CFG, C extends AbstractFlexCompil
             return null;
         }
 
-        Collection<Artifact> rbsSwc = new LinkedHashSet<Artifact>();
-
         Set<Artifact> beacons = getDependencies( type( RB_SWC ) );
 
         String[] localeChains = this.localesCompiled;
@@ -1794,54 +2248,159 @@ public abstract class AbstractFlexCompilerMojo<CFG, C extends AbstractFlexCompil
             localeChains = getLocale();
         }
 
-        // TODO for for for for if for for, too many nested blocks, improve this
+        // adapting a missing bundle compiles it, a compiler thread (i.e. parsing the arguments of compc) waiting on
+        // other threads that wait for a free compiler thread would deadlock a small pool, so it resolves them itself
+        if ( !CommandUtil.isWorker() )
+        {
+            resolveResourceBundles( beacons, localeChains );
+        }
+
+        Collection<Artifact> rbsSwc = new LinkedHashSet<Artifact>();
         for ( Artifact beacon : beacons )
         {
             for ( String localeChain : localeChains )
             {
-                String[] locales;
-                if ( localeChain.contains( "," ) )
-                {
-                    locales = localeChain.split( "," );
-                }
-                else
-                {
-                    locales = new String[] { localeChain };
-                }
-
-                String requestedLocale = locales[0];
+                rbsSwc.add( getResourceBundle( beacon, localeChain ) );
+            }
+        }
+        return rbsSwc;
+    }
 
-                Artifact requestedRbSwc;
-                try
+    /**
+     * Resolves the resource bundles not resolved yet on up to <code>resourceBundleResolutionThreads</code> threads.
+     */
+    private void resolveResourceBundles( Set<Artifact> beacons, String[] localeChains )
+    {
+        final List<Callable<Artifact>> resolutions = new ArrayList<Callable<Artifact>>();
+        for ( final Artifact beacon : beacons )
+        {
+            for ( final String localeChain : localeChains )
+            {
+                if ( resolvedResourceBundles.containsKey( getResourceBundleKey( beacon, localeChain ) ) )
                 {
-                    requestedRbSwc =
-                        resolve( beacon.getGroupId(), beacon.getArtifactId(), beacon.getVersion(), requestedLocale,
-                                 beacon.getType() );
+                    continue;
                 }
-                catch ( RuntimeMavenResolutionException e )
+                resolutions.add( new Callable<Artifact>()
                 {
-                    requestedRbSwc = e.getArtifact();
-                }
+                    public Artifact call()
+                    {
+                        return getResourceBundle( beacon, localeChain );
+                    }
+                } );
+            }
+        }
 
-                Artifact resultRbSwc;
-                if ( requestedRbSwc.isResolved() )
-                {
-                    resultRbSwc = requestedRbSwc;
-                }
-                else if ( locales.length > 1 )
-                {
-                    resultRbSwc = doLocalizationChain( locales, requestedLocale, beacon, requestedRbSwc );
-                }
-                else
+        final int threads = Math.min( resourceBundleResolutionThreads, resolutions.size() );
+        if ( threads <= 1 )
+        {
+            // left to the caller
+            return;
+        }
+
+        List<Future<Object>> batches = new ArrayList<Future<Object>>();
+        for ( int i = 0; i < threads; i++ )
+        {
+            final int first = i;
+            batches.add( RESOURCE_BUNDLE_RESOLVER.submit( new Callable<Object>()
+            {
+                public Object call()
+                    throws Exception
                 {
-                    throw new MavenRuntimeException( "Missing resource bundle '" + requestedRbSwc + "'" );
+                    for ( int j = first; j < resolutions.size(); j += threads )
+                    {
+                        resolutions.get( j ).call();
+                    }
+                    return null;
                 }
+            } ) );
+        }
 
-                rbsSwc.add( resultRbSwc );
+        try
+        {
+            for ( Future<Object> batch : batches )
+            {
+                batch.get();
             }
         }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new MavenRuntimeException( "Interrupted while resolving resource bundles", e );
+        }
+        catch ( ExecutionException e )
+        {
+            if ( e.getCause() instanceof RuntimeException )
+            {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new MavenRuntimeException( e.getCause().getMessage(), e.getCause() );
+        }
+        finally
+        {
+            for ( Future<Object> batch : batches )
+            {
+                batch.cancel( true );
+            }
+        }
+    }
 
-        return rbsSwc;
+    private static String getResourceBundleKey( Artifact beacon, String localeChain )
+    {
+        return beacon.getId() + "@" + localeChain;
+    }
+
+    /**
+     * @return the resource bundle of the beacon for the first locale of the chain, adapted from the next locales of the
+     *         chain when missing. Resolved once per beacon and locale chain, and shared with the clones of this mojo.
+     */
+    protected Artifact getResourceBundle( Artifact beacon, String localeChain )
+    {
+        String key = getResourceBundleKey( beacon, localeChain );
+        Artifact resultRbSwc = resolvedResourceBundles.get( key );
+        if ( resultRbSwc != null )
+        {
+            return resultRbSwc;
+        }
+
+        String[] locales;
+        if ( localeChain.contains( "," ) )
+        {
+            locales = localeChain.split( "," );
+        }
+        else
+        {
+            locales = new String[] { localeChain };
+        }
+
+        String requestedLocale = locales[0];
+
+        Artifact requestedRbSwc;
+        try
+        {
+            requestedRbSwc =
+                resolve( beacon.getGroupId(), beacon.getArtifactId(), beacon.getVersion(), requestedLocale,
+                         beacon.getType() );
+        }
+        catch ( RuntimeMavenResolutionException e )
+        {
+            requestedRbSwc = e.getArtifact();
+        }
+
+        if ( requestedRbSwc.isResolved() )
+        {
+            resultRbSwc = requestedRbSwc;
+        }
+        else if ( locales.length > 1 )
+        {
+            resultRbSwc = doLocalizationChain( locales, requestedLocale, beacon, requestedRbSwc );
+        }
+        else
+        {
+            throw new MavenRuntimeException( "Missing resource bundle '" + requestedRbSwc + "'" );
+        }
+
+        resolvedResourceBundles.put( key, resultRbSwc );
+        return resultRbSwc;
     }
 
     public ICompilerConfiguration getCompilerConfiguration()
@@ -2484,21 +3043,18 @@ public abstract class AbstractFlexCompilerMojo<CFG, C extends AbstractFlexCompil
             namespaces.addAll( Arrays.asList( this.namespaces ) );
         }
 
-        File dir = getUnpackedFrameworkConfig();
+        FrameworkConfig frameworkConfig = getFrameworkConfiguration();
 
-        if ( dir == null )
+        if ( frameworkConfig == null )
         {
             getLog().error("Could not find framework. Namespaces not included in configuration; " +
                     "errors in the build may occur.");
             return namespaces.toArray( new INamespace[namespaces.size()] );
         }
 
-        Reader cfg = null;
         try
         {
-            cfg = new FileReader( new File( dir, "flex-config.xml" ) );
-
-            Xpp3Dom dom = Xpp3DomBuilder.build( cfg );
+            Xpp3Dom dom = frameworkConfig.getDocument( FrameworkConfig.FLEX_CONFIG );
 
             dom = dom.getChild( "compiler" );
 
@@ -2509,7 +3065,7 @@ public abstract class AbstractFlexCompilerMojo<CFG, C extends AbstractFlexCompil
             {
                 String uri = xpp3Dom.getChild( "uri" ).getValue();
                 String manifestName = xpp3Dom.getChild( "manifest" ).getValue();
-                File manifest = new File( dir, manifestName );
+                File manifest = frameworkConfig.getFile( manifestName );
 
                 namespaces.add( new MavenNamespace( uri, manifest ) );
             }
@@ -2518,10 +3074,6 @@ public abstract class AbstractFlexCompilerMojo<CFG, C extends AbstractFlexCompil
         {
             throw new MavenRuntimeException( "Unable to retrieve flex default namespaces!", e );
         }
-        finally
-        {
-            IOUtil.close( cfg );
-        }
 
         return namespaces.toArray( new INamespace[namespaces.size()] );
     }
@@ -2894,46 +3446,9 @@ public abstract class AbstractFlexCompilerMojo<CFG, C extends AbstractFlexCompil
         }
         // Get the swfVersion based upon the used flashVersion.
         if (flashVersion != null) {
-            if (VersionUtils.isMinVersionOK(flashVersion, "17.0"))
-                return 28;
-            if (VersionUtils.isMinVersionOK(flashVersion, "16.0"))
-                return 27;
-            if (VersionUtils.isMinVersionOK(flashVersion, "15.0"))
-                return 26;
-            if (VersionUtils.isMinVersionOK(flashVersion, "14.0"))
-                return 25;
-            if (VersionUtils.isMinVersionOK(flashVersion, "13.0"))
-                return 24;
-            if (VersionUtils.isMinVersionOK(flashVersion, "12.0"))
-                return 23;
-            if (VersionUtils.isMinVersionOK(flashVersion, "11.9"))
-                return 22;
-            if (VersionUtils.isMinVersionOK(flashVersion, "11.8"))
-                return 21;
-            if (VersionUtils.isMinVersionOK(flashVersion, "11.7"))
-                return 20;
-            if (VersionUtils.isMinVersionOK(flashVersion, "11.6"))
-                return 19;
-            if (VersionUtils.isMinVersionOK(flashVersion, "11.5"))
-                return 18;
-            if (VersionUtils.isMinVersionOK(flashVersion, "11.4"))
-                return 17;
-            if (VersionUtils.isMinVersionOK(flashVersion, "11.3"))
-                return 16;
-            if (VersionUtils.isMinVersionOK(flashVersion, "11.2"))
-                return 15;
-            if (VersionUtils.isMinVersionOK(flashVersion, "11.1"))
-                return 14;
-            if (VersionUtils.isMinVersionOK(flashVersion, "11"))
-                return 13;
-            if (VersionUtils.isMinVersionOK(flashVersion, "10.3"))
-                return 12;
-            if (VersionUtils.isMinVersionOK(flashVersion, "10.2"))
-                return 11;
-            if (VersionUtils.isMinVersionOK(flashVersion, "10.1"))
-                return 10;
-            if (VersionUtils.isMinVersionOK(flashVersion, "9"))
-                return 9;
+            Integer version = FLASH_SWF_VERSIONS.get(flashVersion);
+            if (version != null)
+                return version;
 
             getLog().warn("Unable to determine 'swfVersion' for flashVersion " + flashVersion);
         }
@@ -2947,36 +3462,9 @@ public abstract class AbstractFlexCompilerMojo<CFG, C extends AbstractFlexCompil
         }
         // Get the swfVersion based upon the used airVersion.
         if (airVersion != null) {
-            if (VersionUtils.isMinVersionOK(airVersion, "17.0"))
-                return 28;
-            if (VersionUtils.isMinVersionOK(airVersion, "16.0"))
-                return 27;
-            if (VersionUtils.isMinVersionOK(airVersion, "15.0"))
-                return 26;
-            if (VersionUtils.isMinVersionOK(airVersion, "14.0"))
-                return 25;
-            if (VersionUtils.isMinVersionOK(airVersion, "13.0"))
-                return 24;
-            if (VersionUtils.isMinVersionOK(airVersion, "4.0"))
-                return 23;
-            if (VersionUtils.isMinVersionOK(airVersion, "3.9"))
-                return 22;
-            if (VersionUtils.isMinVersionOK(airVersion, "3.8"))
-                return 21;
-            if (VersionUtils.isMinVersionOK(airVersion, "3.7"))
-                return 20;
-            if (VersionUtils.isMinVersionOK(airVersion, "3.6"))
-                return 19;
-            if (VersionUtils.isMinVersionOK(airVersion, "3.5"))
-                return 18;
-            if (VersionUtils.isMinVersionOK(airVersion, "3.4"))
-                return 17;
-            if (VersionUtils.isMinVersionOK(airVersion, "3.3"))
-                return 16;
-            if (VersionUtils.isMinVersionOK(airVersion, "3.2"))
-                return 15;
-            if (VersionUtils.isMinVersionOK(airVersion, "3.0"))
-                return 13;
+            Integer version = AIR_SWF_VERSIONS.get(airVersion);
+            if (version != null)
+                return version;
 
             getLog().warn("Unable to determine 'swfVersion' for airVersion " + airVersion);
         }
@@ -3293,6 +3781,51 @@ public abstract class AbstractFlexCompilerMojo<CFG, C extends AbstractFlexCompil
             return true;
         }
 
+        Set<Artifact> dependencies = getDependencies();
+        List<File> dependencyFiles = new ArrayList<File>();
+        for ( Artifact dependency : dependencies )
+        {
+            if ( dependency.getFile() != null )
+            {
+                dependencyFiles.add( dependency.getFile() );
+            }
+        }
+        File sourceDirectory = new File( project.getBuild().getSourceDirectory() );
+
+        FingerprintIndex index = null;
+        List<String> changes = null;
+        try
+        {
+            index = getFingerprintIndex();
+            changes =
+                index.scan( getQuickModeConfiguration(), Collections.singletonList( sourceDirectory ),
+                            dependencyFiles );
+        }
+        catch ( IOException e )
+        {
+            getLog().warn( "Unable to read the fingerprint index, checking timestamps instead: " + e.getMessage() );
+            index = null;
+        }
+
+        if ( index != null && !index.isNew() )
+        {
+            if ( !changes.isEmpty() )
+            {
+                getLog().info( "Found " + changes.size() + " changed input(s) since the last compilation:" );
+                for ( String change : changes )
+                {
+                    getLog().info( "  " + change );
+                }
+                return true;
+            }
+
+            if ( new File( getOutput() ).exists() )
+            {
+                getLog().debug( "No input changed since the last compilation." );
+                return false;
+            }
+        }
+
         Artifact artifact;
         try
         {
@@ -3315,7 +3848,6 @@ public abstract class AbstractFlexCompilerMojo<CFG, C extends AbstractFlexCompil
         long lastCompiledArtifact = artifact.getFile().lastModified();
 
         boolean required = false;
-        Set<Artifact> dependencies = getDependencies();
         for ( Artifact dependency : dependencies )
         {
             if ( org.apache.commons.io.FileUtils.isFileNewer( dependency.getFile(), lastCompiledArtifact ) )
@@ -3328,21 +3860,34 @@ public abstract class AbstractFlexCompilerMojo<CFG, C extends AbstractFlexCompil
 
         if ( !required )
         {
-            Collection<File> files =
-                org.apache.commons.io.FileUtils.listFiles( new File( project.getBuild().getSourceDirectory() ),
-                                                           new AgeFileFilter( lastCompiledArtifact, false ),
-                                                           TrueFileFilter.INSTANCE );
-
-            // If has any newer file
-            if ( files.size() > 0 )
+            List<File> inputs = new ArrayList<File>();
+            if ( index != null )
             {
-                getLog().warn( "Found some updated files." );
-                required = true;
+                // the scan already listed them
+                for ( String input : index.getHashes().keySet() )
+                {
+                    inputs.add( new File( input ) );
+                }
+            }
+            else if ( sourceDirectory.isDirectory() )
+            {
+                inputs.addAll( org.apache.commons.io.FileUtils.listFiles( sourceDirectory, TrueFileFilter.INSTANCE,
+                                                                          TrueFileFilter.INSTANCE ) );
+            }
+            for ( File input : inputs )
+            {
+                // If has any newer file
+                if ( org.apache.commons.io.FileUtils.isFileNewer( input, lastCompiledArtifact ) )
+                {
+                    getLog().warn( "Found an updated file: " + input );
+                    required = true;
+                }
             }
         }
 
         if ( !required )
         {
+            long start = System.currentTimeMillis();
             try
             {
                 final File output = new File( getOutput() );
@@ -3359,12 +3904,92 @@ public abstract class AbstractFlexCompilerMojo<CFG, C extends AbstractFlexCompil
                 getLog().error( "Unable to copy installed version to target folder.", e );
                 return true;
             }
+            finally
+            {
+                buildMetrics.record( BuildMetrics.OUTPUT_COPY, start );
+            }
+
+            saveFingerprintIndex();
         }
 
         // nothing new was found.
         return required;
     }
 
+    /**
+     * Fingerprint of how this project is compiled: the flexmojos configuration of the pom, its executions and the
+     * <code>flex.*</code> properties given on the command line. A change on any of them invalidates the fingerprint
+     * index, as the same sources would compile to something else.
+     */
+    protected String getQuickModeConfiguration()
+    {
+        BuildCache.Key key = new BuildCache.Key();
+        key.add( getClass().getName() ).add( compilerName ).add( getCompilerVersion() ).add( getClassifier() );
+        key.add( getOutput() );
+
+        Plugin plugin = project.getPlugin( FLEXMOJOS );
+        if ( plugin != null )
+        {
+            key.add( plugin.getVersion() ).add( String.valueOf( plugin.getConfiguration() ) );
+            for ( PluginExecution execution : plugin.getExecutions() )
+            {
+                key.add( execution.getId() ).add( String.valueOf( execution.getConfiguration() ) );
+            }
+        }
+
+        if ( session != null )
+        {
+            Map<Object, Object> properties = new TreeMap<Object, Object>( session.getRequest().getUserProperties() );
+            for ( Map.Entry<Object, Object> property : properties.entrySet() )
+            {
+                if ( property.getKey().toString().startsWith( "flex" ) )
+                {
+                    key.add( property.getKey() + "=" + property.getValue() );
+                }
+            }
+        }
+
+        return key.build();
+    }
+
+    /**
+     * Index of the compilation inputs fingerprinted by the last quick mode check, stored under the build directory so
+     * <code>mvn clean</code> drops it together with the outputs.
+     */
+    protected FingerprintIndex getFingerprintIndex()
+        throws IOException
+    {
+        if ( fingerprintIndex == null )
+        {
+            String name = getClass().getSimpleName() + ( getClassifier() == null ? "" : "-" + getClassifier() );
+            fingerprintIndex =
+                FingerprintIndex.load( new File( project.getBuild().getDirectory(), "flexmojos/fingerprints/" + name
+                    + ".txt" ) );
+        }
+        return fingerprintIndex;
+    }
+
+    /**
+     * Records the inputs fingerprinted by {@link #isCompilationRequired()} as the ones matching the current output.
+     */
+    public void saveFingerprintIndex()
+    {
+        if ( fingerprintIndex == null )
+        {
+            return;
+        }
+
+        try
+        {
+            fingerprintIndex.save();
+        }
+        catch ( IOException e )
+        {
+            getLog().warn( "Unable to save the fingerprint index, next quick mode check will be slower: "
+                + e.getMessage() );
+        }
+    }
+
     @SuppressWarnings( "unchecked" )
     private File resolveThemeFile( String artifactName )
     {
@@ -32,6 +32,7 @@ import org.codehaus.plexus.util.DirectoryScanner;
 import net.flexmojos.oss.compiler.ICompcConfiguration;
 import net.flexmojos.oss.compiler.IIncludeFile;
 import net.flexmojos.oss.compiler.IIncludeStylesheet;
+import net.flexmojos.oss.compiler.command.CommandUtil;
 import net.flexmojos.oss.compiler.command.Result;
 import net.flexmojos.oss.plugin.compiler.attributes.MavenIncludeStylesheet;
 import net.flexmojos.oss.plugin.compiler.attributes.SimplifiablePattern;
@@ -239,6 +240,29 @@ public class CompcMojo
         return compiler.compileSwc( cfg, synchronize, compilerName );
     }
 
+    @Override
+    protected AbstractFlexCompilerMojo<?, ?> getBuildCacheConfiguration( ICompcConfiguration cfg )
+    {
+        if ( cfg instanceof AbstractFlexCompilerMojo )
+        {
+            return (AbstractFlexCompilerMojo<?, ?>) cfg;
+        }
+        return null;
+    }
+
+    @Override
+    protected List<String> getCompilerArguments( ICompcConfiguration cfg )
+    {
+        return argumentParser.getArgumentsList( cfg, ICompcConfiguration.class );
+    }
+
+    @Override
+    protected Result doCompile( ICompcConfiguration cfg, List<String> arguments, boolean synchronize )
+        throws Exception
+    {
+        return compiler.compileSwc( arguments, synchronize, compilerName );
+    }
+
     public void fmExecute()
         throws MojoExecutionException, MojoFailureException
     {
@@ -248,20 +272,31 @@ public class CompcMojo
             return;
         }
 
+        long start = System.currentTimeMillis();
         executeCompiler( this, true );
+        recordCompilation( "library", System.currentTimeMillis() - start );
 
         if ( getLocalesRuntime() != null )
         {
-            List<Result> results = new ArrayList<Result>();
+            CompilationGraph graph =
+                new CompilationGraph( this, fullSynchronization ? 1 : CommandUtil.getPoolSize() );
             for ( String locale : getLocalesRuntime() )
             {
-                CompcMojo cfg = this.clone();
+                final CompcMojo cfg = this.clone();
                 configureResourceBundle( locale, cfg );
                 cfg.getCache().put( PROJECT_TYPE, RB_SWC );
-                results.add( executeCompiler( cfg, fullSynchronization ) );
+                graph.add( new CompilationGraph.Job( "locale " + locale )
+                {
+                    Result start()
+                        throws MojoExecutionException, MojoFailureException
+                    {
+                        return executeCompiler( cfg, false );
+                    }
+                } );
             }
 
-            wait( results );
+            graph.run();
+            getLog().debug( graph.getSummary() );
         }
     }
 
@@ -0,0 +1,264 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.compiler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import net.flexmojos.oss.compiler.command.Result;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+
+/**
+ * Schedules the compilations of a build by their dependencies. A job is submitted as soon as every job it depends on
+ * is done, with at most <code>maxRunning</code> jobs in flight, and the chain of jobs that bounded the build time is
+ * reported once everything finished.
+ */
+class CompilationGraph
+{
+
+    private final AbstractFlexCompilerMojo<?, ?> mojo;
+
+    private final int maxRunning;
+
+    private final Set<Job> jobs = new LinkedHashSet<Job>();
+
+    private long started;
+
+    private long finished;
+
+    /**
+     * @param mojo waits for the compilations, so failures are reported, build cache entries stored and times recorded
+     * @param maxRunning maximum number of jobs in flight
+     */
+    CompilationGraph( AbstractFlexCompilerMojo<?, ?> mojo, int maxRunning )
+    {
+        this.mojo = mojo;
+        this.maxRunning = Math.max( 1, maxRunning );
+    }
+
+    /**
+     * Adds a job, its dependencies must already be part of the graph.
+     */
+    <J extends Job> J add( J job )
+    {
+        if ( !jobs.containsAll( job.dependencies ) )
+        {
+            throw new IllegalArgumentException( "Dependencies of " + job + " must be added first" );
+        }
+        jobs.add( job );
+        return job;
+    }
+
+    void run()
+        throws MojoExecutionException, MojoFailureException
+    {
+        started = System.currentTimeMillis();
+
+        List<Job> pending = new ArrayList<Job>( jobs );
+        Map<Result, Job> running = new HashMap<Result, Job>();
+        // every started job signals its result here once done
+        BlockingQueue<Result> completions = new LinkedBlockingQueue<Result>();
+        boolean failed = true;
+        try
+        {
+            while ( !pending.isEmpty() || !running.isEmpty() )
+            {
+                for ( Iterator<Job> it = pending.iterator(); it.hasNext() && running.size() < maxRunning; )
+                {
+                    Job job = it.next();
+                    if ( job.isReady() )
+                    {
+                        it.remove();
+                        job.submitted = System.currentTimeMillis();
+                        job.result = job.start();
+                        running.put( job.result, job );
+                        job.result.notifyCompletion( completions );
+                    }
+                }
+
+                Job done = running.remove( completions.take() );
+                done.finished = System.currentTimeMillis();
+                mojo.recordCompilation( done.name, done.getTime() );
+
+                mojo.wait( Collections.singletonList( done.result ) );
+                done.completed();
+            }
+            failed = false;
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException( "Interrupted while waiting for the compilations", e );
+        }
+        finally
+        {
+            if ( failed )
+            {
+                drain( running, completions );
+            }
+            finished = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Waits for the jobs still in flight once the build failed, so none keeps compiling on the shared compiler threads
+     * after the mojo is over and their own failures get reported.
+     */
+    private void drain( Map<Result, Job> running, BlockingQueue<Result> completions )
+    {
+        while ( !running.isEmpty() )
+        {
+            Job done;
+            try
+            {
+                done = running.remove( completions.take() );
+            }
+            catch ( InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            done.finished = System.currentTimeMillis();
+
+            try
+            {
+                mojo.wait( Collections.singletonList( done.result ) );
+            }
+            catch ( Exception e )
+            {
+                mojo.getLog().error( "Compilation of " + done + " failed as well: " + e.getMessage(), e );
+            }
+        }
+    }
+
+    /**
+     * @return the chain of jobs that ended last, each one being the latest finished dependency of the next
+     */
+    List<Job> getCriticalPath()
+    {
+        List<Job> path = new ArrayList<Job>();
+        Job last = latest( jobs );
+        while ( last != null )
+        {
+            path.add( 0, last );
+            last = latest( last.dependencies );
+        }
+        return path;
+    }
+
+    String getSummary()
+    {
+        StringBuilder summary = new StringBuilder( "Critical path: " );
+        long total = 0;
+        String separator = "";
+        for ( Job job : getCriticalPath() )
+        {
+            summary.append( separator ).append( job ).append( " (" ).append( job.getTime() ).append( " ms)" );
+            separator = " -> ";
+            total += job.getTime();
+        }
+        summary.append( ", " ).append( total ).append( " ms of " ).append( finished - started );
+        summary.append( " ms for " ).append( jobs.size() ).append( " compilation(s)" );
+        return summary.toString();
+    }
+
+    private static Job latest( Iterable<Job> candidates )
+    {
+        Job latest = null;
+        for ( Job job : candidates )
+        {
+            if ( job.finished != 0 && ( latest == null || job.finished > latest.finished ) )
+            {
+                latest = job;
+            }
+        }
+        return latest;
+    }
+
+    abstract static class Job
+    {
+
+        final String name;
+
+        final List<Job> dependencies;
+
+        Result result;
+
+        long submitted;
+
+        long finished;
+
+        Job( String name, Job... dependencies )
+        {
+            this.name = name;
+            this.dependencies = Arrays.asList( dependencies );
+        }
+
+        /**
+         * Submits the compilation, without waiting for it.
+         */
+        abstract Result start()
+            throws MojoExecutionException, MojoFailureException;
+
+        /**
+         * Called once the compilation succeeded, before the jobs depending on it are started.
+         */
+        void completed()
+            throws MojoExecutionException, MojoFailureException
+        {
+        }
+
+        boolean isReady()
+        {
+            for ( Job dependency : dependencies )
+            {
+                if ( dependency.finished == 0 )
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * @return milliseconds from submission to completion, including the time spent queued for a compiler thread
+         */
+        long getTime()
+        {
+            return finished - submitted;
+        }
+
+        @Override
+        public String toString()
+        {
+            return name;
+        }
+    }
+
+}
@@ -19,6 +19,7 @@ package net.flexmojos.oss.plugin.compiler;
 
 import net.flexmojos.oss.compiler.ICommandLineConfiguration;
 import net.flexmojos.oss.compiler.MxmlcConfigurationHolder;
+import net.flexmojos.oss.compiler.command.CommandUtil;
 import net.flexmojos.oss.compiler.command.Result;
 import net.flexmojos.oss.plugin.compiler.attributes.Module;
 import net.flexmojos.oss.plugin.utilities.MavenUtils;
@@ -148,11 +149,49 @@ public class MxmlcMojo
     public final Result doCompile( MxmlcConfigurationHolder cfg, boolean synchronize )
         throws Exception
     {
+        return compiler.compileSwf( cfg, synchronize, compilerName );
+    }
+
+    @Override
+    protected Result executeCompiler( MxmlcConfigurationHolder cfg, boolean synchronize )
+        throws MojoExecutionException, MojoFailureException
+    {
+        // done before the build cache is looked up, so restored swfs get trusted as well
         if ( isUpdateSecuritySandbox() )
         {
             truster.updateSecuritySandbox( PathUtil.file( cfg.getConfiguration().getOutput() ) );
         }
-        return compiler.compileSwf( cfg, synchronize, compilerName );
+        return super.executeCompiler( cfg, synchronize );
+    }
+
+    @Override
+    protected AbstractFlexCompilerMojo<?, ?> getBuildCacheConfiguration( MxmlcConfigurationHolder cfg )
+    {
+        if ( cfg.getConfiguration() instanceof AbstractFlexCompilerMojo )
+        {
+            return (AbstractFlexCompilerMojo<?, ?>) cfg.getConfiguration();
+        }
+        return null;
+    }
+
+    @Override
+    protected List<String> getCompilerArguments( MxmlcConfigurationHolder cfg )
+    {
+        List<String> args =
+            new ArrayList<String>( argumentParser.getArgumentsList( cfg.getConfiguration(),
+                                                                    ICommandLineConfiguration.class ) );
+        if ( cfg.getSourceFile() != null )
+        {
+            args.add( PathUtil.path( cfg.getSourceFile() ) );
+        }
+        return args;
+    }
+
+    @Override
+    protected final Result doCompile( MxmlcConfigurationHolder cfg, List<String> arguments, boolean synchronize )
+        throws Exception
+    {
+        return compiler.compileSwf( arguments, synchronize, compilerName );
     }
 
     public void fmExecute()
@@ -164,30 +203,49 @@ public class MxmlcMojo
             return;
         }
 
-        executeCompiler( new MxmlcConfigurationHolder( this, getSourceFile() ), true );
-        File output = file( getOutput() );
-        if ( !output.exists() )
+        CompilationGraph graph =
+            new CompilationGraph( this, fullSynchronization ? 1 : CommandUtil.getPoolSize() );
+
+        final CompilationGraph.Job application = graph.add( new CompilationGraph.Job( "application" )
         {
-            throw new IllegalStateException( "Output file doesn't exist and no error was thrown by the compiler!" );
-        }
+            Result start()
+                throws MojoExecutionException, MojoFailureException
+            {
+                return executeCompiler( new MxmlcConfigurationHolder( MxmlcMojo.this, getSourceFile() ), false );
+            }
+
+            @Override
+            void completed()
+            {
+                File output = file( getOutput() );
+                if ( !output.exists() )
+                {
+                    throw new IllegalStateException( "Output file doesn't exist and no error was thrown by the "
+                        + "compiler!" );
+                }
+            }
+        } );
 
+        // runtime locales don't need anything from the application
         if ( getLocalesRuntime() != null )
         {
-            List<Result> results = new ArrayList<Result>();
             for ( String locale : getLocalesRuntime() )
             {
-                MxmlcMojo cfg = this.clone();
+                final MxmlcMojo cfg = this.clone();
                 configureResourceBundle( locale, cfg );
-                results.add( executeCompiler( new MxmlcConfigurationHolder( cfg, null ), fullSynchronization ) );
+                graph.add( new CompilationGraph.Job( "locale " + locale )
+                {
+                    Result start()
+                        throws MojoExecutionException, MojoFailureException
+                    {
+                        return executeCompiler( new MxmlcConfigurationHolder( cfg, null ), false );
+                    }
+                } );
             }
-
-            wait( results );
         }
 
         if ( getModules() != null )
         {
-            List<Result> results = new ArrayList<Result>();
-
             for ( Module module : getModules() )
             {
                 if ( module.isOptimize() == null )
@@ -195,7 +253,7 @@ public class MxmlcMojo
                     module.setOptimize( modulesLoadExterns );
                 }
 
-                File moduleSource =
+                final File moduleSource =
                     SourceFileResolver.resolveSourceFile( project.getCompileSourceRoots(), module.getSourceFile() );
 
                 String classifier = FilenameUtils.getBaseName( moduleSource.getName() ).toLowerCase();
@@ -227,7 +285,7 @@ public class MxmlcMojo
                     loadExterns.addAll( Arrays.asList( getLoadExterns() ) );
                 }
 
-                MxmlcMojo cfg = this.clone();
+                final MxmlcMojo cfg = this.clone();
                 cfg.classifier = classifier;
                 cfg.targetDirectory = moduleOutputDir;
                 cfg.finalName = moduleFinalName;
@@ -238,11 +296,23 @@ public class MxmlcMojo
                 cfg.getCache().put( RUNTIME_SHARED_LIBRARY_PATH, null );
                 cfg.getCache().put( INCLUDE_LIBRARIES, null );
                 cfg.getCache().put( EXTERNAL_LIBRARY_PATH, getModulesExternalLibraryPath() );
-                results.add( executeCompiler( new MxmlcConfigurationHolder( cfg, moduleSource ), fullSynchronization ) );
-            }
 
-            wait( results );
+                // optimized modules load the application link report as externs
+                CompilationGraph.Job[] dependencies =
+                    module.isOptimize() ? new CompilationGraph.Job[] { application } : new CompilationGraph.Job[0];
+                graph.add( new CompilationGraph.Job( "module " + classifier, dependencies )
+                {
+                    Result start()
+                        throws MojoExecutionException, MojoFailureException
+                    {
+                        return executeCompiler( new MxmlcConfigurationHolder( cfg, moduleSource ), false );
+                    }
+                } );
+            }
         }
+
+        graph.run();
+        getLog().info( graph.getSummary() );
     }
 
     public List<String> getFileSpecs()
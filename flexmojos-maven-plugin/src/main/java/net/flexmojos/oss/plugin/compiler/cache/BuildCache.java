@@ -0,0 +1,566 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.compiler.cache;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.flexmojos.oss.util.PathUtil;
+import org.codehaus.plexus.util.FileUtils;
+import org.codehaus.plexus.util.IOUtil;
+
+/**
+ * Local, content-addressed cache of compiler outputs. Entries are keyed by a hash of everything that goes into a
+ * compilation (see {@link Key}) and hold the files it produced (swf/swc, link report, size report), so a later build
+ * with the same inputs can restore them without calling the compiler. The least recently used entries are evicted once
+ * the cache grows over its maximum size.
+ */
+public class BuildCache
+{
+
+    private static final String ENTRY = "entry.properties";
+
+    private static final String OUTPUTS = "outputs";
+
+    private static final String SIZE = "size";
+
+    private static final Map<File, BuildCache> INSTANCES = new HashMap<File, BuildCache>();
+
+    /**
+     * File digests by canonical path, length and last modification, so every compilation of a build hashing the same
+     * sources and libraries only reads them once
+     */
+    private static final Map<String, String> DIGESTS = new ConcurrentHashMap<String, String>();
+
+    private static Reference<Object> digestScope = new WeakReference<Object>( null );
+
+    /**
+     * @return the cache living on the given directory, shared by every module of the build
+     */
+    public static synchronized BuildCache getInstance( File directory, long maxSize )
+    {
+        File key = directory.getAbsoluteFile();
+        BuildCache cache = INSTANCES.get( key );
+        if ( cache == null )
+        {
+            cache = new BuildCache( key, maxSize );
+            INSTANCES.put( key, cache );
+        }
+        cache.maxSize = maxSize;
+        return cache;
+    }
+
+    private final File directory;
+
+    private volatile long maxSize;
+
+    private final AtomicInteger hits = new AtomicInteger();
+
+    private final AtomicInteger misses = new AtomicInteger();
+
+    private final AtomicInteger stores = new AtomicInteger();
+
+    private final AtomicInteger evictions = new AtomicInteger();
+
+    private long size = -1;
+
+    private int entries;
+
+    BuildCache( File directory, long maxSize )
+    {
+        this.directory = directory;
+        this.maxSize = maxSize;
+    }
+
+    public File getDirectory()
+    {
+        return directory;
+    }
+
+    /**
+     * Copies the outputs cached under the key to their destination.
+     * 
+     * @param outputs the destination of each output, by name
+     * @return false when nothing is cached for the key (or some requested output is missing from the entry)
+     */
+    public boolean restore( String key, Map<String, File> outputs )
+        throws IOException
+    {
+        File entry = getEntry( key );
+        File marker = new File( entry, ENTRY );
+        if ( !marker.isFile() )
+        {
+            misses.incrementAndGet();
+            return false;
+        }
+
+        if ( !getOutputs( marker ).containsAll( outputs.keySet() ) )
+        {
+            misses.incrementAndGet();
+            return false;
+        }
+
+        for ( Map.Entry<String, File> output : outputs.entrySet() )
+        {
+            File destination = output.getValue();
+            if ( destination.getParentFile() != null )
+            {
+                destination.getParentFile().mkdirs();
+            }
+            FileUtils.copyFile( new File( entry, output.getKey() ), destination );
+        }
+
+        // entries are evicted by last use
+        marker.setLastModified( System.currentTimeMillis() );
+        hits.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Stores the outputs of a compilation. Outputs that don't exist (i.e. a report that wasn't generated) are skipped.
+     * When the key is already cached without some of the outputs, the entry is replaced by one holding both the cached
+     * and the new outputs.
+     */
+    public void store( String key, Map<String, File> outputs )
+        throws IOException
+    {
+        File entry = getEntry( key );
+        File marker = new File( entry, ENTRY );
+
+        List<String> produced = new ArrayList<String>();
+        for ( Map.Entry<String, File> output : outputs.entrySet() )
+        {
+            if ( output.getValue().isFile() )
+            {
+                produced.add( output.getKey() );
+            }
+        }
+
+        List<String> cached = Collections.emptyList();
+        if ( marker.isFile() )
+        {
+            cached = getOutputs( marker );
+            if ( cached.containsAll( produced ) )
+            {
+                return;
+            }
+        }
+
+        // build the entry aside and move it into place, so concurrent builds never see half written entries
+        File tmp = new File( directory, "tmp-" + UUID.randomUUID() );
+        File previous = null;
+        tmp.mkdirs();
+        try
+        {
+            Map<String, File> files = new LinkedHashMap<String, File>();
+            for ( String name : cached )
+            {
+                File file = new File( entry, name );
+                if ( file.isFile() )
+                {
+                    files.put( name, file );
+                }
+            }
+            for ( String name : produced )
+            {
+                files.put( name, outputs.get( name ) );
+            }
+
+            StringBuilder names = new StringBuilder();
+            long entrySize = 0;
+            for ( Map.Entry<String, File> file : files.entrySet() )
+            {
+                FileUtils.copyFile( file.getValue(), new File( tmp, file.getKey() ) );
+                entrySize += file.getValue().length();
+                if ( names.length() != 0 )
+                {
+                    names.append( ',' );
+                }
+                names.append( file.getKey() );
+            }
+
+            Properties properties = new Properties();
+            properties.setProperty( OUTPUTS, names.toString() );
+            properties.setProperty( SIZE, String.valueOf( entrySize ) );
+            save( properties, new File( tmp, ENTRY ) );
+
+            entry.getParentFile().mkdirs();
+            if ( marker.isFile() )
+            {
+                // an existing directory can't be renamed over, move the incomplete entry out of the way first
+                previous = new File( directory, "tmp-" + UUID.randomUUID() );
+                if ( !entry.renameTo( previous ) )
+                {
+                    previous = null;
+                    return;
+                }
+            }
+            if ( !tmp.renameTo( entry ) )
+            {
+                // someone else stored the same entry meanwhile
+                return;
+            }
+            stores.incrementAndGet();
+        }
+        finally
+        {
+            if ( tmp.exists() )
+            {
+                FileUtils.deleteDirectory( tmp );
+            }
+            if ( previous != null && previous.exists() )
+            {
+                FileUtils.deleteDirectory( previous );
+            }
+        }
+
+        evict();
+    }
+
+    /**
+     * Removes the least recently used entries until the cache fits on its maximum size.
+     */
+    synchronized void evict()
+        throws IOException
+    {
+        List<File> markers = new ArrayList<File>();
+        File[] buckets = directory.listFiles();
+        if ( buckets != null )
+        {
+            for ( File bucket : buckets )
+            {
+                File[] candidates = bucket.listFiles();
+                if ( bucket.getName().length() != 2 || candidates == null )
+                {
+                    continue;
+                }
+                for ( File candidate : candidates )
+                {
+                    File marker = new File( candidate, ENTRY );
+                    if ( marker.isFile() )
+                    {
+                        markers.add( marker );
+                    }
+                }
+            }
+        }
+
+        final Map<File, Long> lastUse = new HashMap<File, Long>();
+        Map<File, Long> sizes = new LinkedHashMap<File, Long>();
+        long total = 0;
+        for ( File marker : markers )
+        {
+            long entrySize = Long.parseLong( load( marker ).getProperty( SIZE, "0" ) );
+            sizes.put( marker, entrySize );
+            lastUse.put( marker, marker.lastModified() );
+            total += entrySize;
+        }
+
+        Collections.sort( markers, new Comparator<File>()
+        {
+            public int compare( File o1, File o2 )
+            {
+                return lastUse.get( o1 ).compareTo( lastUse.get( o2 ) );
+            }
+        } );
+
+        int count = markers.size();
+        for ( File marker : markers )
+        {
+            if ( total <= maxSize )
+            {
+                break;
+            }
+            FileUtils.deleteDirectory( marker.getParentFile() );
+            total -= sizes.get( marker );
+            count--;
+            evictions.incrementAndGet();
+        }
+
+        size = total;
+        entries = count;
+    }
+
+    private static List<String> getOutputs( File marker )
+        throws IOException
+    {
+        return Arrays.asList( load( marker ).getProperty( OUTPUTS, "" ).split( "," ) );
+    }
+
+    File getEntry( String key )
+    {
+        return new File( new File( directory, key.substring( 0, 2 ) ), key );
+    }
+
+    public int getHits()
+    {
+        return hits.get();
+    }
+
+    public int getMisses()
+    {
+        return misses.get();
+    }
+
+    public int getStores()
+    {
+        return stores.get();
+    }
+
+    public int getEvictions()
+    {
+        return evictions.get();
+    }
+
+    /**
+     * @return the size of the cached outputs in bytes, as of the last store
+     */
+    public synchronized long getSize()
+        throws IOException
+    {
+        if ( size < 0 )
+        {
+            evict();
+        }
+        return size;
+    }
+
+    @Override
+    public String toString()
+    {
+        long currentSize;
+        int currentEntries;
+        synchronized ( this )
+        {
+            currentSize = size;
+            currentEntries = entries;
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append( hits ).append( " hit(s), " ).append( misses ).append( " miss(es), " );
+        sb.append( stores ).append( " store(s), " ).append( evictions ).append( " eviction(s)" );
+        if ( currentSize >= 0 )
+        {
+            sb.append( ", " ).append( currentSize / 1024 ).append( " KB in " ).append( currentEntries );
+            sb.append( " entries" );
+        }
+        return sb.toString();
+    }
+
+    private static Properties load( File file )
+        throws IOException
+    {
+        Properties properties = new Properties();
+        InputStream in = new FileInputStream( file );
+        try
+        {
+            properties.load( in );
+        }
+        finally
+        {
+            IOUtil.close( in );
+        }
+        return properties;
+    }
+
+    private static void save( Properties properties, File file )
+        throws IOException
+    {
+        OutputStream out = new FileOutputStream( file );
+        try
+        {
+            properties.store( out, null );
+        }
+        finally
+        {
+            IOUtil.close( out );
+        }
+    }
+
+    /**
+     * Scopes the digests remembered by {@link #digest(File)}, usually to the maven session request. When the scope
+     * changes (a new build on the same JVM) everything remembered so far is dropped.
+     */
+    public static void bindDigests( Object scope )
+    {
+        if ( scope == null )
+        {
+            return;
+        }
+
+        synchronized ( DIGESTS )
+        {
+            if ( digestScope.get() != scope )
+            {
+                DIGESTS.clear();
+                digestScope = new WeakReference<Object>( scope );
+            }
+        }
+    }
+
+    /**
+     * @return the SHA-1 of the file content, read once per build as long as its length and modification time stay
+     */
+    public static String digest( File file )
+        throws IOException
+    {
+        String key = PathUtil.path( file ) + '|' + file.length() + '|' + file.lastModified();
+        String digest = DIGESTS.get( key );
+        if ( digest == null )
+        {
+            digest = read( file );
+            DIGESTS.put( key, digest );
+        }
+        return digest;
+    }
+
+    private static String read( File file )
+        throws IOException
+    {
+        MessageDigest md = newDigest();
+        InputStream in = new FileInputStream( file );
+        try
+        {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ( ( read = in.read( buffer ) ) != -1 )
+            {
+                md.update( buffer, 0, read );
+            }
+        }
+        finally
+        {
+            IOUtil.close( in );
+        }
+        return toHex( md.digest() );
+    }
+
+    private static MessageDigest newDigest()
+    {
+        try
+        {
+            return MessageDigest.getInstance( "SHA-1" );
+        }
+        catch ( NoSuchAlgorithmException e )
+        {
+            throw new IllegalStateException( e );
+        }
+    }
+
+    private static String toHex( byte[] bytes )
+    {
+        StringBuilder sb = new StringBuilder( bytes.length * 2 );
+        for ( byte b : bytes )
+        {
+            sb.append( Character.forDigit( ( b >> 4 ) & 0xF, 16 ) );
+            sb.append( Character.forDigit( b & 0xF, 16 ) );
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Builds a cache key out of the inputs of a compilation. Absolute paths are normalized so the same project checked
+     * out on another directory maps to the same key.
+     */
+    public static class Key
+    {
+
+        private final MessageDigest md = newDigest();
+
+        private final Map<String, String> replacements = new LinkedHashMap<String, String>();
+
+        /**
+         * Replaces the given path by a placeholder on every value added afterwards.
+         */
+        public Key normalize( File path, String placeholder )
+        {
+            if ( path != null )
+            {
+                replacements.put( path.getAbsolutePath(), placeholder );
+            }
+            return this;
+        }
+
+        public Key add( String value )
+        {
+            String normalized = String.valueOf( value );
+            for ( Map.Entry<String, String> replacement : replacements.entrySet() )
+            {
+                normalized = normalized.replace( replacement.getKey(), replacement.getValue() );
+            }
+            try
+            {
+                md.update( normalized.getBytes( "UTF-8" ) );
+            }
+            catch ( IOException e )
+            {
+                throw new IllegalStateException( e );
+            }
+            md.update( (byte) 0 );
+            return this;
+        }
+
+        /**
+         * Adds the content of a file, or of every file inside a directory.
+         */
+        public Key addFile( File file )
+            throws IOException
+        {
+            if ( file.isDirectory() )
+            {
+                List<File> children = FileUtils.getFiles( file, "**", null );
+                Collections.sort( children );
+                for ( File child : children )
+                {
+                    addFile( child );
+                }
+            }
+            else if ( file.isFile() )
+            {
+                add( file.getAbsolutePath() );
+                add( digest( file ) );
+            }
+            return this;
+        }
+
+        public String build()
+        {
+            return toHex( md.digest() );
+        }
+    }
+
+}
@@ -0,0 +1,374 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.compiler.cache;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.codehaus.plexus.util.IOUtil;
+
+/**
+ * Persistent record of the size, modification date and content hash of the inputs of a compilation, together with the
+ * configuration they were compiled with. A scan only hashes files whose size or modification date changed since the
+ * index was saved, only lists the directories whose modification date changed, and reports which inputs were added,
+ * modified or removed.
+ */
+public class FingerprintIndex
+{
+
+    private static final String DIRECTORY = "-";
+
+    private static final String CONFIGURATION = "@configuration";
+
+    private static final String SCANNED = "@scanned";
+
+    // entries added within the timestamp resolution of the filesystem don't always change the directory date
+    private static final long TIMESTAMP_RESOLUTION = 2000;
+
+    private final File file;
+
+    private Map<String, Fingerprint> recorded;
+
+    private Map<String, Long> recordedDirectories = new HashMap<String, Long>();
+
+    private String recordedConfiguration;
+
+    private long recordedScan;
+
+    private Map<String, List<String>> recordedChildren;
+
+    private Map<String, Fingerprint> current;
+
+    private Map<String, Long> currentDirectories;
+
+    private String currentConfiguration;
+
+    private long currentScan;
+
+    /**
+     * Loads the index stored on the given file, if any.
+     */
+    public static FingerprintIndex load( File file )
+        throws IOException
+    {
+        FingerprintIndex index = new FingerprintIndex( file );
+        if ( file.isFile() )
+        {
+            index.recorded = new TreeMap<String, Fingerprint>();
+            BufferedReader reader = new BufferedReader( new FileReader( file ) );
+            try
+            {
+                String line;
+                while ( ( line = reader.readLine() ) != null )
+                {
+                    String[] fields = line.split( "\t", 4 );
+                    if ( CONFIGURATION.equals( fields[0] ) && fields.length == 2 )
+                    {
+                        index.recordedConfiguration = fields[1];
+                    }
+                    else if ( SCANNED.equals( fields[0] ) && fields.length == 2 )
+                    {
+                        index.recordedScan = Long.parseLong( fields[1] );
+                    }
+                    else if ( line.startsWith( "#" ) || fields.length != 4 )
+                    {
+                        continue;
+                    }
+                    else if ( DIRECTORY.equals( fields[0] ) )
+                    {
+                        index.recordedDirectories.put( fields[3], Long.valueOf( fields[2] ) );
+                    }
+                    else
+                    {
+                        index.recorded.put( fields[3], new Fingerprint( Long.parseLong( fields[1] ),
+                                                                        Long.parseLong( fields[2] ), fields[0] ) );
+                    }
+                }
+            }
+            finally
+            {
+                IOUtil.close( reader );
+            }
+        }
+        return index;
+    }
+
+    FingerprintIndex( File file )
+    {
+        this.file = file;
+    }
+
+    /**
+     * @return true when no index was saved yet, so there is nothing to compare a scan against
+     */
+    public boolean isNew()
+    {
+        return recorded == null;
+    }
+
+    /**
+     * Fingerprints the files under the given directories plus the given files, reusing the recorded hash of every file
+     * whose size and modification date didn't change. A directory whose modification date didn't change since the last
+     * saved scan isn't listed again, the files recorded inside it are checked instead.
+     * 
+     * @param configuration fingerprint of how the inputs are compiled, a different one than recorded is a change too
+     * @return the inputs added, modified or removed since the index was saved, i.e. <code>modified: /path/A.as</code>
+     */
+    public synchronized List<String> scan( String configuration, Collection<File> directories, Collection<File> files )
+        throws IOException
+    {
+        long start = System.currentTimeMillis();
+        Map<String, Fingerprint> scanned = new TreeMap<String, Fingerprint>();
+        Map<String, Long> scannedDirectories = new HashMap<String, Long>();
+        List<String> changes = new ArrayList<String>();
+
+        if ( recorded != null && !String.valueOf( configuration ).equals( String.valueOf( recordedConfiguration ) ) )
+        {
+            changes.add( "configuration changed" );
+        }
+
+        List<File> inputs = new ArrayList<File>();
+        for ( File directory : directories )
+        {
+            walk( directory, scannedDirectories, inputs );
+        }
+        inputs.addAll( files );
+
+        for ( File input : inputs )
+        {
+            if ( !input.isFile() )
+            {
+                continue;
+            }
+
+            String path = input.getAbsolutePath();
+            long size = input.length();
+            long lastModified = input.lastModified();
+
+            Fingerprint previous = recorded == null ? null : recorded.get( path );
+            if ( previous != null && previous.size == size && previous.lastModified == lastModified )
+            {
+                scanned.put( path, previous );
+                continue;
+            }
+
+            Fingerprint fingerprint = new Fingerprint( size, lastModified, BuildCache.digest( input ) );
+            scanned.put( path, fingerprint );
+
+            if ( previous == null )
+            {
+                changes.add( "added: " + path );
+            }
+            else if ( !previous.hash.equals( fingerprint.hash ) )
+            {
+                changes.add( "modified: " + path );
+            }
+        }
+
+        if ( recorded != null )
+        {
+            for ( String path : recorded.keySet() )
+            {
+                if ( !scanned.containsKey( path ) )
+                {
+                    changes.add( "removed: " + path );
+                }
+            }
+        }
+
+        current = scanned;
+        currentDirectories = scannedDirectories;
+        currentConfiguration = configuration;
+        currentScan = start;
+        return changes;
+    }
+
+    private void walk( File directory, Map<String, Long> scannedDirectories, List<File> files )
+    {
+        String path = directory.getAbsolutePath();
+        long lastModified = directory.lastModified();
+        if ( lastModified == 0 )
+        {
+            // gone
+            return;
+        }
+        scannedDirectories.put( path, lastModified );
+
+        Long previous = recordedDirectories.get( path );
+        if ( previous != null && previous.longValue() == lastModified
+            && lastModified + TIMESTAMP_RESOLUTION < recordedScan )
+        {
+            // no entry was added, removed or renamed since the last scan
+            List<String> children = getRecordedChildren().get( path );
+            if ( children != null )
+            {
+                for ( String child : children )
+                {
+                    if ( recordedDirectories.containsKey( child ) )
+                    {
+                        walk( new File( child ), scannedDirectories, files );
+                    }
+                    else
+                    {
+                        files.add( new File( child ) );
+                    }
+                }
+            }
+            return;
+        }
+
+        File[] children = directory.listFiles();
+        if ( children == null )
+        {
+            return;
+        }
+        for ( File child : children )
+        {
+            if ( child.isDirectory() )
+            {
+                walk( child, scannedDirectories, files );
+            }
+            else
+            {
+                files.add( child );
+            }
+        }
+    }
+
+    private Map<String, List<String>> getRecordedChildren()
+    {
+        if ( recordedChildren == null )
+        {
+            recordedChildren = new HashMap<String, List<String>>();
+            List<String> paths = new ArrayList<String>( recordedDirectories.keySet() );
+            if ( recorded != null )
+            {
+                paths.addAll( recorded.keySet() );
+            }
+            for ( String path : paths )
+            {
+                String parent = new File( path ).getParent();
+                List<String> children = recordedChildren.get( parent );
+                if ( children == null )
+                {
+                    children = new ArrayList<String>();
+                    recordedChildren.put( parent, children );
+                }
+                children.add( path );
+            }
+        }
+        return recordedChildren;
+    }
+
+    /**
+     * Records the result of the last scan as the reference for the next ones.
+     */
+    public synchronized void save()
+        throws IOException
+    {
+        if ( current == null )
+        {
+            return;
+        }
+
+        file.getParentFile().mkdirs();
+        File tmp = new File( file.getPath() + ".tmp" );
+        Writer writer = new FileWriter( tmp );
+        try
+        {
+            writer.write( "# hash\tsize\tlast modified\tpath\n" );
+            if ( currentConfiguration != null )
+            {
+                writer.write( CONFIGURATION + "\t" + currentConfiguration + "\n" );
+            }
+            writer.write( SCANNED + "\t" + currentScan + "\n" );
+            for ( Map.Entry<String, Long> entry : new TreeMap<String, Long>( currentDirectories ).entrySet() )
+            {
+                writer.write( DIRECTORY + "\t0\t" + entry.getValue() + "\t" + entry.getKey() + "\n" );
+            }
+            for ( Map.Entry<String, Fingerprint> entry : current.entrySet() )
+            {
+                Fingerprint fingerprint = entry.getValue();
+                writer.write( fingerprint.hash + "\t" + fingerprint.size + "\t" + fingerprint.lastModified + "\t"
+                    + entry.getKey() + "\n" );
+            }
+        }
+        finally
+        {
+            IOUtil.close( writer );
+        }
+
+        if ( file.exists() && !file.delete() )
+        {
+            throw new IOException( "Unable to replace " + file );
+        }
+        if ( !tmp.renameTo( file ) )
+        {
+            throw new IOException( "Unable to write " + file );
+        }
+        recorded = current;
+        recordedDirectories = currentDirectories;
+        recordedConfiguration = currentConfiguration;
+        recordedScan = currentScan;
+        recordedChildren = null;
+    }
+
+    /**
+     * @return the hashes of the last scan, by path
+     */
+    public synchronized Map<String, String> getHashes()
+    {
+        Map<String, String> hashes = new LinkedHashMap<String, String>();
+        if ( current != null )
+        {
+            for ( Map.Entry<String, Fingerprint> entry : current.entrySet() )
+            {
+                hashes.put( entry.getKey(), entry.getValue().hash );
+            }
+        }
+        return hashes;
+    }
+
+    static final class Fingerprint
+    {
+        final long size;
+
+        final long lastModified;
+
+        final String hash;
+
+        Fingerprint( long size, long lastModified, String hash )
+        {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.hash = hash;
+        }
+    }
+
+}
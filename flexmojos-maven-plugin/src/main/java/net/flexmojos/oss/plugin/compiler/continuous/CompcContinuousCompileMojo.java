@@ -17,6 +17,10 @@
  */
 package net.flexmojos.oss.plugin.compiler.continuous;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.Set;
+
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import net.flexmojos.oss.plugin.compiler.CompcMojo;
@@ -33,6 +37,13 @@ import net.flexmojos.oss.plugin.compiler.CompcMojo;
 public class CompcContinuousCompileMojo
     extends CompcMojo
 {
+    /**
+     * How long, in milliseconds, the watched directories must stay quiet before a change triggers a recompilation.
+     * 
+     * @parameter expression="${flex.watchQuietPeriod}" default-value="200"
+     */
+    private long watchQuietPeriod;
+
     /**
      * {@inheritDoc}
      */
@@ -47,35 +58,78 @@ public class CompcContinuousCompileMojo
 
         super.quick = true;
 
+        //
+        // Unless told otherwise, let the compiler persist its compilation units
+        // next to the output, so a change only recompiles the affected ones.
+        //
+
+        if ( incremental == null )
+        {
+            incremental = true;
+        }
+
+        SourceWatcher watcher = null;
         try
         {
+            watcher =
+                new SourceWatcher( SourceWatcher.directories( getSourcePath(), getOutputDirectory(), resources ),
+                                   watchQuietPeriod );
+
+            if ( isCompilationRequired() )
+            {
+                //
+                // We have to compile so let's hand the job to
+                // the CompcMojo implementation and do the actual work.
+                //
+
+                compile( "Initial" );
+                saveFingerprintIndex();
+            }
+
             showInfo();
 
             while ( !Thread.interrupted() )
             {
-                if ( isCompilationRequired() )
+                Set<File> changes = watcher.awaitChanges();
+                getLog().info( "Found " + changes.size() + " changed file(s), recompiling" );
+                for ( File change : changes )
                 {
-                    //
-                    // We have to compile so let's hand the job to
-                    // the CompcMojo implementation and do the actual work.
-                    //
+                    getLog().debug( "  " + change );
+                }
 
-                    super.execute();
+                //
+                // We have to compile so let's hand the job to
+                // the CompcMojo implementation and do the actual work.
+                //
 
-                    showInfo();
+                compile( Boolean.TRUE.equals( incremental ) ? "Incremental" : "Full" );
 
-                    Thread.sleep( 4000L );
-                }
-                else
-                {
-                    Thread.sleep( 2000L );
-                }
+                showInfo();
             }
         }
         catch ( final InterruptedException interruptException )
         {
             // nothing to do here
         }
+        catch ( IOException e )
+        {
+            throw new MojoExecutionException( "Unable to watch the source directories", e );
+        }
+        finally
+        {
+            if ( watcher != null )
+            {
+                watcher.close();
+            }
+        }
+    }
+
+    private void compile( String kind )
+        throws MojoExecutionException, MojoFailureException
+    {
+        long start = System.currentTimeMillis();
+        super.fmExecute();
+        getLog().info( kind + " build took " + ( System.currentTimeMillis() - start ) + " ms" );
     }
 
     protected void showInfo()
@@ -18,6 +18,8 @@
 package net.flexmojos.oss.plugin.compiler.continuous;
 
 import java.io.File;
+import java.io.IOException;
+import java.util.Set;
 
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
@@ -66,6 +68,13 @@ public class MxmlcContinuousCompileMojo
      */
     private AsVmLauncher vmLauncher;
 
+    /**
+     * How long, in milliseconds, the watched directories must stay quiet before a change triggers a recompilation.
+     * 
+     * @parameter expression="${flex.watchQuietPeriod}" default-value="200"
+     */
+    private long watchQuietPeriod;
+
     /**
      * {@inheritDoc}
      */
@@ -80,47 +89,84 @@ public class MxmlcContinuousCompileMojo
 
         super.quick = true;
 
+        //
+        // Unless told otherwise, let the compiler persist its compilation units
+        // next to the output, so a change only recompiles the affected ones.
+        //
+
+        if ( incremental == null )
+        {
+            incremental = true;
+        }
+
         //
         // Use default if Flash Player command has not been set.
         //
 
+        SourceWatcher watcher = null;
         try
         {
+            watcher =
+                new SourceWatcher( SourceWatcher.directories( getSourcePath(), getOutputDirectory(), resources ),
+                                   watchQuietPeriod );
+
+            if ( isCompilationRequired() )
+            {
+                //
+                // We have to compile so let's hand the job to
+                // the MxmlcMojo implementation and do the actual work.
+                //
+
+                compile( "Initial" );
+                launch();
+                saveFingerprintIndex();
+            }
+
             showInfo();
 
             while ( !Thread.interrupted() )
             {
-                if ( isCompilationRequired() )
+                Set<File> changes = watcher.awaitChanges();
+                getLog().info( "Found " + changes.size() + " changed file(s), recompiling" );
+                for ( File change : changes )
                 {
-                    //
-                    // We have to compile so let's hand the job to
-                    // the MxmlcMojo implementation and do the actual work.
-                    //
-
-                    super.execute();
-
-                    showInfo();
-                    try
-                    {
-                        spawnFlashplayer();
-                    }
-                    catch ( final LaunchFlashPlayerException launchFlashPlayerException )
-                    {
-                        getLog().warn( launchFlashPlayerException );
-                    }
-
-                    Thread.sleep( 4000L );
-                }
-                else
-                {
-                    Thread.sleep( 2000L );
+                    getLog().debug( "  " + change );
                 }
+
+                //
+                // We have to compile so let's hand the job to
+                // the MxmlcMojo implementation and do the actual work.
+                //
+
+                compile( Boolean.TRUE.equals( incremental ) ? "Incremental" : "Full" );
+                launch();
+
+                showInfo();
             }
         }
         catch ( final InterruptedException interruptException )
         {
             // nothing to do here
         }
+        catch ( IOException e )
+        {
+            throw new MojoExecutionException( "Unable to watch the source directories", e );
+        }
+        finally
+        {
+            if ( watcher != null )
+            {
+                watcher.close();
+            }
+        }
+    }
+
+    private void compile( String kind )
+        throws MojoExecutionException, MojoFailureException
+    {
+        long start = System.currentTimeMillis();
+        super.fmExecute();
+        getLog().info( kind + " build took " + ( System.currentTimeMillis() - start ) + " ms" );
     }
 
     protected void showInfo()
@@ -128,6 +174,18 @@ public class MxmlcContinuousCompileMojo
         getLog().info( "Waiting for files to compile ..." );
     }
 
+    private void launch()
+    {
+        try
+        {
+            spawnFlashplayer();
+        }
+        catch ( final LaunchFlashPlayerException launchFlashPlayerException )
+        {
+            getLog().warn( launchFlashPlayerException );
+        }
+    }
+
     protected void spawnFlashplayer()
         throws LaunchFlashPlayerException
     {
@@ -0,0 +1,211 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.compiler.continuous;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.model.Resource;
+
+/**
+ * Watches source and resource directories for changes, so continuous compilation reacts to a save instead of polling
+ * the disk. Events are collected until the directories stay quiet for a while, so saving many files at once triggers a
+ * single rebuild.
+ */
+final class SourceWatcher
+    implements Closeable
+{
+
+    private static final WatchEvent.Kind<?>[] KINDS = { ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE };
+
+    // the polling watch service (i.e. on Mac OS X) only checks every 10 seconds unless asked to be more sensitive
+    private static final WatchEvent.Modifier[] SENSITIVITY = sensitivity();
+
+    private final WatchService watchService;
+
+    private final Map<WatchKey, Path> directories = new HashMap<WatchKey, Path>();
+
+    private final long quietPeriod;
+
+    SourceWatcher( Collection<File> roots, long quietPeriod )
+        throws IOException
+    {
+        this.quietPeriod = quietPeriod;
+        this.watchService = FileSystems.getDefault().newWatchService();
+        for ( File root : roots )
+        {
+            if ( root.isDirectory() )
+            {
+                register( root.toPath() );
+            }
+        }
+    }
+
+    /**
+     * @return the directories a continuous compilation depends on: the source path, minus the output directory the
+     *         resources are copied to, plus the resource directories themselves
+     */
+    static List<File> directories( File[] sourcePath, File outputDirectory, List<Resource> resources )
+    {
+        Set<File> directories = new LinkedHashSet<File>();
+        for ( File file : sourcePath )
+        {
+            if ( !file.equals( outputDirectory ) )
+            {
+                directories.add( file );
+            }
+        }
+        if ( resources != null )
+        {
+            for ( Resource resource : resources )
+            {
+                directories.add( new File( resource.getDirectory() ) );
+            }
+        }
+        return new ArrayList<File>( directories );
+    }
+
+    /**
+     * Blocks until something changes, then keeps collecting events until none arrives for the quiet period.
+     * 
+     * @return the files created, modified or deleted. A watched directory is returned when events were lost.
+     */
+    Set<File> awaitChanges()
+        throws InterruptedException
+    {
+        Set<File> changes = new LinkedHashSet<File>();
+        WatchKey key = watchService.take();
+        while ( key != null )
+        {
+            collect( key, changes );
+            key = watchService.poll( quietPeriod, TimeUnit.MILLISECONDS );
+        }
+        return changes;
+    }
+
+    public void close()
+    {
+        try
+        {
+            watchService.close();
+        }
+        catch ( IOException e )
+        {
+            // nothing left to watch anyway
+        }
+    }
+
+    private void collect( WatchKey key, Set<File> changes )
+    {
+        Path directory = directories.get( key );
+        for ( WatchEvent<?> event : key.pollEvents() )
+        {
+            if ( directory == null )
+            {
+                continue;
+            }
+            if ( event.kind() == OVERFLOW )
+            {
+                changes.add( directory.toFile() );
+                continue;
+            }
+
+            Path path = directory.resolve( (Path) event.context() );
+            changes.add( path.toFile() );
+
+            if ( event.kind() == ENTRY_CREATE && Files.isDirectory( path ) )
+            {
+                try
+                {
+                    register( path );
+                }
+                catch ( IOException e )
+                {
+                    // it will be picked up as a change anyway, only nested edits are missed
+                }
+            }
+        }
+
+        if ( !key.reset() )
+        {
+            directories.remove( key );
+        }
+    }
+
+    private void register( Path root )
+        throws IOException
+    {
+        Files.walkFileTree( root, new SimpleFileVisitor<Path>()
+        {
+            @Override
+            public FileVisitResult preVisitDirectory( Path dir, BasicFileAttributes attrs )
+                throws IOException
+            {
+                WatchKey key;
+                try
+                {
+                    key = dir.register( watchService, KINDS, SENSITIVITY );
+                }
+                catch ( UnsupportedOperationException e )
+                {
+                    key = dir.register( watchService, KINDS );
+                }
+                directories.put( key, dir );
+                return FileVisitResult.CONTINUE;
+            }
+        } );
+    }
+
+    private static WatchEvent.Modifier[] sensitivity()
+    {
+        try
+        {
+            Class<?> modifier = Class.forName( "com.sun.nio.file.SensitivityWatchEventModifier" );
+            return new WatchEvent.Modifier[] { (WatchEvent.Modifier) modifier.getField( "HIGH" ).get( null ) };
+        }
+        catch ( Exception e )
+        {
+            // not a Sun/Oracle JDK, use the default sensitivity
+            return new WatchEvent.Modifier[0];
+        }
+    }
+
+}
@@ -0,0 +1,197 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.compiler.lazyload;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.aspectj.lang.JoinPoint;
+
+/**
+ * Values returned by the getters of a mojo, keyed by the getter join point. Getters marked as {@link Shared} are kept
+ * on a layer shared by the mojo and all its clones, everything else on a layer of its own, so a clone (locale,
+ * module...) starts with the project wide values already computed.
+ */
+public class GetterCache
+{
+
+    static final Object MISSING = new Object();
+
+    private static final Object NULL = new Object();
+
+    private final ConcurrentMap<JoinPoint.StaticPart, Object> sharedValues;
+
+    private final ConcurrentMap<JoinPoint.StaticPart, Statistics> statistics;
+
+    private final ConcurrentMap<JoinPoint.StaticPart, Object> values =
+        new ConcurrentHashMap<JoinPoint.StaticPart, Object>();
+
+    private final ConcurrentMap<String, Object> presets = new ConcurrentHashMap<String, Object>();
+
+    public GetterCache()
+    {
+        this( new ConcurrentHashMap<JoinPoint.StaticPart, Object>(),
+              new ConcurrentHashMap<JoinPoint.StaticPart, Statistics>() );
+    }
+
+    private GetterCache( ConcurrentMap<JoinPoint.StaticPart, Object> sharedValues,
+                         ConcurrentMap<JoinPoint.StaticPart, Statistics> statistics )
+    {
+        this.sharedValues = sharedValues;
+        this.statistics = statistics;
+    }
+
+    /**
+     * @return a cache for a clone, sharing the {@link Shared} values and the statistics with this one
+     */
+    public GetterCache fork()
+    {
+        return new GetterCache( sharedValues, statistics );
+    }
+
+    /**
+     * Forces the value returned by the getter with the given name, on this cache only.
+     */
+    public void put( String getterName, Object value )
+    {
+        presets.put( getterName, wrap( value ) );
+    }
+
+    /**
+     * Forgets the value of the getter with the given name: its preset, the value of this cache and the {@link Shared}
+     * value seen by the mojo and all its clones, so the next call invokes the getter again.
+     */
+    public void invalidate( String getterName )
+    {
+        presets.remove( getterName );
+        remove( values, getterName );
+        remove( sharedValues, getterName );
+    }
+
+    private static void remove( ConcurrentMap<JoinPoint.StaticPart, Object> layer, String getterName )
+    {
+        for ( Iterator<JoinPoint.StaticPart> it = layer.keySet().iterator(); it.hasNext(); )
+        {
+            if ( getterName.equals( it.next().getSignature().getName() ) )
+            {
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * @return the cached value, or {@link #MISSING} when the getter must be invoked
+     */
+    Object get( JoinPoint.StaticPart getter, boolean shared )
+    {
+        Object value = presets.isEmpty() ? null : presets.get( getter.getSignature().getName() );
+        if ( value == null )
+        {
+            value = values.get( getter );
+        }
+        if ( value == null && shared )
+        {
+            value = sharedValues.get( getter );
+        }
+
+        if ( value == null )
+        {
+            getStatistics( getter ).misses.incrementAndGet();
+            return MISSING;
+        }
+
+        getStatistics( getter ).hits.incrementAndGet();
+        return value == NULL ? null : value;
+    }
+
+    void put( JoinPoint.StaticPart getter, boolean shared, Object value )
+    {
+        ( shared ? sharedValues : values ).put( getter, wrap( value ) );
+    }
+
+    /**
+     * @return hits and misses by getter, for the mojo and all its clones
+     */
+    public Map<String, Statistics> getStatistics()
+    {
+        Map<String, Statistics> result = new TreeMap<String, Statistics>();
+        for ( Map.Entry<JoinPoint.StaticPart, Statistics> entry : statistics.entrySet() )
+        {
+            result.put( entry.getKey().getSignature().toShortString(), entry.getValue() );
+        }
+        return result;
+    }
+
+    @Override
+    public String toString()
+    {
+        long hits = 0;
+        long misses = 0;
+        for ( Statistics stats : statistics.values() )
+        {
+            hits += stats.getHits();
+            misses += stats.getMisses();
+        }
+        return statistics.size() + " getter(s), " + hits + " hit(s), " + misses + " miss(es)";
+    }
+
+    private Statistics getStatistics( JoinPoint.StaticPart getter )
+    {
+        Statistics stats = statistics.get( getter );
+        if ( stats == null )
+        {
+            statistics.putIfAbsent( getter, new Statistics() );
+            stats = statistics.get( getter );
+        }
+        return stats;
+    }
+
+    private static Object wrap( Object value )
+    {
+        return value == null ? NULL : value;
+    }
+
+    public static final class Statistics
+    {
+
+        private final AtomicLong hits = new AtomicLong();
+
+        private final AtomicLong misses = new AtomicLong();
+
+        public long getHits()
+        {
+            return hits.get();
+        }
+
+        public long getMisses()
+        {
+            return misses.get();
+        }
+
+        @Override
+        public String toString()
+        {
+            return hits + " hit(s), " + misses + " miss(es)";
+        }
+    }
+
+}
@@ -111,6 +111,13 @@ public class ConfigurationMojo
         throw new UnsupportedOperationException( "This is not a compilation mojo" );
     }
 
+    @Override
+    protected Result doCompile( ICompcConfiguration cfg, List<String> arguments, boolean synchronize )
+        throws Exception
+    {
+        throw new UnsupportedOperationException( "This is not a compilation mojo" );
+    }
+
     @SuppressWarnings( "unchecked" )
     @Override
     public void fmExecute()
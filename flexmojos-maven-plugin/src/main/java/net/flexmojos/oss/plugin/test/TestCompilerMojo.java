@@ -70,6 +70,11 @@ public class TestCompilerMojo
 
     public static final String FLEXMOJOS_TEST_PORT = "flexmojos_test_port";
 
+    /**
+     * Ports compiled into each test runner swf, by file name, as <code>Integer[] { testPort, testControlPort }</code>
+     */
+    public static final String FLEXMOJOS_TEST_PORTS = "flexmojos_test_ports";
+
     /**
      * Uses instruments the bytecode (using apparat) to create test coverage report. Only the test-swf is affected by
      * this.
@@ -205,6 +210,16 @@ public class TestCompilerMojo
      */
     private File testRunnerTemplate;
 
+    /**
+     * Number of test runner swfs the test classes are split into. Each shard gets its own ports, so test-run can run
+     * them side by side (see <code>testRunnerSlots</code>) and a slow or hanging test class only holds back its own
+     * shard. Classes are balanced by the time they took on the previous test-run (surefire-reports), or by count when
+     * there are no reports.
+     * 
+     * @parameter default-value="1" expression="${flex.testShards}"
+     */
+    private int testShards;
+
     public Result buildTest( String testFilename, List<? extends String> testClasses, Integer testControlPort,
                              Integer testPort )
         throws MojoExecutionException, MojoFailureException
@@ -244,7 +259,73 @@ public class TestCompilerMojo
         putPluginContext( FLEXMOJOS_TEST_PORT, testPort );
         getLog().debug( "Flexmojos test port: " + testPort + " - control: " + testControlPort );
 
-        checkResult( buildTest( testFilename, testClasses, testControlPort, testPort ) );
+        List<List<String>> shards;
+        if ( testShards > 1 && testClasses.size() > 1 )
+        {
+            File reports = new File( project.getBuild().getDirectory(), "surefire-reports" );
+            shards = TestShards.split( testClasses, testShards, TestShards.readDurations( reports ) );
+        }
+        else
+        {
+            shards = Collections.singletonList( testClasses );
+        }
+
+        Map<String, Integer[]> ports = new LinkedHashMap<String, Integer[]>();
+        Set<Integer> usedPorts = new HashSet<Integer>( asList( testPort, testControlPort ) );
+        for ( int i = 0; i < shards.size(); i++ )
+        {
+            String shardFilename = shards.size() == 1 ? testFilename : testFilename + ( i + 1 );
+            Integer[] shardPorts =
+                i == 0 ? new Integer[] { testPort, testControlPort } : new Integer[] { freePort( usedPorts ),
+                    freePort( usedPorts ) };
+            ports.put( shardFilename + "." + SWF, shardPorts );
+        }
+        putPluginContext( FLEXMOJOS_TEST_PORTS, ports );
+
+        deleteStaleRunners( testFilename, ports.keySet() );
+
+        List<Result> results = new ArrayList<Result>();
+        int i = 0;
+        for ( Map.Entry<String, Integer[]> shard : ports.entrySet() )
+        {
+            String shardFilename = shard.getKey().substring( 0, shard.getKey().length() - SWF.length() - 1 );
+            if ( shards.size() > 1 )
+            {
+                getLog().info( "Test shard " + shardFilename + ": " + shards.get( i ).size() + " class(es)" );
+            }
+            results.add( buildTest( shardFilename, shards.get( i ), shard.getValue()[1], shard.getValue()[0] ) );
+            i++;
+        }
+
+        wait( results );
+    }
+
+    /**
+     * Runners left over from a build split in a different number of shards would be picked up by test-run.
+     */
+    private void deleteStaleRunners( final String testFilename, Set<String> current )
+    {
+        File[] runners = testOutputDirectory.listFiles( new FilenameFilter()
+        {
+            public boolean accept( File dir, String name )
+            {
+                return name.matches( testFilename + "\\d*\\.(" + SWF + "|mxml)" );
+            }
+        } );
+        if ( runners == null )
+        {
+            return;
+        }
+
+        for ( File runner : runners )
+        {
+            String name = runner.getName();
+            if ( !current.contains( name.substring( 0, name.lastIndexOf( '.' ) ) + "." + SWF ) )
+            {
+                getLog().debug( "Deleting stale test runner " + runner );
+                runner.delete();
+            }
+        }
     }
 
     @Override
@@ -297,6 +378,17 @@ public class TestCompilerMojo
         }
     }
 
+    private Integer freePort( Set<Integer> usedPorts )
+    {
+        Integer port;
+        do
+        {
+            port = freePort();
+        }
+        while ( !usedPorts.add( port ) );
+        return port;
+    }
+
     private File generateTester( List<? extends String> testClasses, String testFilename, Integer testControlPort,
                                  Integer testPort )
         throws Exception
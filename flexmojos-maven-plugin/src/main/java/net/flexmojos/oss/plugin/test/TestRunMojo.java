@@ -25,11 +25,23 @@ import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.maven.plugin.Mojo;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
+import org.codehaus.plexus.PlexusContainer;
+import org.codehaus.plexus.component.repository.exception.ComponentLifecycleException;
+import org.codehaus.plexus.component.repository.exception.ComponentLookupException;
 import org.codehaus.plexus.util.DirectoryScanner;
 import org.codehaus.plexus.util.FileUtils;
 import org.codehaus.plexus.util.IOUtil;
@@ -240,6 +252,19 @@ public class TestRunMojo
      */
     private TestRunner testRunner;
 
+    /**
+     * How many test swfs may run at once. Every runner slot gets its own flash player, its own sockets and, on headless
+     * linux, its own Xvfb display. Swfs compiled to the same ports always run one after the other.
+     * 
+     * @parameter default-value="1" expression="${flex.testRunnerSlots}"
+     */
+    private int testRunnerSlots;
+
+    /**
+     * @component role="org.codehaus.plexus.PlexusContainer"
+     */
+    private PlexusContainer container;
+
     /**
      * Test timeout to wait for socket responding
      * 
@@ -349,6 +374,13 @@ public class TestRunMojo
 
     public void runTest( String swfName, Integer testPort, Integer testControlPort, CoverageReporter reporter )
         throws MojoExecutionException
+    {
+        runTest( swfName, testPort, testControlPort, testRunner, reporter );
+    }
+
+    private void runTest( String swfName, Integer testPort, Integer testControlPort, TestRunner runner,
+                          CoverageReporter reporter )
+        throws MojoExecutionException
     {
         File swf = new File( testOutputDirectory, swfName );
 
@@ -385,28 +417,37 @@ public class TestRunMojo
 
         if ( coverage )
         {
-            reporter.instrument( swf, getSourcePath() );
+            synchronized ( reporter )
+            {
+                reporter.instrument( swf, getSourcePath() );
+            }
         }
 
         try
         {
-            List<String> results = runTest( testRequest );
+            List<String> results = runner.run( testRequest );
             for ( String result : results )
             {
                 TestCaseReport report = writeTestReport( result );
                 if ( coverage )
                 {
                     List<TestCoverageReport> coverageResult = report.getCoverage();
-                    for ( TestCoverageReport testCoverageReport : coverageResult )
+                    synchronized ( reporter )
                     {
-                        reporter.addResult( testCoverageReport.getClassname(), testCoverageReport.getTouchs() );
+                        for ( TestCoverageReport testCoverageReport : coverageResult )
+                        {
+                            reporter.addResult( testCoverageReport.getClassname(), testCoverageReport.getTouchs() );
+                        }
                     }
                 }
             }
         }
         catch ( TestRunnerException e )
         {
-            executionError = e;
+            synchronized ( this )
+            {
+                executionError = e;
+            }
         }
         catch ( LaunchFlashPlayerException e )
         {
@@ -453,9 +494,124 @@ public class TestRunMojo
         }
         getLog().debug( "Found " + swfs.length + " test runners:\n" + Arrays.toString( swfs ) );
         getLog().debug( "Using test port '" + testPort + "' and test control port '" + testControlPort + "'" );
+
+        // swfs listening on the same ports can't run at once
+        Map<String, Integer[]> swfPorts = getFromPluginContext( TestCompilerMojo.FLEXMOJOS_TEST_PORTS );
+        final Map<List<Integer>, List<String>> swfsByPorts = new LinkedHashMap<List<Integer>, List<String>>();
         for ( String swfName : swfs )
         {
-            runTest( swfName, testPort, testControlPort, reporter );
+            Integer[] ports = swfPorts == null ? null : swfPorts.get( swfName );
+            List<Integer> key = ports == null ? Arrays.asList( testPort, testControlPort ) : Arrays.asList( ports );
+            if ( !swfsByPorts.containsKey( key ) )
+            {
+                swfsByPorts.put( key, new ArrayList<String>() );
+            }
+            swfsByPorts.get( key ).add( swfName );
+        }
+
+        int slots = Math.min( testRunnerSlots, swfsByPorts.size() );
+        if ( slots <= 1 )
+        {
+            for ( Map.Entry<List<Integer>, List<String>> entry : swfsByPorts.entrySet() )
+            {
+                for ( String swfName : entry.getValue() )
+                {
+                    runTest( swfName, entry.getKey().get( 0 ), entry.getKey().get( 1 ), reporter );
+                }
+            }
+            return;
+        }
+
+        getLog().info( "Running " + swfs.length + " test swf(s) on " + slots + " runner slots" );
+        runTestsInSlots( swfsByPorts, slots, reporter );
+    }
+
+    private void runTestsInSlots( Map<List<Integer>, List<String>> swfsByPorts, int slots,
+                                  final CoverageReporter reporter )
+        throws MojoExecutionException
+    {
+        final Queue<Map.Entry<List<Integer>, List<String>>> pending =
+            new ConcurrentLinkedQueue<Map.Entry<List<Integer>, List<String>>>( swfsByPorts.entrySet() );
+
+        List<TestRunner> runners = new ArrayList<TestRunner>();
+        ExecutorService executor = Executors.newFixedThreadPool( slots );
+        try
+        {
+            List<Future<Void>> futures = new ArrayList<Future<Void>>();
+            for ( int i = 0; i < slots; i++ )
+            {
+                // every runner brings its own launcher and sockets
+                final TestRunner runner;
+                try
+                {
+                    runner = i == 0 ? testRunner : container.lookup( TestRunner.class );
+                }
+                catch ( ComponentLookupException e )
+                {
+                    throw new MojoExecutionException( "Unable to create test runner", e );
+                }
+                runners.add( runner );
+
+                futures.add( executor.submit( new Callable<Void>()
+                {
+                    public Void call()
+                        throws Exception
+                    {
+                        Map.Entry<List<Integer>, List<String>> entry;
+                        while ( ( entry = pending.poll() ) != null )
+                        {
+                            for ( String swfName : entry.getValue() )
+                            {
+                                runTest( swfName, entry.getKey().get( 0 ), entry.getKey().get( 1 ), runner, reporter );
+                            }
+                        }
+                        return null;
+                    }
+                } ) );
+            }
+
+            // let every slot finish before failing
+            MojoExecutionException failure = null;
+            for ( Future<Void> future : futures )
+            {
+                try
+                {
+                    future.get();
+                }
+                catch ( ExecutionException e )
+                {
+                    if ( failure == null )
+                    {
+                        failure =
+                            e.getCause() instanceof MojoExecutionException ? (MojoExecutionException) e.getCause()
+                                            : new MojoExecutionException( e.getCause().getMessage(), e.getCause() );
+                    }
+                }
+            }
+            if ( failure != null )
+            {
+                throw failure;
+            }
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException( "Interrupted while running tests", e );
+        }
+        finally
+        {
+            executor.shutdownNow();
+            for ( TestRunner runner : runners.subList( Math.min( 1, runners.size() ), runners.size() ) )
+            {
+                try
+                {
+                    container.release( runner );
+                }
+                catch ( ComponentLifecycleException e )
+                {
+                    getLog().debug( "Unable to release test runner", e );
+                }
+            }
         }
     }
 
@@ -501,7 +657,7 @@ public class TestRunMojo
      * @return
      * @throws MojoExecutionException
      */
-    private TestCaseReport writeTestReport( final String reportString )
+    private synchronized TestCaseReport writeTestReport( final String reportString )
         throws MojoExecutionException
     {
         // Parse the report.
@@ -0,0 +1,175 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.test;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import net.flexmojos.oss.test.report.TestCaseReport;
+import org.codehaus.plexus.util.IOUtil;
+import org.codehaus.plexus.util.ReaderFactory;
+import org.codehaus.plexus.util.xml.XmlStreamReader;
+import org.codehaus.plexus.util.xml.Xpp3DomBuilder;
+
+/**
+ * Splits test classes into test runner shards of about the same run time. Run times come from the TEST-*.xml reports
+ * of a previous test-run, classes without a report are assumed to take the average of the known ones (or to cost the
+ * same when nothing is known, which balances by class count).
+ */
+final class TestShards
+{
+
+    /**
+     * Reports are in milliseconds, every class costs at least that much so 0s classes still spread by count
+     */
+    private static final double MIN_COST = 0.001;
+
+    private TestShards()
+    {
+    }
+
+    /**
+     * @return the test class run time in seconds, by class name, for every readable report on the folder
+     */
+    static Map<String, Double> readDurations( File reportsDirectory )
+    {
+        Map<String, Double> durations = new HashMap<String, Double>();
+
+        File[] reports = reportsDirectory.listFiles( new FileFilter()
+        {
+            public boolean accept( File file )
+            {
+                return file.isFile() && file.getName().startsWith( "TEST-" ) && file.getName().endsWith( ".xml" );
+            }
+        } );
+        if ( reports == null )
+        {
+            return durations;
+        }
+
+        for ( File file : reports )
+        {
+            XmlStreamReader reader = null;
+            try
+            {
+                reader = ReaderFactory.newXmlReader( file );
+                TestCaseReport report = new TestCaseReport( Xpp3DomBuilder.build( reader ) );
+                durations.put( report.getName().replace( "::", "." ), report.getTime() );
+            }
+            catch ( Exception e )
+            {
+                // a broken or foreign report is just no history
+            }
+            finally
+            {
+                IOUtil.close( reader );
+            }
+        }
+
+        return durations;
+    }
+
+    /**
+     * Longest processing time first: the most expensive class goes to the cheapest shard so far.
+     * 
+     * @return at most <code>shards</code> non empty shards, classes keep their original order inside each shard
+     */
+    static List<List<String>> split( List<String> testClasses, int shards, Map<String, Double> durations )
+    {
+        int count = Math.max( 1, Math.min( shards, testClasses.size() ) );
+
+        double known = 0;
+        int knownCount = 0;
+        for ( String testClass : testClasses )
+        {
+            Double duration = durations.get( testClass );
+            if ( duration != null )
+            {
+                known += duration;
+                knownCount++;
+            }
+        }
+        double average = knownCount == 0 ? 1 : known / knownCount;
+
+        final Map<String, Double> costs = new HashMap<String, Double>();
+        for ( String testClass : testClasses )
+        {
+            Double duration = durations.get( testClass );
+            costs.put( testClass, Math.max( MIN_COST, duration == null ? average : duration ) );
+        }
+
+        List<String> byCost = new ArrayList<String>( testClasses );
+        Collections.sort( byCost, new Comparator<String>()
+        {
+            public int compare( String o1, String o2 )
+            {
+                int c = costs.get( o2 ).compareTo( costs.get( o1 ) );
+                return c != 0 ? c : o1.compareTo( o2 );
+            }
+        } );
+
+        double[] loads = new double[count];
+        List<Set<String>> assigned = new ArrayList<Set<String>>();
+        for ( int i = 0; i < count; i++ )
+        {
+            assigned.add( new HashSet<String>() );
+        }
+        for ( String testClass : byCost )
+        {
+            int cheapest = 0;
+            for ( int i = 1; i < count; i++ )
+            {
+                if ( loads[i] < loads[cheapest] )
+                {
+                    cheapest = i;
+                }
+            }
+            loads[cheapest] += costs.get( testClass );
+            assigned.get( cheapest ).add( testClass );
+        }
+
+        List<List<String>> result = new ArrayList<List<String>>();
+        for ( Set<String> shard : assigned )
+        {
+            if ( shard.isEmpty() )
+            {
+                continue;
+            }
+
+            List<String> ordered = new ArrayList<String>();
+            for ( String testClass : testClasses )
+            {
+                if ( shard.contains( testClass ) )
+                {
+                    ordered.add( testClass );
+                }
+            }
+            result.add( ordered );
+        }
+        return result;
+    }
+
+}
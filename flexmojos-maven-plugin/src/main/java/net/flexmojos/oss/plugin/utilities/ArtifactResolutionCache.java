@@ -0,0 +1,57 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.utilities;
+
+import java.util.List;
+
+import net.flexmojos.oss.plugin.RuntimeMavenResolutionException;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.repository.ArtifactRepository;
+import org.apache.maven.execution.MavenSession;
+
+/**
+ * Remembers artifact resolutions for the whole maven session. An artifact asked by several mojos or reactor modules
+ * only goes to the repositories once, missing ones included. Failures are not remembered for artifacts the build may
+ * still produce: modules of the reactor and resource bundles adapted to a locale.
+ */
+public interface ArtifactResolutionCache
+{
+
+    /**
+     * Resolves the artifact, unless the same artifact was already looked up on the same repositories on this session.
+     * Callers asking for an artifact while it is being resolved share that attempt.
+     * 
+     * @return a resolved copy of the artifact
+     * @throws RuntimeMavenResolutionException if the artifact can't be resolved
+     */
+    Artifact resolve( MavenSession session, Artifact artifact, ArtifactRepository localRepository,
+                      List<ArtifactRepository> remoteRepositories )
+        throws RuntimeMavenResolutionException;
+
+    /**
+     * @return how many resolutions were answered from the cache
+     */
+    long getHits();
+
+    /**
+     * @return how many resolutions went to the repositories
+     */
+    long getMisses();
+
+}
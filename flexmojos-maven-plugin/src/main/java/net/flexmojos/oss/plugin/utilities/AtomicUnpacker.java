@@ -0,0 +1,198 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.utilities;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileLock;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import net.flexmojos.oss.plugin.compiler.cache.BuildCache;
+import net.flexmojos.oss.util.PathUtil;
+
+import org.codehaus.plexus.archiver.ArchiverException;
+import org.codehaus.plexus.archiver.UnArchiver;
+import org.codehaus.plexus.util.FileUtils;
+
+/**
+ * Unpacks archives into directories other builds may be reading or unpacking at the same time, like the ones next to
+ * the artifacts of the local repository. The archive is extracted to a temporary directory renamed into place once
+ * complete, and a marker holding the hash of the archive tells a complete directory from a stale or half extracted
+ * one. A lock file serializes the processes sharing the directory, so each archive is only extracted once.
+ */
+public class AtomicUnpacker
+{
+
+    public static final String MARKER = ".flexmojos-unpacked";
+
+    // FileLock is held by the whole JVM, threads of the same build have to wait on something else
+    private static final ConcurrentMap<String, Object> LOCKS = new ConcurrentHashMap<String, Object>();
+
+    private AtomicUnpacker()
+    {
+    }
+
+    /**
+     * Unpacks the archive into the directory, unless it already holds the complete content of that same archive.
+     */
+    public static File unpack( File archive, File dir, UnArchiver unarchiver )
+        throws IOException, ArchiverException
+    {
+        if ( isUnpacked( archive, dir ) )
+        {
+            return dir;
+        }
+
+        dir = dir.getAbsoluteFile();
+        dir.getParentFile().mkdirs();
+
+        Object lock = LOCKS.putIfAbsent( dir.getPath(), new Object() );
+        if ( lock == null )
+        {
+            lock = LOCKS.get( dir.getPath() );
+        }
+
+        synchronized ( lock )
+        {
+            RandomAccessFile lockFile =
+                new RandomAccessFile( new File( dir.getParentFile(), dir.getName() + ".lock" ), "rw" );
+            try
+            {
+                FileLock fileLock = lockFile.getChannel().lock();
+                try
+                {
+                    // somebody else may have unpacked it while we were waiting
+                    if ( isUnpacked( archive, dir ) )
+                    {
+                        return dir;
+                    }
+
+                    File tmp = new File( dir.getParentFile(), dir.getName() + ".tmp-" + UUID.randomUUID() );
+                    try
+                    {
+                        unarchiver.setSourceFile( archive );
+                        unarchiver.setDestDirectory( tmp );
+                        tmp.mkdirs();
+                        unarchiver.extract();
+                        FileUtils.fileWrite( new File( tmp, MARKER ).getAbsolutePath(), "UTF-8", marker( archive ) );
+
+                        // readers don't take the lock, moved aside so they never see a half deleted directory
+                        File old = new File( dir.getParentFile(), dir.getName() + ".old-" + UUID.randomUUID() );
+                        if ( dir.exists() && !dir.renameTo( old ) )
+                        {
+                            FileUtils.deleteDirectory( dir );
+                        }
+                        try
+                        {
+                            if ( !tmp.renameTo( dir ) )
+                            {
+                                throw new IOException( "Unable to move " + tmp + " to " + dir );
+                            }
+                            PathUtil.invalidate( dir );
+                        }
+                        finally
+                        {
+                            if ( old.exists() )
+                            {
+                                FileUtils.deleteDirectory( old );
+                            }
+                        }
+                    }
+                    finally
+                    {
+                        if ( tmp.exists() )
+                        {
+                            FileUtils.deleteDirectory( tmp );
+                        }
+                    }
+                }
+                finally
+                {
+                    fileLock.release();
+                }
+            }
+            finally
+            {
+                lockFile.close();
+            }
+        }
+
+        return dir;
+    }
+
+    /**
+     * @return true if the directory holds the complete content of the archive
+     */
+    public static boolean isUnpacked( File archive, File dir )
+        throws IOException
+    {
+        File marker = new File( dir, MARKER );
+        if ( !marker.isFile() )
+        {
+            return false;
+        }
+
+        String[] recorded = FileUtils.fileRead( marker, "UTF-8" ).trim().split( " " );
+        if ( recorded.length != 3 )
+        {
+            return false;
+        }
+
+        // cheap check first, only hash archives that were touched since they got unpacked
+        if ( recorded[1].equals( String.valueOf( archive.length() ) )
+            && recorded[2].equals( String.valueOf( archive.lastModified() ) ) )
+        {
+            return true;
+        }
+        if ( !recorded[0].equals( BuildCache.digest( archive ) ) )
+        {
+            return false;
+        }
+
+        // same content, downloaded again or touched: remembered so the next check is the cheap one again
+        File tmp = new File( dir, MARKER + ".tmp-" + UUID.randomUUID() );
+        try
+        {
+            FileUtils.fileWrite( tmp.getAbsolutePath(), "UTF-8", marker( archive ) );
+            if ( !tmp.renameTo( marker ) )
+            {
+                marker.delete();
+                tmp.renameTo( marker );
+            }
+        }
+        catch ( IOException e )
+        {
+            // read only cache, checked again by hash next time
+        }
+        finally
+        {
+            tmp.delete();
+        }
+        return true;
+    }
+
+    private static String marker( File archive )
+        throws IOException
+    {
+        return BuildCache.digest( archive ) + " " + archive.length() + " " + archive.lastModified();
+    }
+
+}
@@ -0,0 +1,305 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.utilities;
+
+import java.io.File;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+
+import org.codehaus.plexus.util.FileUtils;
+
+/**
+ * Time spent by a mojo (and its clones) on each phase of the build. Phases running on several threads at once (like
+ * locales compiled in parallel) add up, so the sum of the phases may exceed the wall clock time.
+ */
+public class BuildMetrics
+{
+
+    /**
+     * Where the metrics are written, relative to the build directory
+     */
+    public static final String DIRECTORY = "flexmojos/metrics";
+
+    public static final String DEPENDENCY_RESOLUTION = "dependency-resolution";
+
+    /**
+     * Building a missing locale out of another one, the compilation of the adapted bundle is also reported on the
+     * compiler phases
+     */
+    public static final String RESOURCE_BUNDLE_ADAPTATION = "resource-bundle-adaptation";
+
+    /**
+     * Copying outputs (swf/swc, link and size reports) from and to the build cache or the local repository
+     */
+    public static final String OUTPUT_COPY = "output-copy";
+
+    /**
+     * Prefix of the phases timing a single compilation (application, locale or module), from submission to completion
+     */
+    public static final String COMPILATION = "compilation:";
+
+    /**
+     * Phase holding the wall clock time of the whole execution on the <code>.csv</code>
+     */
+    public static final String TOTAL = "total";
+
+    private final long start = System.currentTimeMillis();
+
+    private final Map<String, Phase> phases = new LinkedHashMap<String, Phase>();
+
+    /**
+     * @param start when the phase started, from {@link System#currentTimeMillis()}
+     */
+    public void record( String phase, long start )
+    {
+        add( phase, System.currentTimeMillis() - start );
+    }
+
+    public synchronized void add( String phase, long millis )
+    {
+        Phase p = phases.get( phase );
+        if ( p == null )
+        {
+            p = new Phase();
+            phases.put( phase, p );
+        }
+        p.count++;
+        p.millis += millis;
+    }
+
+    public void addAll( Map<String, Long> times )
+    {
+        for ( Map.Entry<String, Long> time : times.entrySet() )
+        {
+            add( time.getKey(), time.getValue() );
+        }
+    }
+
+    public synchronized Map<String, Phase> getPhases()
+    {
+        Map<String, Phase> copy = new LinkedHashMap<String, Phase>();
+        for ( Map.Entry<String, Phase> phase : phases.entrySet() )
+        {
+            Phase p = new Phase();
+            p.count = phase.getValue().count;
+            p.millis = phase.getValue().millis;
+            copy.put( phase.getKey(), p );
+        }
+        return copy;
+    }
+
+    /**
+     * Writes <code>name-executionId.json</code> and <code>name-executionId.csv</code> on the given directory, so
+     * several executions of the same goal on a module don't overwrite each other.
+     * 
+     * @param executionId the execution of the mojo, may be null
+     * @param project identifies the module on the reports (groupId:artifactId:version)
+     */
+    public void write( File directory, String name, String executionId, String project )
+        throws IOException
+    {
+        long total = System.currentTimeMillis() - start;
+        Map<String, Phase> phases = getPhases();
+
+        SimpleDateFormat format = new SimpleDateFormat( "yyyy-MM-dd'T'HH:mm:ss'Z'" );
+        format.setTimeZone( TimeZone.getTimeZone( "UTC" ) );
+        String timestamp = format.format( new Date( start ) );
+
+        StringBuilder json = new StringBuilder();
+        json.append( "{\n" );
+        json.append( "  \"project\": " ).append( quote( project ) ).append( ",\n" );
+        json.append( "  \"mojo\": " ).append( quote( name ) ).append( ",\n" );
+        if ( executionId != null )
+        {
+            json.append( "  \"execution\": " ).append( quote( executionId ) ).append( ",\n" );
+        }
+        json.append( "  \"timestamp\": " ).append( quote( timestamp ) ).append( ",\n" );
+        json.append( "  \"totalMillis\": " ).append( total ).append( ",\n" );
+        json.append( "  \"phases\": {" );
+        String separator = "\n";
+        for ( Map.Entry<String, Phase> phase : phases.entrySet() )
+        {
+            json.append( separator ).append( "    " ).append( quote( phase.getKey() ) );
+            json.append( ": { \"count\": " ).append( phase.getValue().count );
+            json.append( ", \"millis\": " ).append( phase.getValue().millis ).append( " }" );
+            separator = ",\n";
+        }
+        json.append( phases.isEmpty() ? "}\n" : "\n  }\n" );
+        json.append( "}\n" );
+
+        String prefix = timestamp + ',' + csvField( project ) + ',' + csvField( name ) + ',';
+        StringBuilder csv = new StringBuilder( "timestamp,project,mojo,phase,count,millis\n" );
+        for ( Map.Entry<String, Phase> phase : phases.entrySet() )
+        {
+            csv.append( prefix ).append( csvField( phase.getKey() ) ).append( ',' );
+            csv.append( phase.getValue().count ).append( ',' ).append( phase.getValue().millis ).append( '\n' );
+        }
+        csv.append( prefix ).append( TOTAL ).append( ",1," ).append( total ).append( '\n' );
+
+        directory.mkdirs();
+        String file = getFileName( name, executionId );
+        FileUtils.fileWrite( new File( directory, file + ".json" ).getAbsolutePath(), "UTF-8", json.toString() );
+        FileUtils.fileWrite( new File( directory, file + ".csv" ).getAbsolutePath(), "UTF-8", csv.toString() );
+    }
+
+    /**
+     * @return the name, without extension, of the files written by {@link #write(File, String, String, String)}
+     */
+    public static String getFileName( String name, String executionId )
+    {
+        return executionId == null ? name : name + '-' + executionId;
+    }
+
+    /**
+     * Reads back the phases from a <code>.csv</code> written by {@link #write(File, String, String, String)}, the wall clock
+     * time of the execution being the <code>total</code> phase.
+     */
+    public static Map<String, Phase> read( File csv )
+        throws IOException
+    {
+        Map<String, Phase> phases = new LinkedHashMap<String, Phase>();
+        String[] lines = FileUtils.fileRead( csv, "UTF-8" ).split( "\n" );
+        // skip the header
+        for ( int i = 1; i < lines.length; i++ )
+        {
+            List<String> fields = parseCsvLine( lines[i] );
+            if ( fields.size() != 6 )
+            {
+                throw new IOException( "Malformed metrics line " + ( i + 1 ) + " on " + csv + ": " + lines[i] );
+            }
+            try
+            {
+                Phase p = new Phase();
+                p.count = Integer.parseInt( fields.get( 4 ) );
+                p.millis = Long.parseLong( fields.get( 5 ) );
+                phases.put( fields.get( 3 ), p );
+            }
+            catch ( NumberFormatException e )
+            {
+                throw new IOException( "Malformed metrics line " + ( i + 1 ) + " on " + csv + ": " + lines[i] );
+            }
+        }
+        return phases;
+    }
+
+    private static String csvField( String value )
+    {
+        if ( value.indexOf( ',' ) == -1 && value.indexOf( '"' ) == -1 && value.indexOf( '\n' ) == -1 )
+        {
+            return value;
+        }
+        return '"' + value.replace( "\"", "\"\"" ) + '"';
+    }
+
+    private static List<String> parseCsvLine( String line )
+    {
+        List<String> fields = new ArrayList<String>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for ( int i = 0; i < line.length(); i++ )
+        {
+            char c = line.charAt( i );
+            if ( quoted )
+            {
+                if ( c != '"' )
+                {
+                    field.append( c );
+                }
+                else if ( i + 1 < line.length() && line.charAt( i + 1 ) == '"' )
+                {
+                    field.append( c );
+                    i++;
+                }
+                else
+                {
+                    quoted = false;
+                }
+            }
+            else if ( c == '"' )
+            {
+                quoted = true;
+            }
+            else if ( c == ',' )
+            {
+                fields.add( field.toString() );
+                field.setLength( 0 );
+            }
+            else
+            {
+                field.append( c );
+            }
+        }
+        fields.add( field.toString() );
+        return fields;
+    }
+
+    private static String quote( String value )
+    {
+        StringBuilder quoted = new StringBuilder( "\"" );
+        for ( char c : String.valueOf( value ).toCharArray() )
+        {
+            if ( c == '"' || c == '\\' )
+            {
+                quoted.append( '\\' ).append( c );
+            }
+            else if ( c < ' ' )
+            {
+                quoted.append( String.format( "\\u%04x", (int) c ) );
+            }
+            else
+            {
+                quoted.append( c );
+            }
+        }
+        return quoted.append( '"' ).toString();
+    }
+
+    public static final class Phase
+    {
+
+        private int count;
+
+        private long millis;
+
+        /**
+         * @return how many times the phase ran
+         */
+        public int getCount()
+        {
+            return count;
+        }
+
+        public long getMillis()
+        {
+            return millis;
+        }
+
+        @Override
+        public String toString()
+        {
+            return millis + " ms (" + count + "x)";
+        }
+    }
+
+}
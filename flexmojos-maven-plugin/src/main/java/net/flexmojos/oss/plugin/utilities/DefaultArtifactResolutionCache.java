@@ -0,0 +1,258 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.utilities;
+
+import static net.flexmojos.oss.plugin.common.FlexExtension.RB_SWC;
+
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import net.flexmojos.oss.plugin.RuntimeMavenResolutionException;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.ArtifactUtils;
+import org.apache.maven.artifact.repository.ArtifactRepository;
+import org.apache.maven.artifact.resolver.ArtifactResolutionRequest;
+import org.apache.maven.artifact.resolver.ArtifactResolutionResult;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.repository.RepositorySystem;
+import org.codehaus.plexus.component.annotations.Component;
+import org.codehaus.plexus.component.annotations.Requirement;
+import org.codehaus.plexus.logging.AbstractLogEnabled;
+
+@Component( role = ArtifactResolutionCache.class )
+public class DefaultArtifactResolutionCache
+    extends AbstractLogEnabled
+    implements ArtifactResolutionCache
+{
+
+    private static final String LOCALE = "[a-zA-Z]{2,3}(_[a-zA-Z0-9]+)*";
+
+    /**
+     * Classifier of a resource bundle adapted from one locale to another, i.e. <code>en_US2pt_BR</code>
+     */
+    private static final Pattern ADAPTED_RESOURCE_BUNDLE = Pattern.compile( LOCALE + "2" + LOCALE );
+
+    @Requirement
+    private RepositorySystem repositorySystem;
+
+    // keyed by the execution request, which is shared by the per project copies of the session on parallel builds
+    private final Map<Object, ConcurrentMap<String, Future<Resolution>>> sessions =
+        new WeakHashMap<Object, ConcurrentMap<String, Future<Resolution>>>();
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    public DefaultArtifactResolutionCache()
+    {
+    }
+
+    DefaultArtifactResolutionCache( RepositorySystem repositorySystem )
+    {
+        this.repositorySystem = repositorySystem;
+    }
+
+    public Artifact resolve( MavenSession session, final Artifact artifact, final ArtifactRepository localRepository,
+                             final List<ArtifactRepository> remoteRepositories )
+        throws RuntimeMavenResolutionException
+    {
+        ConcurrentMap<String, Future<Resolution>> resolutions = getResolutions( session );
+
+        StringBuilder key = new StringBuilder( artifact.getId() );
+        if ( remoteRepositories != null )
+        {
+            for ( ArtifactRepository repository : remoteRepositories )
+            {
+                key.append( '|' ).append( repository.getUrl() );
+            }
+        }
+
+        FutureTask<Resolution> task = new FutureTask<Resolution>( new Callable<Resolution>()
+        {
+            public Resolution call()
+            {
+                ArtifactResolutionRequest req = new ArtifactResolutionRequest();
+                req.setArtifact( artifact );
+                req.setLocalRepository( localRepository );
+                req.setRemoteRepositories( remoteRepositories );
+                ArtifactResolutionResult res = repositorySystem.resolve( req );
+                if ( !res.isSuccess() && getLogger().isDebugEnabled() )
+                {
+                    for ( Exception e : res.getExceptions() )
+                    {
+                        getLogger().error( e.getMessage(), e );
+                    }
+                }
+                return new Resolution( artifact, res );
+            }
+        } );
+
+        Future<Resolution> resolution = resolutions.putIfAbsent( key.toString(), task );
+        if ( resolution == null )
+        {
+            misses.incrementAndGet();
+            task.run();
+            resolution = task;
+
+            if ( !isSuccess( task ) && mayBeBuiltLater( session, artifact ) )
+            {
+                // the next attempt goes to the repositories again
+                resolutions.remove( key.toString(), task );
+            }
+        }
+        else
+        {
+            hits.incrementAndGet();
+            if ( getLogger().isDebugEnabled() )
+            {
+                getLogger().debug( "Resolved " + artifact + " from the session cache (" + this + ")" );
+            }
+        }
+
+        return get( resolution ).copy();
+    }
+
+    public long getHits()
+    {
+        return hits.get();
+    }
+
+    public long getMisses()
+    {
+        return misses.get();
+    }
+
+    @Override
+    public String toString()
+    {
+        return hits + " hit(s), " + misses + " miss(es)";
+    }
+
+    private ConcurrentMap<String, Future<Resolution>> getResolutions( MavenSession session )
+    {
+        Object key = session == null || session.getRequest() == null ? this : session.getRequest();
+        synchronized ( sessions )
+        {
+            ConcurrentMap<String, Future<Resolution>> resolutions = sessions.get( key );
+            if ( resolutions == null )
+            {
+                resolutions = new ConcurrentHashMap<String, Future<Resolution>>();
+                sessions.put( key, resolutions );
+            }
+            return resolutions;
+        }
+    }
+
+    /**
+     * @return true for artifacts this build may still produce: reactor modules and resource bundles adapted to a locale
+     */
+    private static boolean mayBeBuiltLater( MavenSession session, Artifact artifact )
+    {
+        if ( RB_SWC.equals( artifact.getType() ) && artifact.getClassifier() != null
+            && ADAPTED_RESOURCE_BUNDLE.matcher( artifact.getClassifier() ).matches() )
+        {
+            return true;
+        }
+
+        if ( session != null && session.getProjects() != null )
+        {
+            String key = ArtifactUtils.versionlessKey( artifact );
+            for ( MavenProject project : session.getProjects() )
+            {
+                if ( key.equals( ArtifactUtils.versionlessKey( project.getGroupId(), project.getArtifactId() ) ) )
+                {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean isSuccess( Future<Resolution> resolution )
+    {
+        try
+        {
+            return resolution.get().result.isSuccess();
+        }
+        catch ( Exception e )
+        {
+            return false;
+        }
+    }
+
+    private static Resolution get( Future<Resolution> resolution )
+    {
+        try
+        {
+            return resolution.get();
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException( "Interrupted while waiting for an artifact resolution", e );
+        }
+        catch ( ExecutionException e )
+        {
+            if ( e.getCause() instanceof RuntimeException )
+            {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException( e.getCause() );
+        }
+    }
+
+    private static final class Resolution
+    {
+
+        private final Artifact artifact;
+
+        private final ArtifactResolutionResult result;
+
+        Resolution( Artifact artifact, ArtifactResolutionResult result )
+        {
+            this.artifact = artifact;
+            this.result = result;
+        }
+
+        /**
+         * Callers are free to change the artifact they get, so each one gets its own copy.
+         */
+        Artifact copy()
+            throws RuntimeMavenResolutionException
+        {
+            Artifact copy = ArtifactUtils.copyArtifact( artifact );
+            if ( !result.isSuccess() )
+            {
+                throw new RuntimeMavenResolutionException( "Failed to resolve artifact " + copy, result, copy );
+            }
+            return copy;
+        }
+    }
+
+}
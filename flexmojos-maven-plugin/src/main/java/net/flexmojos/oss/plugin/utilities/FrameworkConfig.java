@@ -0,0 +1,181 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.utilities;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import net.flexmojos.oss.util.PathUtil;
+
+import org.codehaus.plexus.util.IOUtil;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.codehaus.plexus.util.xml.Xpp3DomBuilder;
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+
+/**
+ * Framework configuration zip (flex-config.xml, manifests, themes...) read on demand. Configuration files are parsed
+ * straight from the zip, and only the entries the compiler needs as files (like manifests) get extracted. Everything
+ * is kept for the whole session, so every project of a reactor reuses the same parsed configuration.
+ */
+public class FrameworkConfig
+{
+
+    public static final String FLEX_CONFIG = "flex-config.xml";
+
+    private static final ConcurrentMap<String, FrameworkConfig> CONFIGS =
+        new ConcurrentHashMap<String, FrameworkConfig>();
+
+    private final File zip;
+
+    private final File dir;
+
+    private final ConcurrentMap<String, Xpp3Dom> documents = new ConcurrentHashMap<String, Xpp3Dom>();
+
+    private final ConcurrentMap<String, File> files = new ConcurrentHashMap<String, File>();
+
+    /**
+     * @param zip the framework configuration zip
+     * @param dir where entries are extracted, when needed as files. Not meant to be shared with a full unpack of the
+     *            zip, which may replace it as a whole
+     */
+    public static FrameworkConfig get( File zip, File dir )
+    {
+        // a rebuilt zip (snapshots) gets a new configuration
+        String key = zip.getAbsolutePath() + "|" + zip.length() + "|" + zip.lastModified();
+        FrameworkConfig config = CONFIGS.get( key );
+        if ( config == null )
+        {
+            CONFIGS.putIfAbsent( key, new FrameworkConfig( zip, dir ) );
+            config = CONFIGS.get( key );
+        }
+        return config;
+    }
+
+    FrameworkConfig( File zip, File dir )
+    {
+        this.zip = zip;
+        this.dir = dir;
+    }
+
+    /**
+     * @return a copy of the parsed xml entry, free to be changed
+     */
+    public Xpp3Dom getDocument( String entry )
+        throws IOException
+    {
+        Xpp3Dom document = documents.get( entry );
+        if ( document == null )
+        {
+            ZipFile zipFile = new ZipFile( zip );
+            InputStream in = null;
+            try
+            {
+                in = zipFile.getInputStream( getEntry( zipFile, entry ) );
+                document = Xpp3DomBuilder.build( new InputStreamReader( in, "UTF-8" ) );
+            }
+            catch ( XmlPullParserException e )
+            {
+                throw new IOException( "Unable to parse " + entry + " from " + zip, e );
+            }
+            finally
+            {
+                IOUtil.close( in );
+                zipFile.close();
+            }
+            documents.putIfAbsent( entry, document );
+        }
+        return new Xpp3Dom( document );
+    }
+
+    /**
+     * @return the entry, extracted to a file if not done yet
+     */
+    public File getFile( String entry )
+        throws IOException
+    {
+        File file = files.get( entry );
+        if ( file != null )
+        {
+            return file;
+        }
+
+        file = new File( dir, entry );
+        ZipFile zipFile = new ZipFile( zip );
+        try
+        {
+            ZipEntry zipEntry = getEntry( zipFile, entry );
+
+            // may already be there, from a previous build
+            if ( !file.isFile() || file.length() != zipEntry.getSize() )
+            {
+                file.getParentFile().mkdirs();
+                File tmp = new File( file.getParentFile(), file.getName() + ".tmp-" + UUID.randomUUID() );
+                InputStream in = zipFile.getInputStream( zipEntry );
+                OutputStream out = new FileOutputStream( tmp );
+                try
+                {
+                    IOUtil.copy( in, out );
+                }
+                finally
+                {
+                    IOUtil.close( in );
+                    IOUtil.close( out );
+                }
+
+                if ( file.exists() )
+                {
+                    file.delete();
+                }
+                // another build may have raced us to it, it is the same content anyway
+                if ( !tmp.renameTo( file ) && !( file.isFile() && tmp.delete() ) )
+                {
+                    throw new IOException( "Unable to extract " + entry + " to " + file );
+                }
+                PathUtil.invalidate( file );
+            }
+        }
+        finally
+        {
+            zipFile.close();
+        }
+
+        files.putIfAbsent( entry, file );
+        return file;
+    }
+
+    private ZipEntry getEntry( ZipFile zipFile, String entry )
+        throws IOException
+    {
+        ZipEntry zipEntry = zipFile.getEntry( entry );
+        if ( zipEntry == null )
+        {
+            throw new IOException( entry + " not found on " + zip );
+        }
+        return zipEntry;
+    }
+
+}
@@ -0,0 +1,165 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.utilities;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.flexmojos.oss.compiler.command.Result;
+
+import org.codehaus.plexus.util.FileUtils;
+
+/**
+ * Flexmojos goal executions of a whole build, ranked by where the time went: modules, single compilations (locales and
+ * modules), compilation, dependency resolution, tests and optimization.
+ */
+public class ReactorProfile
+{
+
+    public static final List<String> TEST_GOALS = Arrays.asList( "test-run" );
+
+    public static final List<String> OPTIMIZER_GOALS = Arrays.asList( "optimize-swf", "create-rsl" );
+
+    /**
+     * How many entries each ranking shows
+     */
+    private static final int LIMIT = 10;
+
+    private static final Comparator<Map.Entry<String, Long>> SLOWEST_FIRST = new Comparator<Map.Entry<String, Long>>()
+    {
+        public int compare( Map.Entry<String, Long> o1, Map.Entry<String, Long> o2 )
+        {
+            return o2.getValue().compareTo( o1.getValue() );
+        }
+    };
+
+    private final Map<String, Long> modules = new LinkedHashMap<String, Long>();
+
+    private final Map<String, Long> compilations = new LinkedHashMap<String, Long>();
+
+    private final Map<String, Long> compile = new LinkedHashMap<String, Long>();
+
+    private final Map<String, Long> resolution = new LinkedHashMap<String, Long>();
+
+    private final Map<String, Long> test = new LinkedHashMap<String, Long>();
+
+    private final Map<String, Long> optimizer = new LinkedHashMap<String, Long>();
+
+    private int executions;
+
+    /**
+     * @param module the project the goal ran on
+     * @param millis wall clock time of the execution
+     * @param phases the {@link BuildMetrics} of the execution, empty when not available
+     */
+    public synchronized void addExecution( String module, String goal, long millis,
+                                           Map<String, BuildMetrics.Phase> phases )
+    {
+        executions++;
+        add( modules, module, millis );
+        if ( TEST_GOALS.contains( goal ) )
+        {
+            add( test, module, millis );
+        }
+        if ( OPTIMIZER_GOALS.contains( goal ) )
+        {
+            add( optimizer, module, millis );
+        }
+
+        for ( Map.Entry<String, BuildMetrics.Phase> phase : phases.entrySet() )
+        {
+            String name = phase.getKey();
+            long time = phase.getValue().getMillis();
+            if ( name.startsWith( BuildMetrics.COMPILATION ) )
+            {
+                add( compilations, module + " " + name.substring( BuildMetrics.COMPILATION.length() ), time );
+            }
+            else if ( Result.COMPILER_RUN.equals( name ) )
+            {
+                add( compile, module, time );
+            }
+            else if ( BuildMetrics.DEPENDENCY_RESOLUTION.equals( name ) )
+            {
+                add( resolution, module, time );
+            }
+        }
+    }
+
+    public synchronized int getExecutions()
+    {
+        return executions;
+    }
+
+    public synchronized String getReport()
+    {
+        long total = 0;
+        for ( Long time : modules.values() )
+        {
+            total += time;
+        }
+
+        StringBuilder report = new StringBuilder();
+        report.append( "Flexmojos reactor profile: " ).append( executions ).append( " goal execution(s) on " );
+        report.append( modules.size() ).append( " module(s), " ).append( total ).append( " ms\n" );
+        append( report, "Slowest modules", modules );
+        append( report, "Slowest compilations (applications, locales and modules)", compilations );
+        append( report, "Compile time", compile );
+        append( report, "Dependency resolution time", resolution );
+        append( report, "Test time", test );
+        append( report, "Optimizer time", optimizer );
+        return report.toString();
+    }
+
+    public void write( File file )
+        throws IOException
+    {
+        file.getParentFile().mkdirs();
+        FileUtils.fileWrite( file.getAbsolutePath(), "UTF-8", getReport() );
+    }
+
+    private static void add( Map<String, Long> times, String key, long millis )
+    {
+        Long time = times.get( key );
+        times.put( key, time == null ? millis : time + millis );
+    }
+
+    private static void append( StringBuilder report, String title, Map<String, Long> times )
+    {
+        report.append( '\n' ).append( title ).append( ":\n" );
+        if ( times.isEmpty() )
+        {
+            report.append( "  none\n" );
+            return;
+        }
+
+        List<Map.Entry<String, Long>> ranking = new ArrayList<Map.Entry<String, Long>>( times.entrySet() );
+        Collections.sort( ranking, SLOWEST_FIRST );
+        for ( Map.Entry<String, Long> entry : ranking.subList( 0, Math.min( LIMIT, ranking.size() ) ) )
+        {
+            report.append( String.format( "  %10d ms  %s", entry.getValue(), entry.getKey() ) ).append( '\n' );
+        }
+    }
+
+}
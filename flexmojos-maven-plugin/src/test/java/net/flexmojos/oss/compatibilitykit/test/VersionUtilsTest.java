@@ -23,6 +23,9 @@ import static net.flexmojos.oss.compatibilitykit.VersionUtils.splitVersion;
 
 import java.util.Arrays;
 
+import net.flexmojos.oss.compatibilitykit.VersionRange;
+import net.flexmojos.oss.compatibilitykit.VersionTable;
+
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
@@ -106,4 +109,27 @@ public class VersionUtilsTest
         playerGlobalVersion = splitVersion( "9" );
         Assert.assertTrue( isMinVersionOK( playerGlobalVersion, splitVersion( "9.0.124", 3 ) ) );
     }
+
+    @Test
+    public void range()
+    {
+        VersionRange range = new VersionRange( "3.2", "4.0.0.3127" );
+        Assert.assertFalse( range.includes( "3.0.0.477" ) );
+        Assert.assertTrue( range.includes( "3.5.0.12683" ) );
+        Assert.assertFalse( range.includes( "4.0.0.10485" ) );
+
+        // an unknown version is compatible with everything
+        Assert.assertTrue( new VersionRange( "4", "" ).includes( null ) );
+    }
+
+    @Test
+    public void table()
+    {
+        VersionTable table = new VersionTable().add( "11.1", 14 ).add( "11", 13 ).add( "10.3", 12 ).add( "9", 9 );
+        Assert.assertEquals( table.get( "11.1" ), Integer.valueOf( 14 ) );
+        Assert.assertEquals( table.get( "11.0" ), Integer.valueOf( 13 ) );
+        Assert.assertEquals( table.get( "10.3.181" ), Integer.valueOf( 12 ) );
+        Assert.assertEquals( table.get( "10.2" ), Integer.valueOf( 9 ) );
+        Assert.assertNull( table.get( "8.0" ) );
+    }
 }
@@ -0,0 +1,152 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.compiler;
+
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+
+import net.flexmojos.oss.compiler.command.Result;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class CompilationGraphTest
+{
+
+    private ExecutorService executor;
+
+    private List<String> events;
+
+    @BeforeMethod
+    public void createExecutor()
+    {
+        executor = Executors.newCachedThreadPool();
+        events = Collections.synchronizedList( new ArrayList<String>() );
+    }
+
+    @AfterMethod
+    public void shutdownExecutor()
+    {
+        executor.shutdownNow();
+    }
+
+    private CompilationGraph.Job job( final String name, final long time, CompilationGraph.Job... dependencies )
+    {
+        return new CompilationGraph.Job( name, dependencies )
+        {
+            Result start()
+            {
+                events.add( "start " + name );
+                final Result result = new Result();
+                FutureTask<Object> work = new FutureTask<Object>( new Callable<Object>()
+                {
+                    public Object call()
+                        throws Exception
+                    {
+                        Thread.sleep( time );
+                        events.add( "end " + name );
+                        return null;
+                    }
+                } )
+                {
+                    @Override
+                    protected void done()
+                    {
+                        result.done();
+                    }
+                };
+                result.setFuture( work );
+                executor.execute( work );
+                return result;
+            }
+        };
+    }
+
+    @Test
+    public void startJobsAsSoonAsTheirDependenciesAreDone()
+        throws Exception
+    {
+        CompilationGraph graph = new CompilationGraph( mock( AbstractFlexCompilerMojo.class ), 4 );
+        CompilationGraph.Job application = graph.add( job( "application", 300 ) );
+        graph.add( job( "locale", 50 ) );
+        CompilationGraph.Job module = graph.add( job( "module", 50, application ) );
+        graph.run();
+
+        Assert.assertEquals( events.subList( 0, 2 ), Arrays.asList( "start application", "start locale" ) );
+        Assert.assertTrue( events.indexOf( "start module" ) > events.indexOf( "end application" ) );
+        Assert.assertEquals( graph.getCriticalPath(), Arrays.asList( application, module ) );
+    }
+
+    @Test
+    public void boundRunningJobs()
+        throws Exception
+    {
+        CompilationGraph graph = new CompilationGraph( mock( AbstractFlexCompilerMojo.class ), 1 );
+        graph.add( job( "a", 50 ) );
+        graph.add( job( "b", 50 ) );
+        graph.run();
+
+        Assert.assertEquals( events, Arrays.asList( "start a", "end a", "start b", "end b" ) );
+    }
+
+    @Test
+    public void waitForRunningJobsOnFailure()
+        throws Exception
+    {
+        CompilationGraph graph = new CompilationGraph( mock( AbstractFlexCompilerMojo.class ), 4 );
+        graph.add( job( "application", 200 ) );
+        graph.add( new CompilationGraph.Job( "locale" )
+        {
+            Result start()
+                throws MojoExecutionException
+            {
+                throw new MojoExecutionException( "Unable to configure locale" );
+            }
+        } );
+
+        try
+        {
+            graph.run();
+            Assert.fail();
+        }
+        catch ( MojoExecutionException e )
+        {
+            Assert.assertEquals( e.getMessage(), "Unable to configure locale" );
+        }
+        Assert.assertEquals( events, Arrays.asList( "start application", "end application" ) );
+    }
+
+    @Test( expectedExceptions = IllegalArgumentException.class )
+    public void dependenciesMustBeAddedFirst()
+    {
+        CompilationGraph graph = new CompilationGraph( mock( AbstractFlexCompilerMojo.class ), 1 );
+        graph.add( job( "module", 0, job( "application", 0 ) ) );
+    }
+
+}
@@ -0,0 +1,183 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.compiler.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.codehaus.plexus.util.FileUtils;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class BuildCacheTest
+{
+
+    private File root;
+
+    @BeforeMethod
+    public void createRoot()
+        throws IOException
+    {
+        root = new File( "./target/build-cache-test" ).getCanonicalFile();
+        if ( root.exists() )
+        {
+            FileUtils.deleteDirectory( root );
+        }
+        root.mkdirs();
+    }
+
+    private Map<String, File> outputs( String name, String content )
+        throws IOException
+    {
+        File output = new File( root, "target/" + name + ".swf" );
+        output.getParentFile().mkdirs();
+        if ( content != null )
+        {
+            FileUtils.fileWrite( output.getAbsolutePath(), content );
+        }
+        Map<String, File> outputs = new LinkedHashMap<String, File>();
+        outputs.put( "output", output );
+        return outputs;
+    }
+
+    private String key( String value )
+    {
+        return new BuildCache.Key().add( value ).build();
+    }
+
+    @Test
+    public void restoreStoredOutputs()
+        throws IOException
+    {
+        BuildCache cache = new BuildCache( new File( root, "cache" ), Long.MAX_VALUE );
+
+        Assert.assertFalse( cache.restore( key( "a" ), outputs( "a", null ) ) );
+
+        cache.store( key( "a" ), outputs( "a", "compiled" ) );
+
+        Map<String, File> restored = outputs( "a", null );
+        FileUtils.forceDelete( restored.get( "output" ) );
+        Assert.assertTrue( cache.restore( key( "a" ), restored ) );
+        Assert.assertEquals( FileUtils.fileRead( restored.get( "output" ) ), "compiled" );
+
+        Assert.assertEquals( cache.getHits(), 1 );
+        Assert.assertEquals( cache.getMisses(), 1 );
+        Assert.assertEquals( cache.getStores(), 1 );
+    }
+
+    @Test
+    public void missingOutputIsAMiss()
+        throws IOException
+    {
+        BuildCache cache = new BuildCache( new File( root, "cache" ), Long.MAX_VALUE );
+
+        cache.store( key( "a" ), outputs( "a", "compiled" ) );
+
+        Map<String, File> outputs = outputs( "a", null );
+        outputs.put( "link-report", new File( root, "target/a-link-report.xml" ) );
+        Assert.assertFalse( cache.restore( key( "a" ), outputs ) );
+    }
+
+    @Test
+    public void storeAddsMissingOutputs()
+        throws IOException
+    {
+        BuildCache cache = new BuildCache( new File( root, "cache" ), Long.MAX_VALUE );
+
+        cache.store( key( "a" ), outputs( "a", "compiled" ) );
+
+        Map<String, File> outputs = outputs( "a", "compiled" );
+        File report = new File( root, "target/a-link-report.xml" );
+        FileUtils.fileWrite( report.getAbsolutePath(), "report" );
+        outputs.put( "link-report", report );
+        cache.store( key( "a" ), outputs );
+        Assert.assertEquals( cache.getStores(), 2 );
+
+        FileUtils.forceDelete( outputs.get( "output" ) );
+        FileUtils.forceDelete( report );
+        Assert.assertTrue( cache.restore( key( "a" ), outputs ) );
+        Assert.assertEquals( FileUtils.fileRead( outputs.get( "output" ) ), "compiled" );
+        Assert.assertEquals( FileUtils.fileRead( report ), "report" );
+
+        // nothing new to add
+        cache.store( key( "a" ), outputs );
+        Assert.assertEquals( cache.getStores(), 2 );
+    }
+
+    @Test
+    public void evictLeastRecentlyUsed()
+        throws IOException
+    {
+        BuildCache cache = new BuildCache( new File( root, "cache" ), 20 );
+
+        cache.store( key( "a" ), outputs( "a", "0123456789" ) );
+        new File( cache.getEntry( key( "a" ) ), "entry.properties" ).setLastModified( 1000 );
+        cache.store( key( "b" ), outputs( "b", "0123456789" ) );
+        new File( cache.getEntry( key( "b" ) ), "entry.properties" ).setLastModified( 2000 );
+
+        // a is used again, so b becomes the least recently used
+        Assert.assertTrue( cache.restore( key( "a" ), outputs( "a", null ) ) );
+        cache.store( key( "c" ), outputs( "c", "0123456789" ) );
+
+        Assert.assertEquals( cache.getEvictions(), 1 );
+        Assert.assertTrue( cache.getEntry( key( "a" ) ).exists() );
+        Assert.assertFalse( cache.getEntry( key( "b" ) ).exists() );
+        Assert.assertTrue( cache.getEntry( key( "c" ) ).exists() );
+        Assert.assertEquals( cache.getSize(), 20 );
+    }
+
+    @Test
+    public void digestIsReadOncePerBuild()
+        throws IOException
+    {
+        BuildCache.bindDigests( new Object() );
+
+        File file = new File( root, "lib.swc" );
+        FileUtils.fileWrite( file.getAbsolutePath(), "aaaa" );
+        file.setLastModified( 1000000000000L );
+        String digest = BuildCache.digest( file );
+
+        // same length and modification time, taken as unchanged
+        FileUtils.fileWrite( file.getAbsolutePath(), "bbbb" );
+        file.setLastModified( 1000000000000L );
+        Assert.assertEquals( BuildCache.digest( file ), digest );
+
+        file.setLastModified( 1000000002000L );
+        String changed = BuildCache.digest( file );
+        Assert.assertFalse( changed.equals( digest ) );
+
+        // a new build reads it again
+        BuildCache.bindDigests( new Object() );
+        file.setLastModified( 1000000000000L );
+        Assert.assertEquals( BuildCache.digest( file ), changed );
+    }
+
+    @Test
+    public void keyIgnoresCheckoutLocation()
+    {
+        BuildCache.Key a = new BuildCache.Key().normalize( new File( "/work/a" ), "${basedir}" );
+        BuildCache.Key b = new BuildCache.Key().normalize( new File( "/work/b" ), "${basedir}" );
+        a.add( "-output=/work/a/target/x.swf" );
+        b.add( "-output=/work/b/target/x.swf" );
+        Assert.assertEquals( a.build(), b.build() );
+    }
+
+}
@@ -0,0 +1,167 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.compiler.cache;
+
+import static java.util.Arrays.asList;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+import org.codehaus.plexus.util.FileUtils;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class FingerprintIndexTest
+{
+
+    private static final String CONFIGURATION = "cfg";
+
+    private static final List<File> NO_DIRECTORIES = Collections.emptyList();
+
+    private File root;
+
+    private File indexFile;
+
+    @BeforeMethod
+    public void createRoot()
+        throws IOException
+    {
+        root = new File( "./target/fingerprint-index-test" ).getCanonicalFile();
+        if ( root.exists() )
+        {
+            FileUtils.deleteDirectory( root );
+        }
+        root.mkdirs();
+        indexFile = new File( root, "target/fingerprints.txt" );
+    }
+
+    private File source( String name, String content, long lastModified )
+        throws IOException
+    {
+        File source = new File( root, "src/" + name );
+        source.getParentFile().mkdirs();
+        FileUtils.fileWrite( source.getAbsolutePath(), content );
+        source.setLastModified( lastModified );
+        return source;
+    }
+
+    @Test
+    public void reportChangedInputs()
+        throws IOException
+    {
+        File a = source( "A.as", "class A", 10000 );
+        File b = source( "B.as", "class B", 10000 );
+
+        FingerprintIndex index = FingerprintIndex.load( indexFile );
+        Assert.assertTrue( index.isNew() );
+        index.scan( CONFIGURATION, NO_DIRECTORIES, asList( a, b ) );
+        index.save();
+
+        index = FingerprintIndex.load( indexFile );
+        Assert.assertFalse( index.isNew() );
+        Assert.assertEquals( index.scan( CONFIGURATION, NO_DIRECTORIES, asList( a, b ) ), Collections.emptyList() );
+
+        source( "A.as", "class A {}", 20000 );
+        File c = source( "C.as", "class C", 20000 );
+        List<String> changes = index.scan( CONFIGURATION, NO_DIRECTORIES, asList( a, c ) );
+        Assert.assertEquals( changes, asList( "modified: " + a.getAbsolutePath(), "added: " + c.getAbsolutePath(),
+                                              "removed: " + b.getAbsolutePath() ) );
+
+        index.save();
+        Assert.assertEquals( index.scan( CONFIGURATION, NO_DIRECTORIES, asList( a, c ) ), Collections.emptyList() );
+    }
+
+    @Test
+    public void touchedFileIsNotAChange()
+        throws IOException
+    {
+        File a = source( "A.as", "class A", 10000 );
+
+        FingerprintIndex index = FingerprintIndex.load( indexFile );
+        index.scan( CONFIGURATION, NO_DIRECTORIES, asList( a ) );
+        index.save();
+
+        a.setLastModified( 20000 );
+        Assert.assertEquals( FingerprintIndex.load( indexFile ).scan( CONFIGURATION, NO_DIRECTORIES, asList( a ) ), Collections.emptyList() );
+    }
+
+    @Test
+    public void unchangedMetadataSkipsHashing()
+        throws IOException
+    {
+        File a = source( "A.as", "class A", 10000 );
+
+        FingerprintIndex index = FingerprintIndex.load( indexFile );
+        index.scan( CONFIGURATION, NO_DIRECTORIES, asList( a ) );
+        index.save();
+        String hash = index.getHashes().get( a.getAbsolutePath() );
+
+        // same size and modification date, so the recorded hash is trusted
+        source( "A.as", "class Z", 10000 );
+        index = FingerprintIndex.load( indexFile );
+        Assert.assertEquals( index.scan( CONFIGURATION, NO_DIRECTORIES, asList( a ) ), Collections.emptyList() );
+        Assert.assertEquals( index.getHashes().get( a.getAbsolutePath() ), hash );
+    }
+
+    @Test
+    public void configurationChangeIsAChange()
+        throws IOException
+    {
+        File a = source( "A.as", "class A", 10000 );
+
+        FingerprintIndex index = FingerprintIndex.load( indexFile );
+        index.scan( CONFIGURATION, NO_DIRECTORIES, asList( a ) );
+        index.save();
+
+        index = FingerprintIndex.load( indexFile );
+        Assert.assertEquals( index.scan( "other", NO_DIRECTORIES, asList( a ) ), asList( "configuration changed" ) );
+    }
+
+    @Test
+    public void unchangedDirectoriesAreNotListed()
+        throws IOException
+    {
+        File a = source( "pkg/A.as", "class A", 10000 );
+        File src = new File( root, "src" );
+        List<File> directories = asList( src );
+        a.getParentFile().setLastModified( 10000 );
+        src.setLastModified( 10000 );
+
+        FingerprintIndex index = FingerprintIndex.load( indexFile );
+        Assert.assertEquals( index.scan( CONFIGURATION, directories, NO_DIRECTORIES ).size(), 1 );
+        index.save();
+
+        // the directory date says nothing was added, so the recorded entries are trusted
+        File b = source( "pkg/B.as", "class B", 10000 );
+        a.getParentFile().setLastModified( 10000 );
+        index = FingerprintIndex.load( indexFile );
+        Assert.assertEquals( index.scan( CONFIGURATION, directories, NO_DIRECTORIES ), Collections.emptyList() );
+
+        b.getParentFile().setLastModified( 20000 );
+        Assert.assertEquals( index.scan( CONFIGURATION, directories, NO_DIRECTORIES ),
+                             asList( "added: " + b.getAbsolutePath() ) );
+
+        FileUtils.forceDelete( a );
+        Assert.assertEquals( index.scan( CONFIGURATION, directories, NO_DIRECTORIES ),
+                             asList( "added: " + b.getAbsolutePath(), "removed: " + a.getAbsolutePath() ) );
+    }
+
+}
@@ -0,0 +1,141 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.compiler.continuous;
+
+import static java.util.Arrays.asList;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.codehaus.plexus.util.FileUtils;
+import org.testng.Assert;
+import org.testng.Reporter;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class SourceWatcherTest
+{
+
+    private static final long QUIET_PERIOD = 100;
+
+    private File root;
+
+    private SourceWatcher watcher;
+
+    private ExecutorService executor;
+
+    @BeforeMethod
+    public void createWatcher()
+        throws IOException
+    {
+        root = new File( "./target/source-watcher-test" ).getCanonicalFile();
+        if ( root.exists() )
+        {
+            FileUtils.deleteDirectory( root );
+        }
+        new File( root, "src/com/acme" ).mkdirs();
+        watcher = new SourceWatcher( asList( new File( root, "src" ) ), QUIET_PERIOD );
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @AfterMethod
+    public void closeWatcher()
+    {
+        executor.shutdownNow();
+        watcher.close();
+    }
+
+    private Future<Set<File>> awaitChanges()
+    {
+        return executor.submit( new Callable<Set<File>>()
+        {
+            public Set<File> call()
+                throws Exception
+            {
+                return watcher.awaitChanges();
+            }
+        } );
+    }
+
+    @Test
+    public void saveIsReported()
+        throws Exception
+    {
+        Future<Set<File>> changes = awaitChanges();
+
+        File source = new File( root, "src/com/acme/Main.as" );
+        FileUtils.fileWrite( source.getAbsolutePath(), "package com.acme { public class Main {} }" );
+
+        Assert.assertTrue( changes.get( 30, TimeUnit.SECONDS ).contains( source ) );
+    }
+
+    @Test( groups = "benchmark" )
+    public void saveToRebuildLatency()
+        throws Exception
+    {
+        Future<Set<File>> changes = awaitChanges();
+
+        File source = new File( root, "src/com/acme/Main.as" );
+        long saved = System.currentTimeMillis();
+        FileUtils.fileWrite( source.getAbsolutePath(), "package com.acme { public class Main {} }" );
+
+        changes.get( 30, TimeUnit.SECONDS );
+        Reporter.log( "Save to rebuild latency: " + ( System.currentTimeMillis() - saved ) + " ms", true );
+    }
+
+    @Test
+    public void burstIsASingleRebuild()
+        throws Exception
+    {
+        Future<Set<File>> changes = awaitChanges();
+
+        for ( int i = 0; i < 5; i++ )
+        {
+            FileUtils.fileWrite( new File( root, "src/com/acme/C" + i + ".as" ).getAbsolutePath(), "class C" + i );
+        }
+
+        Set<File> changed = changes.get( 30, TimeUnit.SECONDS );
+        for ( int i = 0; i < 5; i++ )
+        {
+            Assert.assertTrue( changed.contains( new File( root, "src/com/acme/C" + i + ".as" ) ) );
+        }
+    }
+
+    @Test
+    public void watchCreatedDirectories()
+        throws Exception
+    {
+        File dir = new File( root, "src/com/acme/view" );
+        dir.mkdirs();
+        watcher.awaitChanges();
+
+        Future<Set<File>> changes = awaitChanges();
+        File source = new File( dir, "View.mxml" );
+        FileUtils.fileWrite( source.getAbsolutePath(), "<s:Group/>" );
+
+        Assert.assertTrue( changes.get( 30, TimeUnit.SECONDS ).contains( source ) );
+    }
+
+}
@@ -0,0 +1,129 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.compiler.lazyload;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Map;
+
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.Signature;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class GetterCacheTest
+{
+
+    private GetterCache cache;
+
+    private JoinPoint.StaticPart getDependencies;
+
+    private JoinPoint.StaticPart getOutput;
+
+    @BeforeMethod
+    public void createCache()
+    {
+        cache = new GetterCache();
+        getDependencies = getter( "getDependencies" );
+        getOutput = getter( "getOutput" );
+    }
+
+    private JoinPoint.StaticPart getter( String name )
+    {
+        Signature signature = mock( Signature.class );
+        when( signature.getName() ).thenReturn( name );
+        when( signature.toShortString() ).thenReturn( "Mojo." + name + "()" );
+
+        JoinPoint.StaticPart getter = mock( JoinPoint.StaticPart.class );
+        when( getter.getSignature() ).thenReturn( signature );
+        return getter;
+    }
+
+    @Test
+    public void cacheNulls()
+    {
+        Assert.assertSame( cache.get( getOutput, false ), GetterCache.MISSING );
+        cache.put( getOutput, false, null );
+        Assert.assertNull( cache.get( getOutput, false ) );
+    }
+
+    @Test
+    public void sharedValuesSurviveFork()
+    {
+        Object dependencies = new Object();
+        cache.put( getDependencies, true, dependencies );
+        cache.put( getOutput, false, "app.swf" );
+
+        GetterCache clone = cache.fork();
+        Assert.assertSame( clone.get( getDependencies, true ), dependencies );
+        Assert.assertSame( clone.get( getOutput, false ), GetterCache.MISSING );
+
+        clone.put( getOutput, false, "app-module.swf" );
+        Assert.assertEquals( clone.get( getOutput, false ), "app-module.swf" );
+        Assert.assertEquals( cache.get( getOutput, false ), "app.swf" );
+    }
+
+    @Test
+    public void presetsWin()
+    {
+        cache.put( getOutput, false, "app.swf" );
+        cache.put( "getOutput", "app_en_US.swf" );
+        Assert.assertEquals( cache.get( getOutput, false ), "app_en_US.swf" );
+
+        cache.put( "getDependencies", null );
+        Assert.assertNull( cache.get( getDependencies, true ) );
+
+        // presets belong to a single mojo
+        Assert.assertSame( cache.fork().get( getOutput, false ), GetterCache.MISSING );
+    }
+
+    @Test
+    public void invalidate()
+    {
+        cache.put( getDependencies, true, new Object() );
+        cache.put( getOutput, false, "app.swf" );
+        cache.put( "getOutput", "app_en_US.swf" );
+        GetterCache clone = cache.fork();
+
+        cache.invalidate( "getOutput" );
+        Assert.assertSame( cache.get( getOutput, false ), GetterCache.MISSING );
+        Assert.assertNotSame( cache.get( getDependencies, true ), GetterCache.MISSING );
+
+        cache.invalidate( "getDependencies" );
+        Assert.assertSame( cache.get( getDependencies, true ), GetterCache.MISSING );
+        Assert.assertSame( clone.get( getDependencies, true ), GetterCache.MISSING );
+    }
+
+    @Test
+    public void statistics()
+    {
+        cache.get( getDependencies, true );
+        cache.put( getDependencies, true, new Object() );
+        cache.get( getDependencies, true );
+        cache.fork().get( getDependencies, true );
+
+        Map<String, GetterCache.Statistics> statistics = cache.getStatistics();
+        GetterCache.Statistics stats = statistics.get( "Mojo.getDependencies()" );
+        Assert.assertEquals( stats.getHits(), 2L );
+        Assert.assertEquals( stats.getMisses(), 1L );
+        Assert.assertEquals( cache.toString(), "1 getter(s), 2 hit(s), 1 miss(es)" );
+    }
+
+}
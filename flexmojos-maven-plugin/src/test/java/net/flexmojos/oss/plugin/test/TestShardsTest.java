@@ -0,0 +1,127 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.test;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.codehaus.plexus.util.FileUtils;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class TestShardsTest
+{
+
+    @Test
+    public void balanceByDuration()
+    {
+        Map<String, Double> durations = new HashMap<String, Double>();
+        durations.put( "a.SlowTest", 10.0 );
+        durations.put( "a.MediumTest", 6.0 );
+        durations.put( "a.FastTest", 3.0 );
+        durations.put( "b.FastTest", 1.0 );
+
+        List<List<String>> shards =
+            TestShards.split( Arrays.asList( "a.FastTest", "a.MediumTest", "a.SlowTest", "b.FastTest" ), 2, durations );
+
+        Assert.assertEquals( shards.size(), 2 );
+        Assert.assertEquals( shards.get( 0 ), Arrays.asList( "a.SlowTest" ) );
+        // original order is kept inside the shard
+        Assert.assertEquals( shards.get( 1 ), Arrays.asList( "a.FastTest", "a.MediumTest", "b.FastTest" ) );
+    }
+
+    @Test
+    public void balanceByCountWithoutHistory()
+    {
+        List<List<String>> shards =
+            TestShards.split( Arrays.asList( "T1", "T2", "T3", "T4", "T5" ), 2,
+                              Collections.<String, Double> emptyMap() );
+
+        Assert.assertEquals( shards.get( 0 ).size(), 3 );
+        Assert.assertEquals( shards.get( 1 ).size(), 2 );
+    }
+
+    @Test
+    public void balanceByCountWithZeroDurations()
+    {
+        Map<String, Double> durations = new HashMap<String, Double>();
+        durations.put( "T1", 0.0 );
+        durations.put( "T2", 0.0 );
+        durations.put( "T3", 0.0 );
+        durations.put( "T4", 0.0 );
+
+        List<List<String>> shards = TestShards.split( Arrays.asList( "T1", "T2", "T3", "T4", "T5" ), 3, durations );
+
+        Assert.assertEquals( shards.size(), 3 );
+        for ( List<String> shard : shards )
+        {
+            Assert.assertTrue( shard.size() >= 1 && shard.size() <= 2, shard.toString() );
+        }
+    }
+
+    @Test
+    public void moreShardsThanClasses()
+    {
+        List<List<String>> shards =
+            TestShards.split( Arrays.asList( "T1", "T2" ), 8, Collections.<String, Double> emptyMap() );
+
+        Assert.assertEquals( shards.size(), 2 );
+    }
+
+    @Test
+    public void newClassesCostTheAverage()
+    {
+        Map<String, Double> durations = new HashMap<String, Double>();
+        durations.put( "Old1", 4.0 );
+        durations.put( "Old2", 2.0 );
+
+        // New is assumed to take 3s, so it can't share the shard with Old1
+        List<List<String>> shards = TestShards.split( Arrays.asList( "Old1", "Old2", "New" ), 2, durations );
+
+        Assert.assertEquals( shards.get( 0 ), Arrays.asList( "Old1" ) );
+        Assert.assertEquals( shards.get( 1 ), Arrays.asList( "Old2", "New" ) );
+    }
+
+    @Test
+    public void readReports()
+        throws Exception
+    {
+        File dir = new File( "./target/test-shards-test" ).getCanonicalFile();
+        if ( dir.exists() )
+        {
+            FileUtils.deleteDirectory( dir );
+        }
+        dir.mkdirs();
+
+        FileUtils.fileWrite( new File( dir, "TEST-com.example.SomeTest.xml" ), "UTF-8",
+                             "<testsuite errors=\"0\" failures=\"0\" name=\"com.example::SomeTest\" tests=\"2\" time=\"1.5\"/>" );
+        FileUtils.fileWrite( new File( dir, "TEST-com.example.Broken.xml" ), "UTF-8", "<testsuite" );
+        FileUtils.fileWrite( new File( dir, "coverage.xml" ), "UTF-8", "<coverage/>" );
+
+        Map<String, Double> durations = TestShards.readDurations( dir );
+        Assert.assertEquals( durations.size(), 1 );
+        Assert.assertEquals( durations.get( "com.example.SomeTest" ), Double.valueOf( 1.5 ) );
+
+        Assert.assertTrue( TestShards.readDurations( new File( dir, "missing" ) ).isEmpty() );
+    }
+
+}
@@ -0,0 +1,173 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.utilities;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import net.flexmojos.oss.plugin.RuntimeMavenResolutionException;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.artifact.repository.ArtifactRepository;
+import org.apache.maven.artifact.resolver.ArtifactResolutionRequest;
+import org.apache.maven.artifact.resolver.ArtifactResolutionResult;
+import org.apache.maven.artifact.versioning.VersionRange;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.repository.RepositorySystem;
+import org.codehaus.plexus.logging.console.ConsoleLogger;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class ArtifactResolutionCacheTest
+{
+
+    private RepositorySystem repositorySystem;
+
+    private DefaultArtifactResolutionCache cache;
+
+    private Set<String> missing;
+
+    @BeforeMethod
+    public void createCache()
+    {
+        missing = new HashSet<String>( Collections.singleton( "missing" ) );
+        repositorySystem = mock( RepositorySystem.class );
+        Answer<ArtifactResolutionResult> resolver = new Answer<ArtifactResolutionResult>()
+        {
+            public ArtifactResolutionResult answer( InvocationOnMock invocation )
+            {
+                Artifact artifact = ( (ArtifactResolutionRequest) invocation.getArguments()[0] ).getArtifact();
+                ArtifactResolutionResult result = new ArtifactResolutionResult();
+                if ( missing.contains( artifact.getArtifactId() ) )
+                {
+                    result.addMissingArtifact( artifact );
+                }
+                else
+                {
+                    artifact.setFile( new File( artifact.getArtifactId() + ".swc" ) );
+                    artifact.setResolved( true );
+                }
+                return result;
+            }
+        };
+        when( repositorySystem.resolve( any( ArtifactResolutionRequest.class ) ) ).thenAnswer( resolver );
+
+        cache = new DefaultArtifactResolutionCache( repositorySystem );
+        cache.enableLogging( new ConsoleLogger() );
+    }
+
+    private Artifact resolve( String artifactId )
+    {
+        return resolve( null, artifactId, "swc", "en_US" );
+    }
+
+    private Artifact resolve( MavenSession session, String artifactId, String type, String classifier )
+    {
+        Artifact artifact =
+            new DefaultArtifact( "g", artifactId, VersionRange.createFromVersion( "1.0" ), null, type, classifier,
+                                 new DefaultArtifactHandler( type ) );
+        return cache.resolve( session, artifact, null, Collections.<ArtifactRepository> emptyList() );
+    }
+
+    private void assertMissing( MavenSession session, String artifactId, String type, String classifier )
+    {
+        try
+        {
+            resolve( session, artifactId, type, classifier );
+            Assert.fail( artifactId + " resolved" );
+        }
+        catch ( RuntimeMavenResolutionException e )
+        {
+            Assert.assertFalse( e.getArtifact().isResolved() );
+        }
+    }
+
+    @Test
+    public void resolveOncePerSession()
+    {
+        Artifact first = resolve( "framework" );
+        Artifact second = resolve( "framework" );
+
+        Assert.assertTrue( second.isResolved() );
+        Assert.assertEquals( second.getFile(), new File( "framework.swc" ) );
+        Assert.assertNotSame( first, second );
+        verify( repositorySystem, times( 1 ) ).resolve( any( ArtifactResolutionRequest.class ) );
+        Assert.assertEquals( cache.getHits(), 1 );
+        Assert.assertEquals( cache.getMisses(), 1 );
+    }
+
+    @Test
+    public void rememberFailures()
+    {
+        for ( int i = 0; i < 3; i++ )
+        {
+            assertMissing( null, "missing", "swc", "en_US" );
+        }
+
+        verify( repositorySystem, times( 1 ) ).resolve( any( ArtifactResolutionRequest.class ) );
+        Assert.assertEquals( cache.getHits(), 2 );
+    }
+
+    @Test
+    public void resolveReactorArtifactBuiltLater()
+    {
+        MavenProject module = new MavenProject();
+        module.setGroupId( "g" );
+        module.setArtifactId( "bundle" );
+        MavenSession session = mock( MavenSession.class );
+        when( session.getProjects() ).thenReturn( Collections.singletonList( module ) );
+
+        missing.add( "bundle" );
+        assertMissing( session, "bundle", "swc", "en_US" );
+
+        missing.remove( "bundle" );
+        Assert.assertTrue( resolve( session, "bundle", "swc", "en_US" ).isResolved() );
+        Assert.assertTrue( resolve( session, "bundle", "swc", "en_US" ).isResolved() );
+        verify( repositorySystem, times( 2 ) ).resolve( any( ArtifactResolutionRequest.class ) );
+        Assert.assertEquals( cache.getHits(), 1 );
+    }
+
+    @Test
+    public void resolveAdaptedResourceBundleBuiltLater()
+    {
+        missing.add( "framework" );
+        assertMissing( null, "framework", "rb.swc", "en_US2pt_BR" );
+        assertMissing( null, "framework", "rb.swc", "en_US2pt_BR" );
+        verify( repositorySystem, times( 2 ) ).resolve( any( ArtifactResolutionRequest.class ) );
+
+        // the bundle it is adapted from isn't built by the session
+        assertMissing( null, "framework", "rb.swc", "en_US" );
+        assertMissing( null, "framework", "rb.swc", "en_US" );
+        verify( repositorySystem, times( 3 ) ).resolve( any( ArtifactResolutionRequest.class ) );
+    }
+
+}
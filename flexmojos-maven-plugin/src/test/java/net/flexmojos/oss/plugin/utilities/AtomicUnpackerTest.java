@@ -0,0 +1,176 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.utilities;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.codehaus.plexus.archiver.UnArchiver;
+import org.codehaus.plexus.archiver.zip.ZipUnArchiver;
+import org.codehaus.plexus.logging.Logger;
+import org.codehaus.plexus.logging.console.ConsoleLogger;
+import org.codehaus.plexus.util.FileUtils;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class AtomicUnpackerTest
+{
+
+    private File root;
+
+    private File archive;
+
+    private File dir;
+
+    @BeforeMethod
+    public void createArchive()
+        throws IOException
+    {
+        root = new File( "./target/atomic-unpacker-test" ).getCanonicalFile();
+        if ( root.exists() )
+        {
+            FileUtils.deleteDirectory( root );
+        }
+        root.mkdirs();
+        archive = new File( root, "framework-configs.zip" );
+        dir = new File( root, "configs_zip" );
+        zip( "<flex-config/>" );
+    }
+
+    private void zip( String config )
+        throws IOException
+    {
+        ZipOutputStream out = new ZipOutputStream( new FileOutputStream( archive ) );
+        try
+        {
+            out.putNextEntry( new ZipEntry( "flex-config.xml" ) );
+            out.write( config.getBytes( "UTF-8" ) );
+            out.putNextEntry( new ZipEntry( "themes/spark.css" ) );
+            out.write( "s|Button {}".getBytes( "UTF-8" ) );
+        }
+        finally
+        {
+            out.close();
+        }
+    }
+
+    private UnArchiver unarchiver()
+    {
+        ZipUnArchiver unarchiver = new ZipUnArchiver();
+        unarchiver.enableLogging( new ConsoleLogger( Logger.LEVEL_DISABLED, "test" ) );
+        return unarchiver;
+    }
+
+    @Test
+    public void concurrentUnpack()
+        throws Exception
+    {
+        ExecutorService executor = Executors.newFixedThreadPool( 8 );
+        try
+        {
+            List<Future<File>> results = new ArrayList<Future<File>>();
+            for ( int i = 0; i < 8; i++ )
+            {
+                results.add( executor.submit( new Callable<File>()
+                {
+                    public File call()
+                        throws Exception
+                    {
+                        return AtomicUnpacker.unpack( archive, dir, unarchiver() );
+                    }
+                } ) );
+            }
+            for ( Future<File> result : results )
+            {
+                Assert.assertEquals( result.get(), dir );
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+
+        Assert.assertTrue( AtomicUnpacker.isUnpacked( archive, dir ) );
+        Assert.assertEquals( FileUtils.fileRead( new File( dir, "flex-config.xml" ) ), "<flex-config/>" );
+        Assert.assertTrue( new File( dir, "themes/spark.css" ).isFile() );
+
+        // no leftovers from the losing threads
+        for ( String name : root.list() )
+        {
+            Assert.assertFalse( name.contains( ".tmp-" ), name );
+        }
+    }
+
+    @Test
+    public void replaceIncompleteDirectory()
+        throws Exception
+    {
+        dir.mkdirs();
+        FileUtils.fileWrite( new File( dir, "flex-config.xml" ).getAbsolutePath(), "<flex-con" );
+        Assert.assertFalse( AtomicUnpacker.isUnpacked( archive, dir ) );
+
+        AtomicUnpacker.unpack( archive, dir, unarchiver() );
+
+        Assert.assertEquals( FileUtils.fileRead( new File( dir, "flex-config.xml" ) ), "<flex-config/>" );
+        for ( String name : root.list() )
+        {
+            Assert.assertFalse( name.contains( ".old-" ), name );
+        }
+    }
+
+    @Test
+    public void touchedArchiveUpdatesMarker()
+        throws Exception
+    {
+        AtomicUnpacker.unpack( archive, dir, unarchiver() );
+
+        long touched = archive.lastModified() + 2000;
+        archive.setLastModified( touched );
+        Assert.assertTrue( AtomicUnpacker.isUnpacked( archive, dir ) );
+
+        String marker = FileUtils.fileRead( new File( dir, AtomicUnpacker.MARKER ), "UTF-8" );
+        Assert.assertTrue( marker.endsWith( " " + archive.lastModified() ), marker );
+        Assert.assertEquals( dir.list().length, 3 );
+    }
+
+    @Test
+    public void unpackChangedArchive()
+        throws Exception
+    {
+        AtomicUnpacker.unpack( archive, dir, unarchiver() );
+
+        zip( "<flex-config><compiler/></flex-config>" );
+        archive.setLastModified( archive.lastModified() + 2000 );
+        Assert.assertFalse( AtomicUnpacker.isUnpacked( archive, dir ) );
+
+        AtomicUnpacker.unpack( archive, dir, unarchiver() );
+        Assert.assertEquals( FileUtils.fileRead( new File( dir, "flex-config.xml" ) ),
+                             "<flex-config><compiler/></flex-config>" );
+    }
+
+}
@@ -0,0 +1,98 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.utilities;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.Map;
+
+import org.codehaus.plexus.util.FileUtils;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class BuildMetricsTest
+{
+
+    @Test
+    public void accumulatePhases()
+    {
+        BuildMetrics metrics = new BuildMetrics();
+        metrics.add( BuildMetrics.DEPENDENCY_RESOLUTION, 10 );
+        metrics.add( BuildMetrics.DEPENDENCY_RESOLUTION, 15 );
+        metrics.addAll( Collections.singletonMap( "compiler-run", 100L ) );
+
+        Map<String, BuildMetrics.Phase> phases = metrics.getPhases();
+        Assert.assertEquals( phases.size(), 2 );
+        Assert.assertEquals( phases.get( BuildMetrics.DEPENDENCY_RESOLUTION ).getCount(), 2 );
+        Assert.assertEquals( phases.get( BuildMetrics.DEPENDENCY_RESOLUTION ).getMillis(), 25L );
+        Assert.assertEquals( phases.get( "compiler-run" ).getMillis(), 100L );
+
+        // a copy, later phases don't show up
+        metrics.add( BuildMetrics.OUTPUT_COPY, 1 );
+        Assert.assertFalse( phases.containsKey( BuildMetrics.OUTPUT_COPY ) );
+    }
+
+    @Test
+    public void writeReports()
+        throws Exception
+    {
+        File dir = new File( "./target/build-metrics-test" ).getCanonicalFile();
+        if ( dir.exists() )
+        {
+            FileUtils.deleteDirectory( dir );
+        }
+
+        BuildMetrics metrics = new BuildMetrics();
+        metrics.add( BuildMetrics.OUTPUT_COPY, 7 );
+        metrics.write( dir, "MxmlcMojo", "default-compile-swf", "org.example:\"app\":1.0" );
+
+        String json = FileUtils.fileRead( new File( dir, "MxmlcMojo-default-compile-swf.json" ), "UTF-8" );
+        Assert.assertTrue( json.contains( "\"project\": \"org.example:\\\"app\\\":1.0\"" ), json );
+        Assert.assertTrue( json.contains( "\"output-copy\": { \"count\": 1, \"millis\": 7 }" ), json );
+
+        Assert.assertTrue( json.contains( "\"execution\": \"default-compile-swf\"" ), json );
+
+        String[] csv =
+            FileUtils.fileRead( new File( dir, "MxmlcMojo-default-compile-swf.csv" ), "UTF-8" ).split( "\n" );
+        Assert.assertEquals( csv.length, 3 );
+        Assert.assertEquals( csv[0], "timestamp,project,mojo,phase,count,millis" );
+        Assert.assertTrue( csv[1].endsWith( ",MxmlcMojo,output-copy,1,7" ), csv[1] );
+        Assert.assertTrue( csv[2].contains( ",MxmlcMojo,total,1," ), csv[2] );
+    }
+
+    @Test
+    public void readBack()
+        throws Exception
+    {
+        File dir = new File( "./target/build-metrics-test" ).getCanonicalFile();
+
+        BuildMetrics metrics = new BuildMetrics();
+        metrics.add( BuildMetrics.COMPILATION + "locale pt_BR,en_US", 40 );
+        metrics.add( BuildMetrics.DEPENDENCY_RESOLUTION, 3 );
+        metrics.add( BuildMetrics.DEPENDENCY_RESOLUTION, 2 );
+        metrics.write( dir, "CompcMojo", null, "org.example:lib,\"x\":1.0" );
+
+        Map<String, BuildMetrics.Phase> phases = BuildMetrics.read( new File( dir, "CompcMojo.csv" ) );
+        Assert.assertEquals( phases.size(), 3 );
+        Assert.assertEquals( phases.get( BuildMetrics.COMPILATION + "locale pt_BR,en_US" ).getMillis(), 40L );
+        Assert.assertEquals( phases.get( BuildMetrics.DEPENDENCY_RESOLUTION ).getCount(), 2 );
+        Assert.assertEquals( phases.get( BuildMetrics.DEPENDENCY_RESOLUTION ).getMillis(), 5L );
+        Assert.assertNotNull( phases.get( BuildMetrics.TOTAL ) );
+    }
+
+}
@@ -0,0 +1,200 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.utilities;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Enumeration;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import org.codehaus.plexus.util.FileUtils;
+import org.codehaus.plexus.util.IOUtil;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.codehaus.plexus.util.xml.Xpp3DomBuilder;
+import org.testng.Assert;
+import org.testng.Reporter;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class FrameworkConfigTest
+{
+
+    private static final String[] NAMESPACES = { "mxml-2009-manifest.xml", "mx-manifest.xml", "spark-manifest.xml",
+        "mxml-manifest.xml", "spark-dmv-manifest.xml", "mobile-manifest.xml", "mx-dmv-manifest.xml",
+        "apache-manifest.xml" };
+
+    private File root;
+
+    private File zip;
+
+    /**
+     * Shaped like the configs zip of a Flex 4 SDK: flex-config.xml, its manifests, themes and per locale metadata.
+     */
+    @BeforeMethod
+    public void createConfigs()
+        throws IOException
+    {
+        root = new File( "./target/framework-config-test" ).getCanonicalFile();
+        if ( root.exists() )
+        {
+            FileUtils.deleteDirectory( root );
+        }
+        root.mkdirs();
+        zip = new File( root, "framework-4.6-configs.zip" );
+
+        StringBuilder config = new StringBuilder( "<flex-config><compiler><namespaces>" );
+        for ( int i = 0; i < NAMESPACES.length; i++ )
+        {
+            config.append( "<namespace><uri>http://ns/" ).append( i ).append( "</uri><manifest>" );
+            config.append( NAMESPACES[i] ).append( "</manifest></namespace>" );
+        }
+        config.append( "</namespaces></compiler></flex-config>" );
+
+        StringBuilder filler = new StringBuilder();
+        for ( int i = 0; i < 256; i++ )
+        {
+            filler.append( "<component id=\"C" ).append( i ).append( "\" class=\"spark.components.C\"/>\n" );
+        }
+
+        ZipOutputStream out = new ZipOutputStream( new FileOutputStream( zip ) );
+        try
+        {
+            write( out, FrameworkConfig.FLEX_CONFIG, config.toString() );
+            for ( String manifest : NAMESPACES )
+            {
+                write( out, manifest, "<componentPackage>" + filler + "</componentPackage>" );
+            }
+            for ( int i = 0; i < 400; i++ )
+            {
+                write( out, "themes/Theme" + i + "/defaults.css", filler.toString() );
+            }
+        }
+        finally
+        {
+            out.close();
+        }
+    }
+
+    private void write( ZipOutputStream out, String name, String content )
+        throws IOException
+    {
+        out.putNextEntry( new ZipEntry( name ) );
+        out.write( content.getBytes( "UTF-8" ) );
+    }
+
+    @Test
+    public void extractOnlyWhatIsAsked()
+        throws Exception
+    {
+        File dir = new File( root, "configs_zip" );
+        FrameworkConfig config = FrameworkConfig.get( zip, dir );
+        Assert.assertSame( FrameworkConfig.get( zip, dir ), config );
+
+        Xpp3Dom namespaces = config.getDocument( FrameworkConfig.FLEX_CONFIG ).getChild( "compiler" );
+        namespaces.removeChild( 0 );
+        Assert.assertNotNull( config.getDocument( FrameworkConfig.FLEX_CONFIG ).getChild( "compiler" ),
+                              "cached document was changed" );
+
+        File manifest = config.getFile( "spark-manifest.xml" );
+        Assert.assertTrue( manifest.isFile() );
+        Assert.assertEquals( dir.list().length, 1 );
+    }
+
+    /**
+     * Configuration phase of a reactor with 10 projects: unpacking and parsing everything up front versus reading the
+     * zip on demand.
+     */
+    @Test( groups = "benchmark" )
+    public void benchmarkConfigurationPhase()
+        throws Exception
+    {
+        long start = System.nanoTime();
+        File unpacked = new File( root, "unpacked" );
+        for ( int project = 0; project < 10; project++ )
+        {
+            if ( !unpacked.isDirectory() )
+            {
+                unzip( zip, unpacked );
+            }
+            FileReader reader = new FileReader( new File( unpacked, FrameworkConfig.FLEX_CONFIG ) );
+            try
+            {
+                Xpp3DomBuilder.build( reader ).getChild( "compiler" ).getChild( "namespaces" ).getChildren();
+            }
+            finally
+            {
+                reader.close();
+            }
+        }
+        long eager = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        File lazy = new File( root, "lazy" );
+        for ( int project = 0; project < 10; project++ )
+        {
+            FrameworkConfig config = FrameworkConfig.get( zip, lazy );
+            Xpp3Dom namespaces = config.getDocument( FrameworkConfig.FLEX_CONFIG ).getChild( "compiler" );
+            for ( Xpp3Dom namespace : namespaces.getChild( "namespaces" ).getChildren() )
+            {
+                config.getFile( namespace.getChild( "manifest" ).getValue() );
+            }
+        }
+        long onDemand = System.nanoTime() - start;
+
+        Reporter.log( "Configuration phase, full unpack: " + eager / 1000000 + " ms, on demand: " + onDemand
+            / 1000000 + " ms", true );
+    }
+
+    private static void unzip( File zip, File dir )
+        throws IOException
+    {
+        ZipFile zipFile = new ZipFile( zip );
+        try
+        {
+            Enumeration<? extends ZipEntry> entries = zipFile.entries();
+            while ( entries.hasMoreElements() )
+            {
+                ZipEntry entry = entries.nextElement();
+                File file = new File( dir, entry.getName() );
+                file.getParentFile().mkdirs();
+                InputStream in = zipFile.getInputStream( entry );
+                OutputStream out = new FileOutputStream( file );
+                try
+                {
+                    IOUtil.copy( in, out );
+                }
+                finally
+                {
+                    IOUtil.close( in );
+                    IOUtil.close( out );
+                }
+            }
+        }
+        finally
+        {
+            zipFile.close();
+        }
+    }
+
+}
@@ -0,0 +1,82 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.utilities;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ReactorProfileTest
+{
+
+    private static Map<String, BuildMetrics.Phase> phases( Object... nameAndMillis )
+    {
+        BuildMetrics metrics = new BuildMetrics();
+        for ( int i = 0; i < nameAndMillis.length; i += 2 )
+        {
+            metrics.add( (String) nameAndMillis[i], (Integer) nameAndMillis[i + 1] );
+        }
+        return metrics.getPhases();
+    }
+
+    @Test
+    public void rankModulesAndCompilations()
+    {
+        ReactorProfile profile = new ReactorProfile();
+        profile.addExecution( "org.example:lib:swc:1.0", "compile-swc", 1000,
+                              phases( "compiler-run", 800, BuildMetrics.DEPENDENCY_RESOLUTION, 100,
+                                      BuildMetrics.COMPILATION + "library", 850 ) );
+        profile.addExecution( "org.example:app:swf:1.0", "compile-swf", 3000,
+                              phases( "compiler-run", 2500, BuildMetrics.COMPILATION + "application", 1500,
+                                      BuildMetrics.COMPILATION + "locale pt_BR,en_US", 2000 ) );
+        profile.addExecution( "org.example:app:swf:1.0", "test-run", 4000,
+                              Collections.<String, BuildMetrics.Phase> emptyMap() );
+        profile.addExecution( "org.example:app:swf:1.0", "optimize-swf", 200,
+                              new LinkedHashMap<String, BuildMetrics.Phase>() );
+
+        Assert.assertEquals( profile.getExecutions(), 4 );
+
+        String report = profile.getReport();
+        Assert.assertTrue( report.startsWith( "Flexmojos reactor profile: 4 goal execution(s) on 2 module(s), "
+            + "8200 ms" ), report );
+
+        int app = report.indexOf( "7200 ms  org.example:app:swf:1.0\n" );
+        int lib = report.indexOf( "1000 ms  org.example:lib:swc:1.0\n" );
+        Assert.assertTrue( app != -1 && app < lib, report );
+
+        int locale = report.indexOf( "2000 ms  org.example:app:swf:1.0 locale pt_BR,en_US\n" );
+        int application = report.indexOf( "1500 ms  org.example:app:swf:1.0 application\n" );
+        Assert.assertTrue( locale != -1 && locale < application, report );
+
+        Assert.assertTrue( report.contains( "Dependency resolution time:\n         100 ms  org.example:lib:swc:1.0\n" ),
+                           report );
+        Assert.assertTrue( report.contains( "Test time:\n        4000 ms  org.example:app:swf:1.0\n" ), report );
+        Assert.assertTrue( report.contains( "Optimizer time:\n         200 ms  org.example:app:swf:1.0\n" ), report );
+    }
+
+    @Test
+    public void emptyProfile()
+    {
+        String report = new ReactorProfile().getReport();
+        Assert.assertTrue( report.contains( "Slowest modules:\n  none\n" ), report );
+    }
+
+}
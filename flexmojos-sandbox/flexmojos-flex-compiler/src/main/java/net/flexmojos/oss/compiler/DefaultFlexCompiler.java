@@ -21,16 +21,12 @@ package net.flexmojos.oss.compiler;
 import net.flexmojos.oss.compiler.command.Command;
 import net.flexmojos.oss.compiler.command.CommandUtil;
 import net.flexmojos.oss.compiler.command.Result;
-import net.flexmojos.oss.compiler.interceptor.FlexToolInterceptor;
 import net.flexmojos.oss.compiler.util.FlexCompilerArgumentParser;
 import org.apache.flex.tools.FlexTool;
-import org.apache.flex.tools.FlexToolGroup;
-import org.apache.flex.tools.FlexToolRegistry;
 import org.codehaus.plexus.component.annotations.Component;
 import org.codehaus.plexus.component.annotations.Requirement;
 import org.codehaus.plexus.logging.AbstractLogEnabled;
 
-import java.lang.reflect.Method;
 import java.util.List;
 
 @Component( role = FlexCompiler.class )
@@ -42,8 +38,8 @@ public class DefaultFlexCompiler
     @Requirement
     private FlexCompilerArgumentParser parser;
 
-    @Requirement( role = FlexToolInterceptor.class )
-    private List<FlexToolInterceptor> interceptors;
+    @Requirement
+    private FlexCompilerDaemon daemon;
 
     public Result compileSwc( final ICompcConfiguration configuration, boolean sychronize,
                               final String compilerName )
@@ -54,7 +50,7 @@ public class DefaultFlexCompiler
             public void command()
                     throws Exception
             {
-                String[] args = parser.parseArguments( configuration, ICompcConfiguration.class );
+                String[] args = parseArguments( configuration, ICompcConfiguration.class );
                 logArgs( args );
                 try {
                     executeCompcMain(compilerName, args);
@@ -69,17 +65,21 @@ public class DefaultFlexCompiler
                               final String compilerName )
         throws Exception
     {
+        long start = System.currentTimeMillis();
         final List<String> argsList =
             parser.getArgumentsList( cfgHolder.configuration, ICommandLineConfiguration.class );
         if ( cfgHolder.sourceFile != null )
         {
             argsList.add( cfgHolder.sourceFile.getAbsolutePath() );
         }
+        final long parsing = System.currentTimeMillis() - start;
         return CommandUtil.execute( new Command()
         {
             public void command()
                     throws Exception
             {
+                // parsed on the calling thread, reported once the command runs
+                CommandUtil.recordTime( Result.ARGUMENT_PARSING, parsing );
                 String[] args = argsList.toArray( new String[argsList.size()] );
                 logArgs( args );
                 try {
@@ -91,6 +91,44 @@ public class DefaultFlexCompiler
         }, sychronize );
     }
 
+    public Result compileSwf( final List<String> arguments, boolean sychronize, final String compilerName )
+        throws Exception
+    {
+        return CommandUtil.execute( new Command()
+        {
+            public void command()
+                    throws Exception
+            {
+                String[] args = arguments.toArray( new String[arguments.size()] );
+                logArgs( args );
+                try {
+                    executeMxmlcMain(compilerName, args);
+                } catch (Throwable t) {
+                    throw new Exception("Exception during Mxmlc execution", t);
+                }
+            }
+        }, sychronize );
+    }
+
+    public Result compileSwc( final List<String> arguments, boolean sychronize, final String compilerName )
+        throws Exception
+    {
+        return CommandUtil.execute( new Command()
+        {
+            public void command()
+                    throws Exception
+            {
+                String[] args = arguments.toArray( new String[arguments.size()] );
+                logArgs( args );
+                try {
+                    executeCompcMain(compilerName, args);
+                } catch (Throwable t) {
+                    throw new Exception("Exception during Compc execution", t);
+                }
+            }
+        }, sychronize );
+    }
+
     public Result asdoc( final IASDocConfiguration configuration, boolean sychronize,
                          final String compilerName )
         throws Exception
@@ -100,7 +138,7 @@ public class DefaultFlexCompiler
             public void command()
                     throws Exception
             {
-                String[] args = parser.parseArguments(configuration, IASDocConfiguration.class);
+                String[] args = parseArguments(configuration, IASDocConfiguration.class);
                 logArgs(args);
                 try {
                     executeAsdocMain(compilerName, args);
@@ -120,7 +158,7 @@ public class DefaultFlexCompiler
             public void command()
                 throws Exception
             {
-                String[] args = parser.parseArguments( configuration, IDigestConfiguration.class );
+                String[] args = parseArguments( configuration, IDigestConfiguration.class );
                 logArgs( args );
                 try {
                     executeDigestMain(compilerName, args);
@@ -140,7 +178,7 @@ public class DefaultFlexCompiler
             public void command()
                 throws Exception
             {
-                String[] args = parser.parseArguments( configuration, IOptimizerConfiguration.class );
+                String[] args = parseArguments( configuration, IOptimizerConfiguration.class );
                 logArgs( args );
                 try {
                     executeOptimizerMain(compilerName, args);
@@ -151,6 +189,19 @@ public class DefaultFlexCompiler
         }, sychronize );
     }
 
+    private <E> String[] parseArguments( E configuration, Class<? extends E> configClass )
+    {
+        long start = System.currentTimeMillis();
+        try
+        {
+            return parser.parseArguments( configuration, configClass );
+        }
+        finally
+        {
+            CommandUtil.recordTime( Result.ARGUMENT_PARSING, System.currentTimeMillis() - start );
+        }
+    }
+
     private void logArgs( String[] args )
     {
         if ( getLogger().isDebugEnabled() )
@@ -174,13 +225,11 @@ public class DefaultFlexCompiler
 
     private void executeCompcMain(String compilerName, String[] args) throws Throwable {
         if(compilerName != null) {
-            executeTool(compilerName, FlexTool.FLEX_TOOL_COMPC, args);
+            daemon.executeTool(compilerName, FlexTool.FLEX_TOOL_COMPC, args);
         } else {
             try {
-                Class<?> compc = Class.forName("flex2.tools.Compc");
-                Method compcMain = compc.getMethod("compc", String[].class);
-                compcMain.invoke( null, new Object[] {args} );
-            } catch (Exception e1) {
+                daemon.executeMain("flex2.tools.Compc", "compc", args);
+            } catch (ReflectiveOperationException e1) {
                 throw new Exception("Could not find 'org.apache.flex.compiler.clients.COMPC' or " +
                         "'flex2.tools.Compc' in the current projects classpath.");
             }
@@ -189,13 +238,11 @@ public class DefaultFlexCompiler
 
     private void executeMxmlcMain(String compilerName, String[] args) throws Throwable {
         if(compilerName != null) {
-            executeTool(compilerName, FlexTool.FLEX_TOOL_MXMLC, args);
+            daemon.executeTool(compilerName, FlexTool.FLEX_TOOL_MXMLC, args);
         } else {
             try {
-                Class<?> mxmlc = Class.forName("flex2.tools.Mxmlc");
-                Method mxmlcMain = mxmlc.getMethod("mxmlc", String[].class);
-                mxmlcMain.invoke(null, new Object[]{args});
-            } catch (Exception e1) {
+                daemon.executeMain("flex2.tools.Mxmlc", "mxmlc", args);
+            } catch (ReflectiveOperationException e1) {
                 throw new Exception("Could not find 'org.apache.flex.compiler.clients.MXMLC' or " +
                         "'flex2.tools.Mxmlc' in the current projects classpath.");
             }
@@ -205,31 +252,26 @@ public class DefaultFlexCompiler
 
     private void executeAsdocMain(String compilerName, String[] args) throws Throwable {
         if(compilerName != null) {
-            executeTool(compilerName, FlexTool.FLEX_TOOL_ASDOC, args);
+            daemon.executeTool(compilerName, FlexTool.FLEX_TOOL_ASDOC, args);
         } else {
+            String defaultTransformer = null;
             try {
-                Class<?> asdoc = Class.forName("flex2.tools.ASDoc");
-                Method asdocMain = asdoc.getMethod("asdoc", String[].class);
+                // Force the XML Transformer to the Xalan version that comes with Flex
+                defaultTransformer = System.getProperty("javax.xml.transform.TransformerFactory");
+                System.setProperty("javax.xml.transform.TransformerFactory",
+                        "org.apache.xalan.processor.TransformerFactoryImpl");
 
-                String defaultTransformer = null;
-                try {
-                    // Force the XML Transformer to the Xalan version that comes with Flex
-                    defaultTransformer = System.getProperty("javax.xml.transform.TransformerFactory");
-                    System.setProperty("javax.xml.transform.TransformerFactory",
-                            "org.apache.xalan.processor.TransformerFactoryImpl");
-
-                    asdocMain.invoke( null, new Object[] {args} );
-                } finally {
-                    // and set it back to the default
-                    if (defaultTransformer == null) {
-                        System.getProperties().remove("javax.xml.transform.TransformerFactory");
-                    } else {
-                        System.setProperty("javax.xml.transform.TransformerFactory", defaultTransformer);
-                    }
-                }
-            } catch (Exception e1) {
+                daemon.executeMain("flex2.tools.ASDoc", "asdoc", args);
+            } catch (ReflectiveOperationException e1) {
                 throw new Exception("Could not find 'flex2.tools.ASDoc' " +
                         "in the current projects classpath.");
+            } finally {
+                // and set it back to the default
+                if (defaultTransformer == null) {
+                    System.getProperties().remove("javax.xml.transform.TransformerFactory");
+                } else {
+                    System.setProperty("javax.xml.transform.TransformerFactory", defaultTransformer);
+                }
             }
         }
     }
@@ -237,14 +279,11 @@ public class DefaultFlexCompiler
 
     private void executeDigestMain(String compilerName, String[] args) throws Throwable {
         if(compilerName != null) {
-            executeTool(compilerName, FlexTool.FLEX_TOOL_DIGEST, args);
+            daemon.executeTool(compilerName, FlexTool.FLEX_TOOL_DIGEST, args);
         } else {
             try {
-                Class<?> digest = Class.forName("flex2.tools.DigestTool");
-                Method digestMain = digest.getDeclaredMethod("digestTool", String[].class);
-                digestMain.setAccessible(true);
-                digestMain.invoke( null, new Object[] {args} );
-            } catch (Exception e1) {
+                daemon.executeMain("flex2.tools.DigestTool", "digestTool", args);
+            } catch (ReflectiveOperationException e1) {
                 throw new Exception("Could not find 'flex2.tools.DigestTool' " +
                         "in the current projects classpath.", e1);
             }
@@ -253,45 +292,15 @@ public class DefaultFlexCompiler
 
     private void executeOptimizerMain(String compilerName, String[] args) throws Throwable {
         if(compilerName != null) {
-            executeTool(compilerName, FlexTool.FLEX_TOOL_OPTIMIZER, args);
+            daemon.executeTool(compilerName, FlexTool.FLEX_TOOL_OPTIMIZER, args);
         } else {
             try {
-                Class<?> optimizer = Class.forName("flex2.tools.Optimizer");
-                Method optimizerMain = optimizer.getMethod("main", String[].class);
-                optimizerMain.invoke(null, new Object[]{args});
-            } catch (Exception e1) {
+                daemon.executeMain("flex2.tools.Optimizer", "main", args);
+            } catch (ReflectiveOperationException e1) {
                 throw new Exception("Could not find 'org.apache.flex.compiler.clients.Optimizer' or " +
                         "'flex2.tools.Optimizer' in the current projects classpath.");
             }
         }
     }
 
-    private int executeTool(String toolGroupName, String toolName, String[] args) throws Exception {
-        // Initialize the tool registry.
-        FlexToolRegistry toolRegistry = new FlexToolRegistry();
-
-        // Get the desired tool group.
-        FlexToolGroup toolGroup = toolRegistry.getToolGroup(toolGroupName);
-        if(toolGroup == null) {
-            throw new Exception("Unable to find compiler: " + toolGroupName + " in the plugin classpath. " +
-                    "List of compiles found: " + toolRegistry.getToolGroupNames());
-        }
-
-        // Get the desired tool.
-        if(!toolGroup.hasFlexTool(toolName)) {
-            throw new Exception("Compiler: " + toolGroupName + " doesn't provide a tool named " + toolName);
-        }
-        FlexTool tool = toolGroup.getFlexTool(toolName);
-
-        // If interceptors are provided, let each one process the argument list.
-        if(interceptors != null) {
-            for(FlexToolInterceptor interceptor : interceptors) {
-                args = interceptor.interceptArgs(toolGroup, tool, args);
-            }
-        }
-
-        // Finally execute the tool.
-        return tool.execute(args);
-    }
-
 }
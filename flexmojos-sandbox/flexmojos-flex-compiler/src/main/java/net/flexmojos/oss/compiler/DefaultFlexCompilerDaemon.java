@@ -0,0 +1,231 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.compiler;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import net.flexmojos.oss.compiler.command.CommandUtil;
+import net.flexmojos.oss.compiler.command.Result;
+import net.flexmojos.oss.compiler.interceptor.FlexToolInterceptor;
+import org.apache.flex.tools.FlexTool;
+import org.apache.flex.tools.FlexToolGroup;
+import org.apache.flex.tools.FlexToolRegistry;
+import org.codehaus.plexus.component.annotations.Component;
+import org.codehaus.plexus.component.annotations.Requirement;
+import org.codehaus.plexus.logging.AbstractLogEnabled;
+import org.codehaus.plexus.personality.plexus.lifecycle.phase.Disposable;
+
+@Component( role = FlexCompilerDaemon.class )
+public class DefaultFlexCompilerDaemon
+    extends AbstractLogEnabled
+    implements FlexCompilerDaemon, Disposable
+{
+
+    /**
+     * Everything resolved from one SDK class loader. The registry and the entry points reference classes of that
+     * loader, so it can't be held weakly; plugin realms live for the whole session anyway and the entries go away with
+     * the daemon.
+     */
+    private static final class Tools
+    {
+
+        private FlexToolRegistry registry;
+
+        private final Map<String, Method> entryPoints = new ConcurrentHashMap<String, Method>();
+
+    }
+
+    @Requirement( role = FlexToolInterceptor.class )
+    private List<FlexToolInterceptor> interceptors;
+
+    private final Map<ClassLoader, Tools> tools = new HashMap<ClassLoader, Tools>();
+
+    private final Map<String, JobStatistics> statistics = new ConcurrentHashMap<String, JobStatistics>();
+
+    public int executeTool( String toolGroupName, String toolName, String[] args )
+        throws Exception
+    {
+        Tools loaderTools = getTools();
+        boolean reused;
+        FlexToolRegistry toolRegistry;
+        synchronized ( loaderTools )
+        {
+            reused = loaderTools.registry != null;
+            if ( !reused )
+            {
+                getLogger().debug( "Initializing flex tool registry for " + getClassLoader() );
+                loaderTools.registry = new FlexToolRegistry();
+            }
+            toolRegistry = loaderTools.registry;
+        }
+
+        // Get the desired tool group.
+        FlexToolGroup toolGroup = toolRegistry.getToolGroup( toolGroupName );
+        if ( toolGroup == null )
+        {
+            throw new Exception( "Unable to find compiler: " + toolGroupName + " in the plugin classpath. "
+                + "List of compiles found: " + toolRegistry.getToolGroupNames() );
+        }
+
+        // Get the desired tool.
+        if ( !toolGroup.hasFlexTool( toolName ) )
+        {
+            throw new Exception( "Compiler: " + toolGroupName + " doesn't provide a tool named " + toolName );
+        }
+        FlexTool tool = toolGroup.getFlexTool( toolName );
+
+        // If interceptors are provided, let each one process the argument list.
+        if ( interceptors != null )
+        {
+            for ( FlexToolInterceptor interceptor : interceptors )
+            {
+                args = interceptor.interceptArgs( toolGroup, tool, args );
+            }
+        }
+
+        long start = System.currentTimeMillis();
+        try
+        {
+            // Finally execute the tool.
+            return tool.execute( args );
+        }
+        finally
+        {
+            record( toolGroupName + ":" + toolName, start, reused );
+        }
+    }
+
+    public void executeMain( String className, String methodName, String[] args )
+        throws Exception
+    {
+        String key = className + "#" + methodName;
+        Map<String, Method> entryPoints = getTools().entryPoints;
+        Method entryPoint = entryPoints.get( key );
+        boolean reused = entryPoint != null;
+        if ( !reused )
+        {
+            entryPoint = getEntryPoint( className, methodName );
+            entryPoints.put( key, entryPoint );
+        }
+
+        long start = System.currentTimeMillis();
+        try
+        {
+            entryPoint.invoke( null, new Object[] { args } );
+        }
+        catch ( InvocationTargetException e )
+        {
+            Throwable cause = e.getTargetException();
+            if ( cause instanceof Exception )
+            {
+                throw (Exception) cause;
+            }
+            if ( cause instanceof Error )
+            {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+        finally
+        {
+            record( className, start, reused );
+        }
+    }
+
+    public Map<String, JobStatistics> getStatistics()
+    {
+        return Collections.unmodifiableMap( new LinkedHashMap<String, JobStatistics>( statistics ) );
+    }
+
+    public void dispose()
+    {
+        synchronized ( tools )
+        {
+            tools.clear();
+        }
+    }
+
+    private ClassLoader getClassLoader()
+    {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        return classLoader != null ? classLoader : getClass().getClassLoader();
+    }
+
+    private Tools getTools()
+    {
+        ClassLoader classLoader = getClassLoader();
+        synchronized ( tools )
+        {
+            Tools loaderTools = tools.get( classLoader );
+            if ( loaderTools == null )
+            {
+                loaderTools = new Tools();
+                tools.put( classLoader, loaderTools );
+            }
+            return loaderTools;
+        }
+    }
+
+    private Method getEntryPoint( String className, String methodName )
+        throws ClassNotFoundException, NoSuchMethodException
+    {
+        Class<?> tool = Class.forName( className, true, getClassLoader() );
+        try
+        {
+            return tool.getMethod( methodName, String[].class );
+        }
+        catch ( NoSuchMethodException e )
+        {
+            // some tools (DigestTool) don't expose their entry point
+            Method entryPoint = tool.getDeclaredMethod( methodName, String[].class );
+            entryPoint.setAccessible( true );
+            return entryPoint;
+        }
+    }
+
+    private void record( String job, long start, boolean reused )
+    {
+        long time = System.currentTimeMillis() - start;
+        CommandUtil.recordTime( Result.COMPILER_RUN, time );
+
+        JobStatistics stats;
+        synchronized ( statistics )
+        {
+            stats = statistics.get( job );
+            if ( stats == null )
+            {
+                stats = new JobStatistics();
+                statistics.put( job, stats );
+            }
+        }
+        stats.record( time, reused );
+
+        if ( getLogger().isDebugEnabled() )
+        {
+            getLogger().debug( "Compiler job '" + job + "' took " + time + " ms (" + stats + ")" );
+        }
+    }
+
+}
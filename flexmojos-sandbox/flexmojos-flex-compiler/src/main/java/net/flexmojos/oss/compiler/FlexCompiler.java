@@ -17,6 +17,8 @@
  */
 package net.flexmojos.oss.compiler;
 
+import java.util.List;
+
 import net.flexmojos.oss.compiler.command.Result;
 
 public interface FlexCompiler
@@ -28,6 +30,20 @@ public interface FlexCompiler
     Result compileSwc( ICompcConfiguration configuration, boolean sychronize, String compilerName )
         throws Exception;
 
+    /**
+     * Same as {@link #compileSwf(MxmlcConfigurationHolder, boolean, String)}, with the arguments already parsed from
+     * the configuration (source file included).
+     */
+    Result compileSwf( List<String> arguments, boolean sychronize, String compilerName )
+        throws Exception;
+
+    /**
+     * Same as {@link #compileSwc(ICompcConfiguration, boolean, String)}, with the arguments already parsed from the
+     * configuration.
+     */
+    Result compileSwc( List<String> arguments, boolean sychronize, String compilerName )
+        throws Exception;
+
     Result asdoc( final IASDocConfiguration configuration, boolean sychronize, String compilerName )
         throws Exception;
 
@@ -0,0 +1,100 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.compiler;
+
+import java.util.Map;
+
+/**
+ * Long lived holder for the compiler tools. The SDK classes, the tool registry and the resolved tool instances are kept
+ * alive for as long as the component lives (the whole maven session), so only the first compilation pays for class
+ * loading and JIT warm-up.
+ */
+public interface FlexCompilerDaemon
+{
+
+    /**
+     * Runs a tool provided by the Flex tool API (mxmlc, compc, ...) from the given tool group.
+     */
+    int executeTool( String toolGroupName, String toolName, String[] args )
+        throws Exception;
+
+    /**
+     * Runs a legacy compiler by invoking the static entry point <code>methodName(String[])</code> of
+     * <code>className</code>.
+     */
+    void executeMain( String className, String methodName, String[] args )
+        throws Exception;
+
+    /**
+     * @return statistics for every job name executed so far
+     */
+    Map<String, JobStatistics> getStatistics();
+
+    public static final class JobStatistics
+    {
+
+        private int jobs;
+
+        private int reuses;
+
+        private long totalTime;
+
+        private long lastTime;
+
+        synchronized void record( long time, boolean reused )
+        {
+            jobs++;
+            if ( reused )
+            {
+                reuses++;
+            }
+            totalTime += time;
+            lastTime = time;
+        }
+
+        public synchronized int getJobs()
+        {
+            return jobs;
+        }
+
+        /**
+         * @return how many jobs ran on a tool (registry or entry point) resolved by an earlier job
+         */
+        public synchronized int getReuses()
+        {
+            return reuses;
+        }
+
+        public synchronized long getTotalTime()
+        {
+            return totalTime;
+        }
+
+        public synchronized long getLastTime()
+        {
+            return lastTime;
+        }
+
+        @Override
+        public synchronized String toString()
+        {
+            return jobs + " job(s), " + reuses + " reuse(s), " + totalTime + " ms total";
+        }
+    }
+
+}
@@ -17,84 +17,217 @@
  */
 package net.flexmojos.oss.compiler.command;
 
-import java.lang.Thread.UncaughtExceptionHandler;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import flex2.compiler.util.ThreadLocalToolkit;
 
 public class CommandUtil
 {
 
+    public static final int DEFAULT_QUEUE_SIZE = 64;
+
+    private static final ThreadLocal<Boolean> WORKER = new ThreadLocal<Boolean>();
+
+    private static final ThreadLocal<Result> CURRENT = new ThreadLocal<Result>();
+
+    private static ThreadPoolExecutor executor;
+
+    private static int maxThreads;
+
+    private static int queueSize = DEFAULT_QUEUE_SIZE;
+
+    private static long memoryPerCompile;
+
+    /**
+     * Configures the session wide compiler pool.
+     * 
+     * @param threads maximum number of concurrent compilations, 0 or less to use the number of available processors
+     * @param queue maximum number of compilations waiting for a free thread, once full compilations run on the
+     *            calling thread
+     * @param memory estimated heap (in bytes) used by a single compilation, caps the number of threads to what fits
+     *            on the maximum heap. 0 or less disables the cap
+     * @return the effective number of compiler threads
+     */
+    public static synchronized int configure( int threads, int queue, long memory )
+    {
+        maxThreads = threads;
+        memoryPerCompile = memory;
+        if ( queue <= 0 )
+        {
+            queue = DEFAULT_QUEUE_SIZE;
+        }
+
+        int poolSize = getPoolSize();
+        if ( executor != null )
+        {
+            if ( queue != queueSize )
+            {
+                // queue capacity is fixed, running compilations are left to finish on the old pool
+                executor.shutdown();
+                executor = null;
+            }
+            else if ( poolSize > executor.getMaximumPoolSize() )
+            {
+                executor.setMaximumPoolSize( poolSize );
+                executor.setCorePoolSize( poolSize );
+            }
+            else
+            {
+                executor.setCorePoolSize( poolSize );
+                executor.setMaximumPoolSize( poolSize );
+            }
+        }
+        queueSize = queue;
+
+        return poolSize;
+    }
+
+    public static synchronized int getPoolSize()
+    {
+        int threads = maxThreads > 0 ? maxThreads : Runtime.getRuntime().availableProcessors();
+        if ( memoryPerCompile > 0 )
+        {
+            long memoryCap = Runtime.getRuntime().maxMemory() / memoryPerCompile;
+            threads = (int) Math.min( threads, Math.max( 1, memoryCap ) );
+        }
+        return threads;
+    }
+
+    private static synchronized ThreadPoolExecutor getExecutor()
+    {
+        if ( executor == null )
+        {
+            int poolSize = getPoolSize();
+            executor =
+                new ThreadPoolExecutor( poolSize, poolSize, 30, TimeUnit.SECONDS,
+                                        new ArrayBlockingQueue<Runnable>( queueSize ), new WorkerFactory(),
+                                        new ThreadPoolExecutor.CallerRunsPolicy() );
+            executor.allowCoreThreadTimeOut( true );
+        }
+        return executor;
+    }
+
     public static Result execute( final Command command, boolean sychronize )
-            throws Exception
+        throws Exception
+    {
+        final Result r = new Result();
+        final long submitted = System.currentTimeMillis();
+        Callable<Result> task = new Callable<Result>()
         {
-            final Result r = new Result();
-            Thread t = new Thread( new Runnable()
+            public Result call()
             {
-                public void run()
+                r.addTime( Result.COMPILER_QUEUE, System.currentTimeMillis() - submitted );
+                Result parent = CURRENT.get();
+                CURRENT.set( r );
+                try
                 {
-    //                SecurityManager sm = System.getSecurityManager();
-    //
-    //                System.setSecurityManager( new SecurityManager()
-    //                {
-    //                    public void checkPermission( java.security.Permission perm )
-    //                    {
-    //                        if ( perm.getName().contains( "exitVM" ) )
-    //                        {
-    //                            throw new CompilerSecurityException();
-    //                        }
-    //                    }
-    //                } );
-    
-                    try
-                    {
-                        command.command();
-                    }
-    //                catch ( CompilerSecurityException e )
-    //                {
-    //                    // that is fine, just we preventing adobe from killing the VM
-    //                }
-                    catch ( Exception e )
-                    {
-                        r.setException( e );
-                    }
-    //                finally
-    //                {
-    //                    System.setSecurityManager( sm );
-    //                }
-    
-                    r.setExitCode( ThreadLocalToolkit.errorCount() );
+                    command.command();
                 }
-            } );
-            t.setUncaughtExceptionHandler( new UncaughtExceptionHandler()
-            {
-                public void uncaughtException( Thread t, Throwable e )
+                catch ( Exception e )
                 {
-                    if ( e instanceof Exception )
-                    {
-                        r.setException( (Exception) e );
-                    }
-                    else
-                    {
-                        r.setException( new Exception( e ) );
-                    }
+                    r.setException( e );
                 }
-            } );
-            t.start();
-            r.setThread( t );
-    
-            if ( sychronize )
-            {
-                Thread.yield();
-                try
+                catch ( Throwable e )
                 {
-                    t.join();
+                    r.setException( new Exception( e ) );
                 }
-                catch ( InterruptedException e )
+                finally
                 {
+                    CURRENT.set( parent );
                 }
+
+                r.setExitCode( ThreadLocalToolkit.errorCount() );
+                return r;
+            }
+        };
+
+        FutureTask<Result> future = new FutureTask<Result>( task )
+        {
+            @Override
+            protected void done()
+            {
+                r.done();
+            }
+        };
+        r.setFuture( future );
+        if ( isWorker() )
+        {
+            // nested compilation (like resource bundles adapted while parsing arguments), waiting for another worker
+            // from inside a worker could starve the pool
+            future.run();
+        }
+        else
+        {
+            getExecutor().execute( future );
+        }
+
+        if ( sychronize )
+        {
+            try
+            {
+                future.get();
+            }
+            catch ( InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+            }
+            catch ( ExecutionException e )
+            {
+                r.setException( e );
             }
-    
-            return r;
         }
 
+        return r;
+    }
+
+    /**
+     * @return true on a compiler thread, where waiting for other compilations could starve the pool
+     */
+    public static boolean isWorker()
+    {
+        return Boolean.TRUE.equals( WORKER.get() );
+    }
+
+    /**
+     * Adds the time spent on a phase to the result of the command running on this thread, if any.
+     */
+    public static void recordTime( String phase, long millis )
+    {
+        Result current = CURRENT.get();
+        if ( current != null )
+        {
+            current.addTime( phase, millis );
+        }
+    }
+
+    private static class WorkerFactory
+        implements ThreadFactory
+    {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        public Thread newThread( final Runnable runnable )
+        {
+            Thread t = new Thread( new Runnable()
+            {
+                public void run()
+                {
+                    WORKER.set( Boolean.TRUE );
+                    runnable.run();
+                }
+            }, "flexmojos-compiler-" + count.incrementAndGet() );
+            t.setDaemon( true );
+            return t;
+        }
+
+    }
+
 }
@@ -17,13 +17,64 @@
  */
 package net.flexmojos.oss.compiler.command;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
 public class Result
 {
+    /**
+     * Time waiting for a free compiler thread
+     */
+    public static final String COMPILER_QUEUE = "compiler-queue";
+
+    /**
+     * Time turning the configuration into compiler arguments
+     */
+    public static final String ARGUMENT_PARSING = "argument-parsing";
+
+    /**
+     * Time spent inside the compiler, writing outputs and reports included
+     */
+    public static final String COMPILER_RUN = "compiler-run";
+
     private Exception exception;
 
+    private final Map<String, Long> times = new LinkedHashMap<String, Long>();
+
     private int exitCode;
 
-    private Thread thread;
+    private Future<?> future;
+
+    private final List<BlockingQueue<? super Result>> completions = new ArrayList<BlockingQueue<? super Result>>();
+
+    private boolean done;
+
+    /**
+     * @return a result for work that didn't need to run at all (i.e. outputs restored from a cache)
+     */
+    public static Result completed( int exitCode )
+    {
+        FutureTask<Object> done = new FutureTask<Object>( new Callable<Object>()
+        {
+            public Object call()
+            {
+                return null;
+            }
+        } );
+        done.run();
+
+        Result result = new Result();
+        result.setExitCode( exitCode );
+        result.setFuture( done );
+        return result;
+    }
 
     public int getExitCode()
         throws Exception
@@ -41,7 +92,17 @@ public class Result
     public void checkException()
         throws Exception
     {
-        thread.join();
+        try
+        {
+            future.get();
+        }
+        catch ( ExecutionException e )
+        {
+            if ( exception == null )
+            {
+                exception = e;
+            }
+        }
 
         if ( exception != null )
         {
@@ -49,13 +110,71 @@ public class Result
         }
     }
 
+    public boolean isDone()
+    {
+        return future.isDone();
+    }
+
+    /**
+     * Offers this result to the given queue once the work is done, right away if it already is. Lets a caller wait for
+     * whichever of many results finishes first.
+     */
+    public void notifyCompletion( BlockingQueue<? super Result> queue )
+    {
+        synchronized ( this )
+        {
+            if ( !done && ( future == null || !future.isDone() ) )
+            {
+                completions.add( queue );
+                return;
+            }
+        }
+        queue.offer( this );
+    }
+
+    /**
+     * Signals the queues registered by {@link #notifyCompletion(BlockingQueue)}, to be called by whoever runs the work
+     * once it is done, failed or not.
+     */
+    public void done()
+    {
+        List<BlockingQueue<? super Result>> queues;
+        synchronized ( this )
+        {
+            done = true;
+            queues = new ArrayList<BlockingQueue<? super Result>>( completions );
+            completions.clear();
+        }
+        for ( BlockingQueue<? super Result> queue : queues )
+        {
+            queue.offer( this );
+        }
+    }
+
     public void setException( Exception exception )
     {
         this.exception = exception;
     }
 
-    public void setThread( Thread t )
+    public void setFuture( Future<?> future )
+    {
+        this.future = future;
+    }
+
+    public synchronized void addTime( String phase, long millis )
+    {
+        Long time = times.get( phase );
+        times.put( phase, time == null ? millis : time + millis );
+    }
+
+    /**
+     * @return the time (in milliseconds) spent on each phase of the work so far, forgetting it so it is only reported
+     *         once
+     */
+    public synchronized Map<String, Long> drainTimes()
     {
-        this.thread = t;
+        Map<String, Long> drained = new LinkedHashMap<String, Long>( times );
+        times.clear();
+        return drained;
     }
 }
@@ -0,0 +1,273 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.compiler.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import net.flexmojos.oss.compiler.IASDocConfiguration;
+import net.flexmojos.oss.compiler.IFontsConfiguration;
+import net.flexmojos.oss.compiler.IMetadataConfiguration;
+import net.flexmojos.oss.compiler.IRuntimeSharedLibraryPath;
+import net.flexmojos.oss.generator.iface.StringUtil;
+
+/**
+ * Turns configuration values into compiler arguments. Shared by the reflective parser and the generated argument
+ * serializers, so both always format options the same way.
+ */
+final class ArgumentWriter
+{
+
+    private final List<Entry<String, List<String>>> args;
+
+    private final String prefix;
+
+    ArgumentWriter()
+    {
+        this( new ArrayList<Entry<String, List<String>>>(), "" );
+    }
+
+    private ArgumentWriter( List<Entry<String, List<String>>> args, String prefix )
+    {
+        this.args = args;
+        this.prefix = prefix;
+    }
+
+    /**
+     * @return a writer adding to the same arguments, for the options of a nested configuration
+     */
+    ArgumentWriter nested( String configurationName )
+    {
+        return new ArgumentWriter( args, prefix + configurationName + "." );
+    }
+
+    List<Entry<String, List<String>>> getArguments()
+    {
+        return args;
+    }
+
+    List<String> getArgumentsList()
+    {
+        List<String> list = new ArrayList<String>();
+        for ( Entry<String, List<String>> arg : args )
+        {
+            list.add( "-" + arg.getName() );
+            if ( arg.getValue() != null )
+            {
+                list.addAll( arg.getValue() );
+            }
+        }
+        return list;
+    }
+
+    @SuppressWarnings( "unchecked" )
+    void option( Object cfg, String name, Object value )
+    {
+        if ( value == null )
+        {
+            return;
+        }
+
+        if ( cfg instanceof IASDocConfiguration && "footer".equals( name ) )
+        {
+            add( name, Collections.singletonList( value.toString() ) );
+        }
+        else if ( cfg instanceof IMetadataConfiguration && "description".equals( name ) )
+        {
+            add( name, Collections.singletonList( value.toString() ) );
+        }
+        else if ( cfg instanceof IFontsConfiguration && "managers".equals( name ) )
+        {
+            add( name, (List<String>) value );
+        }
+        else if ( value instanceof IRuntimeSharedLibraryPath || value instanceof IRuntimeSharedLibraryPath[] )
+        {
+            IRuntimeSharedLibraryPath[] values;
+            if ( value instanceof IRuntimeSharedLibraryPath[] )
+            {
+                values = (IRuntimeSharedLibraryPath[]) value;
+            }
+            else
+            {
+                values = new IRuntimeSharedLibraryPath[] { (IRuntimeSharedLibraryPath) value };
+            }
+
+            for ( IRuntimeSharedLibraryPath arg : values )
+            {
+                StringBuilder sb = new StringBuilder();
+                sb.append( arg.pathElement() );
+
+                Set<java.util.Map.Entry<String, String>> urls = arg.rslUrl().entrySet();
+                for ( java.util.Map.Entry<String, String> entry : urls )
+                {
+                    sb.append( ',' );
+                    sb.append( entry.getKey() );
+
+                    if ( entry.getValue() != null )
+                    {
+                        sb.append( ',' );
+                        sb.append( entry.getValue() );
+                    }
+                }
+
+                add( name + "=" + sb, null );
+            }
+        }
+        else if ( value instanceof Object[] || value instanceof Collection<?> )
+        {
+            Object[] values;
+            if ( value instanceof Object[] )
+            {
+                values = (Object[]) value;
+            }
+            else
+            {
+                values = ( (Collection<?>) value ).toArray();
+            }
+            if ( values.length == 0 )
+            {
+                add( name + "=", null );
+            }
+            else if ( "include-classes".equals( name ) )
+            {
+                StringBuilder classes = new StringBuilder();
+                for ( Object vl : values )
+                {
+                    if ( classes.length() != 0 )
+                    {
+                        classes.append( "," );
+                    }
+                    classes.append( vl );
+                }
+                add( name + "=" + classes, null );
+            }
+            else
+            {
+                String appender = "=";
+                for ( Object object : values )
+                {
+                    add( name + appender + object.toString(), null );
+                    appender = "+=";
+                }
+            }
+        }
+        else
+        {
+            add( name + "=" + value.toString(), null );
+        }
+    }
+
+    /**
+     * Writes one <code>IFlexArgument</code>, given the values of its accessors in <code>ORDER</code>.
+     */
+    void argument( String name, boolean namespace, Object[] argValues )
+    {
+        List<String> subArg = new ArrayList<String>();
+        for ( Object argValue : argValues )
+        {
+            if ( argValue == null )
+            {
+                continue;
+            }
+            else if ( argValue instanceof Collection<?> || argValue.getClass().isArray() )
+            {
+                Collection<?> values;
+                if ( argValue.getClass().isArray() )
+                {
+                    values = Arrays.asList( (Object[]) argValue );
+                }
+                else
+                {
+                    values = (Collection<?>) argValue;
+                }
+                for ( Iterator<?> iterator = values.iterator(); iterator.hasNext(); )
+                {
+                    subArg.add( iterator.next().toString() );
+                }
+            }
+            else if ( argValue instanceof Map<?, ?> )
+            {
+                Map<?, ?> map = ( (Map<?, ?>) argValue );
+                for ( java.util.Map.Entry<?, ?> entry : map.entrySet() )
+                {
+                    subArg.add( entry.getKey().toString() );
+                    if ( entry.getValue() != null )
+                    {
+                        subArg.add( entry.getValue().toString() );
+                    }
+                }
+            }
+            else
+            {
+                subArg.add( argValue.toString() );
+            }
+        }
+
+        if ( namespace )
+        {
+            add( name + "=" + subArg.get( 0 ) + "," + subArg.get( 1 ), null );
+        }
+        else
+        {
+            add( name, subArg );
+        }
+    }
+
+    private void add( String name, List<String> value )
+    {
+        args.add( new Entry<String, List<String>>( prefix + name, value ) );
+    }
+
+    /**
+     * @return the option name for a getter, <code>getDebugPassword</code> becomes <code>debug-password</code>
+     */
+    static String optionName( String methodName )
+    {
+        String name = StringUtil.removePrefix( methodName );
+        String[] nodes = StringUtil.splitCamelCase( name );
+
+        StringBuilder finalName = new StringBuilder();
+        for ( String node : nodes )
+        {
+            if ( finalName.length() != 0 )
+            {
+                finalName.append( '-' );
+            }
+            finalName.append( node.toLowerCase() );
+        }
+
+        return finalName.toString();
+    }
+
+    /**
+     * @return the option prefix for a nested configuration getter, <code>getCompilerConfiguration</code> becomes
+     *         <code>compiler</code>
+     */
+    static String configurationName( String methodName )
+    {
+        String name = optionName( methodName );
+        return name.substring( 0, name.length() - 14 );
+    }
+
+}
@@ -20,11 +20,11 @@ package net.flexmojos.oss.compiler.util;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 import net.flexmojos.oss.compiler.*;
 import org.codehaus.plexus.component.annotations.Component;
 import org.codehaus.plexus.logging.AbstractLogEnabled;
-import net.flexmojos.oss.generator.iface.StringUtil;
 
 @Component( role = FlexCompilerArgumentParser.class )
 public class DefaultFlexCompilerArgumentParser
@@ -32,6 +32,20 @@ public class DefaultFlexCompilerArgumentParser
     implements FlexCompilerArgumentParser
 {
 
+    // reflection metadata is the same for every compilation, so it is only looked up once per configuration interface
+    private static final Map<Class<?>, List<Option>> OPTIONS = new ConcurrentHashMap<Class<?>, List<Option>>();
+
+    private static final Map<Class<?>, Method[]> ARGUMENT_ACCESSORS = new ConcurrentHashMap<Class<?>, Method[]>();
+
+    // getDeclaredMethods() has no defined order, the generated serializers write the getters sorted the same way
+    private static final Comparator<Method> BY_NAME = new Comparator<Method>()
+    {
+        public int compare( Method m1, Method m2 )
+        {
+            return m1.getName().compareTo( m2.getName() );
+        }
+    };
+
     public <E> String[] parseArguments( E cfg, Class<? extends E> configClass )
     {
         return parseArguments( cfg, configClass, Thread.currentThread().getContextClassLoader() );
@@ -50,257 +64,168 @@ public class DefaultFlexCompilerArgumentParser
 
     public <E> List<String> getArgumentsList( E cfg, Class<? extends E> configClass, ClassLoader classLoader )
     {
-        List<Entry<String, List<String>>> charArgs;
+        ArgumentWriter out = new ArgumentWriter();
+        // the generated serializers only apply when the configuration comes from our own classloader
+        if ( !ArgumentSerializers.write( cfg, configClass, out ) )
+        {
+            doGetArgs( cfg, configClass, classLoader, out );
+        }
+        return out.getArgumentsList();
+    }
+
+    /**
+     * Writes the arguments of the configuration using reflection only.
+     */
+    <E> void doGetArgs( E cfg, Class<? extends E> configClass, ClassLoader classLoader, ArgumentWriter out )
+    {
         try
         {
-            charArgs = doGetArgs( cfg, configClass, classLoader );
+            writeArgs( cfg, configClass, classLoader, out );
         }
         catch ( Exception e )
         {
             throw new RuntimeException( e );
         }
-
-        List<String> args = new ArrayList<String>();
-        for ( Entry<String, List<String>> arg : charArgs )
-        {
-            args.add( "-" + arg.getName() );
-            if ( arg.getValue() != null )
-            {
-                args.addAll( arg.getValue() );
-            }
-        }
-        return args;
     }
 
-    @SuppressWarnings( "unchecked" )
-    private <E> List<Entry<String, List<String>>> doGetArgs( E cfg, Class<? extends E> configClass,
-                                                             ClassLoader classLoader )
+    private void writeArgs( Object cfg, Class<?> configClass, ClassLoader classLoader, ArgumentWriter out )
         throws Exception
     {
         if ( cfg == null )
         {
-            return Collections.emptyList();
+            return;
         }
 
-        configClass = (Class<? extends E>) classLoader.loadClass( configClass.getName() );
-
-        List<Entry<String, List<String>>> args = new LinkedList<Entry<String, List<String>>>();
+        configClass = classLoader.loadClass( configClass.getName() );
 
-        Method[] methods = configClass.getDeclaredMethods();
-        for ( Method method : methods )
+        for ( Option option : getOptions( configClass ) )
         {
-            if ( method.getParameterTypes().length != 0 || !Modifier.isPublic( method.getModifiers() ) )
-            {
-                continue;
-            }
-
-            Object value = method.invoke( cfg );
+            Object value = option.method.invoke( cfg );
 
             if ( value == null )
             {
                 continue;
             }
 
-            Class<?> returnType = method.getReturnType();
-
-            String name = parseName( method.getName() );
-
             if ( value instanceof IFlexConfiguration )
             {
-                List<Entry<String, List<String>>> subArgs = doGetArgs( value, returnType, classLoader );
-                String configurationName = parseConfigurationName( method.getName() );
-                for ( Entry<String, List<String>> arg : subArgs )
-                {
-                    args.add( new Entry<String, List<String>>( configurationName + "." + arg.getName(), arg.getValue() ) );
-                }
-            }
-            else if ( cfg instanceof IASDocConfiguration && "footer".equals( name ) )
-            {
-                args.add( new Entry<String, List<String>>( name, Collections.singletonList( value.toString() ) ) );
-            }
-            else if ( cfg instanceof IMetadataConfiguration && "description".equals( name ) )
-            {
-                args.add( new Entry<String, List<String>>( name, Collections.singletonList( value.toString() ) ) );
-            }
-            else if ( cfg instanceof IFontsConfiguration && "managers".equals( name ) )
-            {
-                args.add( new Entry<String, List<String>>( name, (List<String>) value ) );
+                writeArgs( value, option.returnType, classLoader, out.nested( option.getConfigurationName() ) );
             }
             else if ( value instanceof IRuntimeSharedLibraryPath || value instanceof IRuntimeSharedLibraryPath[] )
             {
-                IRuntimeSharedLibraryPath[] values;
-                Class<?> type = returnType;
-                if ( type.isArray() )
-                {
-                    values = (IRuntimeSharedLibraryPath[]) value;
-                }
-                else
-                {
-                    values = new IRuntimeSharedLibraryPath[] { (IRuntimeSharedLibraryPath) value };
-                }
-
-                for ( IRuntimeSharedLibraryPath arg : values )
-                {
-                    StringBuilder sb = new StringBuilder();
-                    sb.append( arg.pathElement() );
-
-                    Set<java.util.Map.Entry<String, String>> urls = arg.rslUrl().entrySet();
-                    for ( java.util.Map.Entry<String, String> entry : urls )
-                    {
-                        sb.append( ',' );
-                        sb.append( entry.getKey() );
-
-                        if ( entry.getValue() != null )
-                        {
-                            sb.append( ',' );
-                            sb.append( entry.getValue() );
-                        }
-                    }
-
-                    args.add( new Entry<String, List<String>>( name + "=" + sb, null ) );
-                }
+                out.option( cfg, option.name, value );
             }
             else if ( value instanceof IFlexArgument || value instanceof IFlexArgument[] )
             {
                 IFlexArgument[] values;
-                Class<?> type = returnType;
+                Class<?> type = option.returnType;
                 if ( type.isArray() )
                 {
                     values = (IFlexArgument[]) value;
-                    type = returnType.getComponentType();
+                    type = type.getComponentType();
                 }
                 else
                 {
                     values = new IFlexArgument[] { (IFlexArgument) value };
-                    type = returnType;
                 }
 
                 for ( IFlexArgument iFlexArgument : values )
                 {
-                    // Get the names of the arguments in the order of their appearance.
-                    String[] order = (String[]) type.getField( "ORDER" ).get(iFlexArgument);
-                    List<String> subArg = new LinkedList<String>();
-                    for ( String argMethodName : order )
+                    // Get the arguments in the order of their appearance.
+                    Method[] order = getArgumentAccessors( type, iFlexArgument );
+                    Object[] argValues = new Object[order.length];
+                    for ( int i = 0; i < order.length; i++ )
                     {
-                        Object argValue = type.getDeclaredMethod( argMethodName ).invoke( iFlexArgument );
-                        if ( argValue == null )
-                        {
-                            continue;
-                        }
-                        else if ( argValue instanceof Collection<?> || argValue.getClass().isArray() )
-                        {
-                            Collection<?> argValues;
-                            if ( argValue.getClass().isArray() )
-                            {
-                                argValues = Arrays.asList( (Object[]) argValue );
-                            }
-                            else
-                            {
-                                argValues = (Collection<?>) argValue;
-                            }
-                            for ( Iterator<?> iterator = argValues.iterator(); iterator.hasNext(); )
-                            {
-                                subArg.add( iterator.next().toString() );
-                            }
-                        }
-                        else if ( argValue instanceof Map<?, ?> )
-                        {
-                            Map<?, ?> map = ( (Map<?, ?>) argValue );
-                            Set<?> argValues = map.entrySet();
-                            for ( Iterator<?> iterator = argValues.iterator(); iterator.hasNext(); )
-                            {
-                                java.util.Map.Entry<?, ?> entry = (java.util.Map.Entry<?, ?>) iterator.next();
-                                subArg.add( entry.getKey().toString() );
-                                if ( entry.getValue() != null )
-                                {
-                                    subArg.add( entry.getValue().toString() );
-                                }
-                            }
-
-                        }
-                        else
-                        {
-                            subArg.add( argValue.toString() );
-                        }
-                    }
-
-                    if(type == INamespace.class) {
-                        args.add( new Entry<String, List<String>>(
-                                name + "=" + subArg.get(0) + "," + subArg.get(1), null ) );
-                    } else {
-                        args.add( new Entry<String, List<String>>( name, subArg ) );
+                        argValues[i] = order[i].invoke( iFlexArgument );
                     }
+                    out.argument( option.name, type == INamespace.class, argValues );
                 }
             }
-            else if ( returnType.isArray() || value instanceof Collection<?> )
+            else
             {
-                Object[] values;
-                if ( returnType.isArray() )
-                {
-                    values = (Object[]) value;
-                }
-                else
-                {
-                    values = ( (Collection<?>) value ).toArray();
-                }
-                if ( values.length == 0 )
-                {
-                    args.add( new Entry<String, List<String>>( name + "=", null ) );
-                }
-                else if ( "include-classes".equals( name ) )
-                {
-                    StringBuilder classes = new StringBuilder();
-                    for ( Object vl : values )
-                    {
-                        if ( classes.length() != 0 )
-                        {
-                            classes.append( "," );
-                        }
-                        classes.append( vl );
-                    }
-                    args.add( new Entry<String, List<String>>( name + "=" + classes, null ) );
-                }
-                else
+                out.option( cfg, option.name, value );
+            }
+        }
+    }
+
+    /**
+     * @return the public getters of the configuration interface with their option names, sorted by getter name
+     */
+    static List<Option> getOptions( Class<?> configClass )
+    {
+        List<Option> options = OPTIONS.get( configClass );
+        if ( options == null )
+        {
+            List<Option> list = new ArrayList<Option>();
+            Method[] methods = configClass.getDeclaredMethods();
+            Arrays.sort( methods, BY_NAME );
+            for ( Method method : methods )
+            {
+                if ( method.getParameterTypes().length != 0 || !Modifier.isPublic( method.getModifiers() ) )
                 {
-                    String appender = "=";
-                    for ( Object object : values )
-                    {
-                        args.add( new Entry<String, List<String>>( name + appender + object.toString(), null ) );
-                        appender = "+=";
-                    }
+                    continue;
                 }
+                list.add( new Option( method ) );
             }
-            else
+            options = Collections.unmodifiableList( list );
+            OPTIONS.put( configClass, options );
+        }
+        return options;
+    }
+
+    private static Method[] getArgumentAccessors( Class<?> type, IFlexArgument argument )
+        throws Exception
+    {
+        Method[] accessors = ARGUMENT_ACCESSORS.get( type );
+        if ( accessors == null )
+        {
+            // Get the names of the arguments in the order of their appearance.
+            String[] order = (String[]) type.getField( "ORDER" ).get( argument );
+            accessors = new Method[order.length];
+            for ( int i = 0; i < order.length; i++ )
             {
-                args.add( new Entry<String, List<String>>( name + "=" + value.toString(), null ) );
+                accessors[i] = type.getDeclaredMethod( order[i] );
             }
-
+            ARGUMENT_ACCESSORS.put( type, accessors );
         }
-        return args;
+        return accessors;
     }
 
-    private static String parseConfigurationName( String name )
+    static void clearCache()
     {
-        name = parseName( name );
-        name = name.substring( 0, name.length() - 14 );
-        return name;
+        OPTIONS.clear();
+        ARGUMENT_ACCESSORS.clear();
     }
 
-    private static String parseName( String name )
+    static final class Option
     {
-        name = StringUtil.removePrefix( name );
-        String[] nodes = StringUtil.splitCamelCase( name );
 
-        StringBuilder finalName = new StringBuilder();
-        for ( String node : nodes )
+        final Method method;
+
+        final Class<?> returnType;
+
+        final String name;
+
+        private String configurationName;
+
+        Option( Method method )
         {
-            if ( finalName.length() != 0 )
+            this.method = method;
+            this.returnType = method.getReturnType();
+            this.name = ArgumentWriter.optionName( method.getName() );
+            if ( IFlexConfiguration.class.isAssignableFrom( returnType ) )
             {
-                finalName.append( '-' );
+                this.configurationName = ArgumentWriter.configurationName( method.getName() );
             }
-            finalName.append( node.toLowerCase() );
         }
 
-        return finalName.toString();
+        String getConfigurationName()
+        {
+            if ( configurationName == null )
+            {
+                configurationName = ArgumentWriter.configurationName( method.getName() );
+            }
+            return configurationName;
+        }
     }
 }
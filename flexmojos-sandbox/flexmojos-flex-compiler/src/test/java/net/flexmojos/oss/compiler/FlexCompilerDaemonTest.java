@@ -0,0 +1,93 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.compiler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.codehaus.plexus.ContainerConfiguration;
+import org.codehaus.plexus.DefaultContainerConfiguration;
+import org.codehaus.plexus.DefaultPlexusContainer;
+import org.codehaus.plexus.PlexusConstants;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+public class FlexCompilerDaemonTest
+{
+
+    public static class DummyTool
+    {
+        static final List<String[]> invocations = new ArrayList<String[]>();
+
+        public static void run( String[] args )
+        {
+            invocations.add( args );
+        }
+
+        public static void fail( String[] args )
+        {
+            throw new IllegalStateException( "compilation failed" );
+        }
+    }
+
+    private FlexCompilerDaemon daemon;
+
+    @BeforeClass
+    public void createDaemon()
+        throws Exception
+    {
+        ContainerConfiguration config = new DefaultContainerConfiguration();
+        config.setAutoWiring( true );
+        config.setClassPathScanning( PlexusConstants.SCANNING_ON );
+        DefaultPlexusContainer plexus = new DefaultPlexusContainer( config );
+        daemon = plexus.lookup( FlexCompilerDaemon.class );
+    }
+
+    @Test
+    public void reuseEntryPoint()
+        throws Exception
+    {
+        daemon.executeMain( DummyTool.class.getName(), "run", new String[] { "-a" } );
+        daemon.executeMain( DummyTool.class.getName(), "run", new String[] { "-b" } );
+        daemon.executeMain( DummyTool.class.getName(), "run", new String[] { "-c" } );
+
+        Assert.assertEquals( DummyTool.invocations.size(), 3 );
+        Assert.assertEquals( DummyTool.invocations.get( 2 )[0], "-c" );
+
+        FlexCompilerDaemon.JobStatistics stats = daemon.getStatistics().get( DummyTool.class.getName() );
+        Assert.assertNotNull( stats );
+        Assert.assertEquals( stats.getJobs(), 3 );
+        Assert.assertEquals( stats.getReuses(), 2 );
+    }
+
+    @Test( expectedExceptions = IllegalStateException.class )
+    public void unwrapToolFailure()
+        throws Exception
+    {
+        daemon.executeMain( DummyTool.class.getName(), "fail", new String[0] );
+    }
+
+    @Test( expectedExceptions = ClassNotFoundException.class )
+    public void missingTool()
+        throws Exception
+    {
+        daemon.executeMain( "flex2.tools.DoesNotExist", "main", new String[0] );
+    }
+
+}
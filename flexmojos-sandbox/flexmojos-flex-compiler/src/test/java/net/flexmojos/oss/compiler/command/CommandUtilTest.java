@@ -0,0 +1,186 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.compiler.command;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+public class CommandUtilTest
+{
+
+    @AfterClass
+    public void restoreDefaults()
+    {
+        CommandUtil.configure( 0, 0, 0 );
+    }
+
+    @Test
+    public void boundedConcurrency()
+        throws Exception
+    {
+        Assert.assertEquals( CommandUtil.configure( 2, 4, 0 ), 2 );
+
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger peak = new AtomicInteger();
+
+        List<Result> results = new ArrayList<Result>();
+        for ( int i = 0; i < 8; i++ )
+        {
+            results.add( CommandUtil.execute( new Command()
+            {
+                public void command()
+                    throws Exception
+                {
+                    int current = running.incrementAndGet();
+                    synchronized ( peak )
+                    {
+                        peak.set( Math.max( peak.get(), current ) );
+                    }
+                    Thread.sleep( 50 );
+                    running.decrementAndGet();
+                }
+            }, false ) );
+        }
+
+        for ( Result result : results )
+        {
+            Assert.assertEquals( result.getExitCode(), 0 );
+        }
+
+        // the queue overflow runs on the calling thread, so at most one extra compilation
+        Assert.assertTrue( peak.get() <= 3, "Peak concurrency " + peak.get() );
+    }
+
+    @Test( timeOut = 10000 )
+    public void nestedCompilationDoesNotStarve()
+        throws Exception
+    {
+        CommandUtil.configure( 1, 1, 0 );
+        Assert.assertFalse( CommandUtil.isWorker() );
+
+        Result outer = CommandUtil.execute( new Command()
+        {
+            public void command()
+                throws Exception
+            {
+                Assert.assertTrue( CommandUtil.isWorker() );
+                Result inner = CommandUtil.execute( new Command()
+                {
+                    public void command()
+                    {
+                    }
+                }, true );
+                Assert.assertTrue( inner.isDone() );
+            }
+        }, true );
+
+        Assert.assertEquals( outer.getExitCode(), 0 );
+    }
+
+    @Test( timeOut = 10000 )
+    public void completionIsSignaled()
+        throws Exception
+    {
+        CommandUtil.configure( 2, 0, 0 );
+        final CountDownLatch release = new CountDownLatch( 1 );
+
+        Result slow = CommandUtil.execute( new Command()
+        {
+            public void command()
+                throws Exception
+            {
+                release.await();
+            }
+        }, false );
+        Result fast = CommandUtil.execute( new Command()
+        {
+            public void command()
+            {
+            }
+        }, true );
+
+        BlockingQueue<Result> completions = new LinkedBlockingQueue<Result>();
+        slow.notifyCompletion( completions );
+        fast.notifyCompletion( completions );
+        Assert.assertSame( completions.take(), fast );
+
+        release.countDown();
+        Assert.assertSame( completions.take(), slow );
+        Assert.assertTrue( completions.isEmpty() );
+    }
+
+    @Test( expectedExceptions = IllegalStateException.class )
+    public void exceptionIsReported()
+        throws Exception
+    {
+        Result result = CommandUtil.execute( new Command()
+        {
+            public void command()
+            {
+                throw new IllegalStateException();
+            }
+        }, false );
+
+        result.getExitCode();
+    }
+
+    @Test
+    public void phaseTimes()
+        throws Exception
+    {
+        Result result = CommandUtil.execute( new Command()
+        {
+            public void command()
+            {
+                CommandUtil.recordTime( Result.ARGUMENT_PARSING, 5 );
+                CommandUtil.recordTime( Result.COMPILER_RUN, 20 );
+                CommandUtil.recordTime( Result.COMPILER_RUN, 10 );
+            }
+        }, false );
+        Assert.assertEquals( result.getExitCode(), 0 );
+
+        Map<String, Long> times = result.drainTimes();
+        Assert.assertTrue( times.containsKey( Result.COMPILER_QUEUE ) );
+        Assert.assertEquals( times.get( Result.ARGUMENT_PARSING ), Long.valueOf( 5 ) );
+        Assert.assertEquals( times.get( Result.COMPILER_RUN ), Long.valueOf( 30 ) );
+
+        // reported only once
+        Assert.assertTrue( result.drainTimes().isEmpty() );
+
+        // outside a command there is nothing to record on
+        CommandUtil.recordTime( Result.COMPILER_RUN, 1 );
+        Assert.assertTrue( result.drainTimes().isEmpty() );
+    }
+
+    @Test
+    public void memoryCap()
+    {
+        long maxMemory = Runtime.getRuntime().maxMemory();
+        Assert.assertEquals( CommandUtil.configure( 64, 0, maxMemory ), 1 );
+    }
+
+}
@@ -0,0 +1,158 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.compiler.util;
+
+import static org.mockito.Mockito.mock;
+
+import java.io.File;
+import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.flexmojos.oss.compiler.IASDocConfiguration;
+import net.flexmojos.oss.compiler.ICommandLineConfiguration;
+import net.flexmojos.oss.compiler.ICompcConfiguration;
+import net.flexmojos.oss.compiler.IDigestConfiguration;
+import net.flexmojos.oss.compiler.IOptimizerConfiguration;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * Checks that the generated argument serializers write the same options, in the same order, as the reflective parser,
+ * with every option of the configuration set.
+ */
+public class ArgumentSerializerParityTest
+{
+
+    /**
+     * Answers every getter with a value derived from its name, nested configurations and arguments included.
+     */
+    private static class EveryOption
+        implements Answer<Object>
+    {
+
+        private final String path;
+
+        EveryOption( String path )
+        {
+            this.path = path;
+        }
+
+        public Object answer( InvocationOnMock invocation )
+            throws Throwable
+        {
+            String name = path + "." + invocation.getMethod().getName();
+            return sample( invocation.getMethod().getReturnType(), name );
+        }
+
+        private static Object sample( Class<?> type, String name )
+        {
+            if ( type == String.class )
+            {
+                return name;
+            }
+            if ( type == Boolean.class || type == boolean.class )
+            {
+                return Boolean.TRUE;
+            }
+            if ( type == Integer.class || type == int.class )
+            {
+                return 1;
+            }
+            if ( type == Long.class || type == long.class )
+            {
+                return 2L;
+            }
+            if ( type == Double.class || type == double.class )
+            {
+                return 3.0;
+            }
+            if ( type == Float.class || type == float.class )
+            {
+                return 4.0f;
+            }
+            if ( type == File.class )
+            {
+                return new File( name );
+            }
+            if ( type == List.class )
+            {
+                return Arrays.asList( name + "-a", name + "-b" );
+            }
+            if ( type == Map.class )
+            {
+                Map<String, String> map = new LinkedHashMap<String, String>();
+                map.put( name + "-key", name + "-value" );
+                map.put( name + "-other", null );
+                return map;
+            }
+            if ( type.isArray() && !type.getComponentType().isPrimitive() )
+            {
+                Object array = Array.newInstance( type.getComponentType(), 2 );
+                for ( int i = 0; i < 2; i++ )
+                {
+                    Array.set( array, i, sample( type.getComponentType(), name + i ) );
+                }
+                return array;
+            }
+            if ( type.isInterface() )
+            {
+                return mock( type, new EveryOption( name ) );
+            }
+            return null;
+        }
+    }
+
+    @DataProvider( name = "configurations" )
+    public Object[][] configurations()
+    {
+        return new Object[][] { { ICompcConfiguration.class }, { ICommandLineConfiguration.class },
+            { IASDocConfiguration.class }, { IDigestConfiguration.class }, { IOptimizerConfiguration.class } };
+    }
+
+    @Test( dataProvider = "configurations" )
+    public <E> void generatedMatchesReflective( Class<E> configClass )
+    {
+        E cfg = mock( configClass, new EveryOption( "cfg" ) );
+        DefaultFlexCompilerArgumentParser parser = new DefaultFlexCompilerArgumentParser();
+
+        ArgumentWriter generated = new ArgumentWriter();
+        Assert.assertTrue( ArgumentSerializers.write( cfg, configClass, generated ),
+                           "No generated serializer for " + configClass );
+
+        ArgumentWriter reflective = new ArgumentWriter();
+        parser.doGetArgs( cfg, configClass, getClass().getClassLoader(), reflective );
+
+        List<Entry<String, List<String>>> expected = reflective.getArguments();
+        List<Entry<String, List<String>>> actual = generated.getArguments();
+        Assert.assertFalse( expected.isEmpty() );
+        for ( int i = 0; i < Math.min( expected.size(), actual.size() ); i++ )
+        {
+            Assert.assertEquals( actual.get( i ).getName(), expected.get( i ).getName(), "Option #" + i );
+            Assert.assertEquals( actual.get( i ).getValue(), expected.get( i ).getValue(),
+                                 "Values of -" + expected.get( i ).getName() );
+        }
+        Assert.assertEquals( actual.size(), expected.size() );
+    }
+
+}
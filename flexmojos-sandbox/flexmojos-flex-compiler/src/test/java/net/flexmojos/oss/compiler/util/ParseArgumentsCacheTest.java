@@ -0,0 +1,120 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.compiler.util;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static net.flexmojos.oss.compiler.test.MockitoConstraints.RETURNS_NULL;
+
+import java.util.Arrays;
+import java.util.List;
+
+import net.flexmojos.oss.compiler.ICompcConfiguration;
+import net.flexmojos.oss.compiler.ICompilerConfiguration;
+import net.flexmojos.oss.compiler.IDefine;
+import net.flexmojos.oss.compiler.IMetadataConfiguration;
+import net.flexmojos.oss.compiler.INamespace;
+import net.flexmojos.oss.compiler.INamespacesConfiguration;
+import org.testng.Assert;
+import org.testng.Reporter;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+/**
+ * Compares parsing with a cold reflection cache (what every compilation used to pay) against the cached metadata.
+ */
+public class ParseArgumentsCacheTest
+{
+
+    private static final int ITERATIONS = 200;
+
+    private DefaultFlexCompilerArgumentParser parser;
+
+    private ICompcConfiguration cfg;
+
+    @BeforeClass
+    public void createConfiguration()
+    {
+        parser = new DefaultFlexCompilerArgumentParser();
+
+        cfg = mock( ICompcConfiguration.class, RETURNS_NULL );
+        ICompilerConfiguration compilerCfg = mock( ICompilerConfiguration.class, RETURNS_NULL );
+        IMetadataConfiguration metadataCfg = mock( IMetadataConfiguration.class, RETURNS_NULL );
+        INamespacesConfiguration namespacesCfg = mock( INamespacesConfiguration.class, RETURNS_NULL );
+        INamespace namespace = mock( INamespace.class, RETURNS_NULL );
+        IDefine define = mock( IDefine.class, RETURNS_NULL );
+
+        when( cfg.getIncludeClasses() ).thenReturn( Arrays.asList( "AClass", "BClass" ) );
+        when( cfg.getDebugPassword() ).thenReturn( "dbgPw" );
+        when( cfg.getCompilerConfiguration() ).thenReturn( compilerCfg );
+        when( cfg.getMetadataConfiguration() ).thenReturn( metadataCfg );
+        when( compilerCfg.getAccessible() ).thenReturn( true );
+        when( compilerCfg.getNamespacesConfiguration() ).thenReturn( namespacesCfg );
+        when( compilerCfg.getDefine() ).thenReturn( new IDefine[] { define } );
+        when( define.name() ).thenReturn( "CONFIG::debug" );
+        when( define.value() ).thenReturn( "true" );
+        when( namespacesCfg.getNamespace() ).thenReturn( new INamespace[] { namespace } );
+        when( namespace.uri() ).thenReturn( "http://flex.sonatype.org/2009" );
+        when( namespace.manifest() ).thenReturn( "manifest.xml" );
+        when( metadataCfg.getCreator() ).thenReturn( new String[] { "Marvin", "VELO", "Froeder" } );
+    }
+
+    @Test
+    public void cachedParseMatchesColdParse()
+    {
+        DefaultFlexCompilerArgumentParser.clearCache();
+        List<String> expected = parse();
+
+        Assert.assertEquals( parse(), expected );
+
+        DefaultFlexCompilerArgumentParser.clearCache();
+        Assert.assertEquals( parse(), expected );
+    }
+
+    @Test( groups = "benchmark" )
+    public void benchmarkCachedParse()
+    {
+        long cold = 0;
+        long warm = 0;
+        for ( int i = 0; i < ITERATIONS; i++ )
+        {
+            DefaultFlexCompilerArgumentParser.clearCache();
+            long start = System.nanoTime();
+            parse();
+            cold += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            parse();
+            warm += System.nanoTime() - start;
+        }
+
+        Reporter.log( "Reflective argument parsing over " + ITERATIONS + " runs: cold " + ( cold / 1000000 )
+            + " ms, cached " + ( warm / 1000000 ) + " ms", true );
+    }
+
+    /**
+     * Always reflective, the generated serializers would skip the cache being measured
+     */
+    private List<String> parse()
+    {
+        ArgumentWriter out = new ArgumentWriter();
+        parser.doGetArgs( cfg, ICompcConfiguration.class, getClass().getClassLoader(), out );
+        return out.getArgumentsList();
+    }
+
+}
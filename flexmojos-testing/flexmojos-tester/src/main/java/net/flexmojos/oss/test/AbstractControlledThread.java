@@ -17,7 +17,9 @@
  */
 package net.flexmojos.oss.test;
 
-import java.lang.Thread.UncaughtExceptionHandler;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
 
 import org.codehaus.plexus.logging.AbstractLogEnabled;
@@ -27,25 +29,46 @@ public abstract class AbstractControlledThread
     implements ControlledThread, Runnable
 {
 
-    protected ThreadStatus status;
+    protected volatile ThreadStatus status;
 
-    protected Throwable error;
+    protected volatile Throwable error;
 
     private ReentrantLock lock;
 
+    private volatile CountDownLatch completion = new CountDownLatch( 1 );
+
+    private volatile BlockingQueue<ControlledThread> completions;
+
     protected void launch()
     {
-        Thread t = new Thread( this );
-        t.setUncaughtExceptionHandler( new UncaughtExceptionHandler()
+        final CountDownLatch completion = this.completion;
+        final BlockingQueue<ControlledThread> completions = this.completions;
+
+        Thread t = new Thread( new Runnable()
         {
-            public void uncaughtException( Thread t, Throwable e )
+            public void run()
             {
-                if ( !ThreadStatus.ERROR.equals( status ) )
+                try
+                {
+                    AbstractControlledThread.this.run();
+                }
+                catch ( Throwable e )
+                {
+                    if ( !ThreadStatus.ERROR.equals( status ) )
+                    {
+                        status = ThreadStatus.ERROR;
+                        error = e;
+                    }
+                    getLogger().debug( "[MOJO] Error running: " + AbstractControlledThread.this.getClass(), e );
+                }
+                finally
                 {
-                    status = ThreadStatus.ERROR;
-                    error = e;
+                    completion.countDown();
+                    if ( completions != null )
+                    {
+                        completions.offer( AbstractControlledThread.this );
+                    }
                 }
-                getLogger().debug( "[MOJO] Error running: " + getClass(), e );
             }
         } );
 
@@ -54,6 +77,17 @@ public abstract class AbstractControlledThread
         Thread.yield();
     }
 
+    public boolean awaitCompletion( long timeout, TimeUnit unit )
+        throws InterruptedException
+    {
+        return completion.await( timeout, unit );
+    }
+
+    public void notifyCompletion( BlockingQueue<ControlledThread> completions )
+    {
+        this.completions = completions;
+    }
+
     public final ThreadStatus getStatus()
     {
         return status;
@@ -89,6 +123,7 @@ public abstract class AbstractControlledThread
     {
         status = null;
         error = null;
+        completion = new CountDownLatch( 1 );
     }
 
 }
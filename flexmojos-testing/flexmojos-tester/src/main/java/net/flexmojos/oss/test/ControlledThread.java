@@ -17,6 +17,9 @@
  */
 package net.flexmojos.oss.test;
 
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
 public interface ControlledThread
 {
 
@@ -26,6 +29,19 @@ public interface ControlledThread
 
     Throwable getError();
 
+    /**
+     * Waits for the current run to be over, with {@link ThreadStatus#DONE} or {@link ThreadStatus#ERROR}.
+     * 
+     * @return false if the timeout expired first
+     */
+    boolean awaitCompletion( long timeout, TimeUnit unit )
+        throws InterruptedException;
+
+    /**
+     * The thread is offered to the queue every time a run is over, so one caller can wait on several threads at once.
+     */
+    void notifyCompletion( BlockingQueue<ControlledThread> completions );
+
     void lock();
 
     void unlock();
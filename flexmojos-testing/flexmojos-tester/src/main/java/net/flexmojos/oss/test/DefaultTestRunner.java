@@ -19,6 +19,9 @@ package net.flexmojos.oss.test;
 
 import java.io.File;
 import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import org.codehaus.plexus.component.annotations.Component;
 import org.codehaus.plexus.component.annotations.Requirement;
@@ -34,6 +37,11 @@ public class DefaultTestRunner
     implements TestRunner
 {
 
+    /**
+     * How long the sockets may take to wrap up once the flashplayer is closed
+     */
+    private static final long SOCKETS_GRACE_TIME = 1500;
+
     @Requirement( role = AsVmPing.class )
     private AsVmPing pinger;
 
@@ -59,6 +67,12 @@ public class DefaultTestRunner
 
         getLogger().info( "Running tests " + swf );
 
+        // every thread reports here when it is over, so there is nothing to poll
+        BlockingQueue<ControlledThread> completions = new LinkedBlockingQueue<ControlledThread>();
+        pinger.notifyCompletion( completions );
+        resultHandler.notifyCompletion( completions );
+        launcher.notifyCompletion( completions );
+
         try
         {
             // Start a thread that pings flashplayer to be sure if it still alive.
@@ -84,16 +98,26 @@ public class DefaultTestRunner
                     throw new TestRunnerException( executionError.getMessage() + " - " + swf, executionError );
                 }
 
+                if ( hasDone( resultHandler ) )
+                {
+                    // the results are in, no need to wait for the next scheduled status query
+                    pinger.wakeUp();
+                }
+
                 if ( hasDone( launcher ) )
                 {
-                    for ( int i = 0; i < 3; i++ )
+                    long deadline = System.currentTimeMillis() + SOCKETS_GRACE_TIME;
+                    if ( resultHandler.awaitCompletion( SOCKETS_GRACE_TIME, TimeUnit.MILLISECONDS ) )
                     {
-                        if ( hasDone( resultHandler ) && hasDone( pinger ) )
-                        {
-                            List<String> results = resultHandler.getTestReportData();
-                            return results; // expected exit!
-                        }
-                        sleep( 500 );
+                        pinger.wakeUp();
+                        pinger.awaitCompletion( Math.max( 0, deadline - System.currentTimeMillis() ),
+                                                TimeUnit.MILLISECONDS );
+                    }
+
+                    if ( hasDone( resultHandler ) && hasDone( pinger ) )
+                    {
+                        List<String> results = resultHandler.getTestReportData();
+                        return results; // expected exit!
                     }
 
                     // the flashplayer is closed, but the sockets still running...
@@ -101,24 +125,18 @@ public class DefaultTestRunner
                                                    "Invalid state: the flashplayer is closed, but the sockets still running..." );
                 }
 
-                sleep( 1000 );
+                // wakes up as soon as any of the threads is over, the timeout only keeps the debug log going
+                completions.poll( 1000, TimeUnit.MILLISECONDS );
             }
         }
-        finally
-        {
-            stop( launcher, pinger, resultHandler );
-        }
-    }
-
-    private void sleep( int time )
-    {
-        try
+        catch ( InterruptedException e )
         {
-            Thread.sleep( time );
+            Thread.currentThread().interrupt();
+            throw new TestRunnerException( "Interrupted while waiting for " + swf, e );
         }
-        catch ( InterruptedException e )
+        finally
         {
-            // no worries
+            stop( launcher, pinger, resultHandler );
         }
     }
 
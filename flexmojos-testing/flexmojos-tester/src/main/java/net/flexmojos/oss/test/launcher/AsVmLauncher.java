@@ -24,7 +24,7 @@ import java.io.IOException;
 import java.util.Arrays;
 
 import org.codehaus.plexus.component.annotations.Component;
-import org.codehaus.plexus.util.FileUtils;
+import org.codehaus.plexus.component.annotations.Requirement;
 import org.codehaus.plexus.util.cli.StreamConsumer;
 import org.codehaus.plexus.util.cli.StreamPumper;
 import net.flexmojos.oss.test.AbstractControlledThread;
@@ -67,18 +67,27 @@ public class AsVmLauncher
 
     }
 
+    /**
+     * How long a destroyed player gets to exit before its display is considered unusable
+     */
+    private static final long EXIT_TIMEOUT = 5000;
+
     private String vmType;
 
     private boolean allowHeadlessMode;
 
+    @Requirement
+    private XvfbDisplayPool displayPool;
+
+    // leased from the pool while the player runs headless
+    private Integer display;
+
     private String[] asvmCommand;
 
     private StringBuffer consoleLog = new StringBuffer();
 
     private Integer[] flashPlayerReturnCodesToIgnore;
 
-    private File log;
-
     private Process process;
 
     public String getConsoleOutput()
@@ -118,48 +127,19 @@ public class AsVmLauncher
                 default:
                     errorMessage = "Unexpected return code " + returnCode;
             }
-        } else if("xvbf-run".equals(vmType)) {
+        } else if("xvfb".equals(vmType)) {
             switch ( returnCode )
             {
-                // xvbf-run: http://manpages.ubuntu.com/manpages/lucid/man1/xvfb-run.1.html#contenttoc6
                 case 0:
-                    getLogger().debug( "[LAUNCHER] runtime exit as expected" );
-
-                    status = ThreadStatus.DONE;
-                    return;
-                case 1:
-                    errorMessage = "[LAUNCHER] Xvfb-run error: Xvfb did not start correctly.";
-                    break;
-                case 2:
-                    errorMessage = "[LAUNCHER] Xvfb-run error: No command run was specified.";
-                    break;
-                case 3:
-                    errorMessage = "[LAUNCHER] Xvfb-run error: The xauth command is not available.";
-                    break;
-                case 4:
-                    errorMessage = "[LAUNCHER] Xvfb-run error: Temporary directory already exists. " +
-                            "This may indicate a race condition.";
-                    break;
-                case 5:
-                    errorMessage = "[LAUNCHER] Xvfb-run error: A problem was encountered while " +
-                            "cleaning up the temporary directory.";
-                    break;
-                case 6:
-                    errorMessage = "[LAUNCHER] Xvfb-run error: A problem was encountered while " +
-                            "parsing command-line arguments.";
-                    break;
                 /*
                  *  Segmentation fault 128 + signal = 139 --> signal = 11 (http://de.wikipedia.org/wiki/Signal_(Unix))
                  *  Usually occurring when closing the flashplayer on a headless linux system with xvfb.
                  */
                 case 139:
-                    if ( OSUtils.isLinux() )
-                    {
-                        getLogger().debug( "[LAUNCHER] runtime exit as expected" );
+                    getLogger().debug( "[LAUNCHER] runtime exit as expected" );
 
-                        status = ThreadStatus.DONE;
-                        return;
-                    }
+                    status = ThreadStatus.DONE;
+                    return;
                 default:
                     errorMessage = "Unexpected return code " + returnCode;
             }
@@ -221,6 +201,7 @@ public class AsVmLauncher
     {
         super.reset();
 
+        releaseDisplay();
         process = null;
         consoleLog = new StringBuffer();
     }
@@ -272,34 +253,39 @@ public class AsVmLauncher
     private void runFlashplayerHeadless( String[] asvmCommand, String targetFile )
         throws LaunchFlashPlayerException
     {
-        getLogger().warn( "[LAUNCHER] Using xvfb-run to launch headless tests" );
-
-        try
-        {
-            log = File.createTempFile( "xvfbrun", "flashplayer" );
-        }
-        catch ( IOException e )
-        {
-            throw new LaunchFlashPlayerException( "Failed to create xvfb-run error-file!", e );
-        }
+        display = displayPool.lease();
+        getLogger().warn( "[LAUNCHER] Using Xvfb display :" + display + " to launch headless tests" );
 
         try
         {
-            final String[] cmdArray = merge( new String[]{ "xvfb-run", "-a", "-e", log.getAbsolutePath() },
-                    asvmCommand, new String[] { targetFile } );
+            final String[] cmdArray = merge( asvmCommand, new String[] { targetFile } );
 
             getLogger().debug( "[LAUNCHER] Executing command: " + Arrays.toString( cmdArray ) );
 
-            process = Runtime.getRuntime().exec( cmdArray );
+            ProcessBuilder builder = new ProcessBuilder( cmdArray );
+            builder.environment().put( "DISPLAY", ":" + display );
+            process = builder.start();
+            new StreamPumper( process.getInputStream(), new ConsoleConsumer( "[SYSOUT]: " ) ).start();
+            new StreamPumper( process.getErrorStream(), new ConsoleConsumer( "[SYSERR]: " ) ).start();
         }
         catch ( IOException e )
         {
+            releaseDisplay();
             throw new LaunchFlashPlayerException(
                     "Failed to launch runtime (executable file name: '" + asvmCommand[0] + "') " +
                             "in headless environment.", e );
         }
     }
 
+    private void releaseDisplay()
+    {
+        if ( display != null )
+        {
+            displayPool.release( display );
+            display = null;
+        }
+    }
+
     /**
      * Run the SWF that contains the FlexUnit tests.
      * 
@@ -344,7 +330,7 @@ public class AsVmLauncher
 
             if( useXvfb() )
             {
-                vmType = "xvbf-run";
+                vmType = "xvfb";
             } else {
                 vmType = "flashplayer";
             }
@@ -401,43 +387,51 @@ public class AsVmLauncher
             {
                 getLogger().debug( "[LAUNCHER] process has not been finished, destroying" );
                 process.destroy();
+
+                if ( !waitForExit( process, EXIT_TIMEOUT ) && display != null )
+                {
+                    // a player still drawing there would share the display with the next one
+                    getLogger().warn( "[LAUNCHER] Flashplayer didn't exit, not reusing display :" + display );
+                    display = null;
+                }
             }
         }
 
-        if ( useXvfb() )
+        // the display stays up for the next launch, the pool owns it
+        releaseDisplay();
+    }
+
+    /**
+     * @return true if the process exited within the timeout
+     */
+    private static boolean waitForExit( Process process, long timeout )
+    {
+        long deadline = System.currentTimeMillis() + timeout;
+        while ( true )
         {
             try
             {
-                getLogger().debug( "[LAUNCHER] killing Xvfb" );
-                Runtime.getRuntime().exec( new String[] { "killall", "Xvfb" } ).waitFor();
-                Runtime.getRuntime().exec( new String[] { "killall", "xvfb-run" } ).waitFor();
-                Runtime.getRuntime().exec( new String[] { "killall", new File( asvmCommand[0] ).getName() } ).waitFor();
+                process.exitValue();
+                return true;
             }
-            catch ( IOException e )
+            catch ( IllegalThreadStateException e )
             {
-                getLogger().error( "Error killing Xvfb", e );
+                if ( System.currentTimeMillis() >= deadline )
+                {
+                    return false;
+                }
             }
-            catch ( InterruptedException e )
+
+            try
             {
-                // ignore, process wake up call
+                Thread.sleep( 50 );
             }
-
-            if ( log != null && log.exists() )
+            catch ( InterruptedException e )
             {
-                try
-                {
-                    consoleLog.append( FileUtils.fileRead( log ) );
-                }
-                catch ( IOException e )
-                {
-                    getLogger().error( "Error reading Xvfb log", e );
-                }
-
-                log.delete();
+                Thread.currentThread().interrupt();
+                return false;
             }
-
         }
-
     }
 
     protected boolean useXvfb()
@@ -23,6 +23,11 @@ public class LaunchFlashPlayerException
 
     private static final long serialVersionUID = 4472719642697966243L;
 
+    public LaunchFlashPlayerException( String message )
+    {
+        super( message );
+    }
+
     public LaunchFlashPlayerException( String message, Throwable cause )
     {
         super( message, cause );
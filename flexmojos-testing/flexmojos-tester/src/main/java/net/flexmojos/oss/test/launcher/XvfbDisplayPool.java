@@ -0,0 +1,252 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.test.launcher;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.Map;
+
+import org.codehaus.plexus.component.annotations.Component;
+import org.codehaus.plexus.logging.AbstractLogEnabled;
+import org.codehaus.plexus.personality.plexus.lifecycle.phase.Disposable;
+import org.codehaus.plexus.util.cli.StreamConsumer;
+import org.codehaus.plexus.util.cli.StreamPumper;
+
+/**
+ * Xvfb servers shared by the headless launchers. Servers are started on demand, leased by display number and kept
+ * running for the next test swf, so the X startup is paid once per display and not once per launch. Only the servers
+ * started here are ever stopped, other builds on the same machine keep their displays.
+ */
+@Component( role = XvfbDisplayPool.class )
+public class XvfbDisplayPool
+    extends AbstractLogEnabled
+    implements Disposable
+{
+
+    /**
+     * First display tried, the same xvfb-run starts from
+     */
+    public static final int FIRST_DISPLAY = 99;
+
+    private static final int MAX_ATTEMPTS = 10;
+
+    private static final String SCREEN = "640x480x8";
+
+    private static final long STARTUP_TIMEOUT = 10000;
+
+    private final LinkedList<Integer> idle = new LinkedList<Integer>();
+
+    private final Map<Integer, Process> servers = new LinkedHashMap<Integer, Process>();
+
+    // maven may exit without disposing the container, registered with the first server
+    private Thread shutdownHook;
+
+    /**
+     * @return a display number nobody else is using until it is released, starting a new server if none is idle
+     */
+    public synchronized int lease()
+        throws LaunchFlashPlayerException
+    {
+        while ( !idle.isEmpty() )
+        {
+            Integer display = idle.removeFirst();
+            if ( isAlive( servers.get( display ) ) )
+            {
+                getLogger().debug( "[XVFB] Reusing display :" + display );
+                return display;
+            }
+
+            getLogger().debug( "[XVFB] Display :" + display + " is gone, dropping it" );
+            servers.remove( display );
+        }
+
+        return start();
+    }
+
+    public synchronized void release( int display )
+    {
+        if ( servers.containsKey( display ) && !idle.contains( display ) )
+        {
+            // most recently used first, so a short run keeps touching the same few servers
+            idle.addFirst( display );
+        }
+    }
+
+    /**
+     * @return how many servers are running, leased or not
+     */
+    public synchronized int getSize()
+    {
+        return servers.size();
+    }
+
+    public synchronized void dispose()
+    {
+        if ( shutdownHook != null )
+        {
+            try
+            {
+                Runtime.getRuntime().removeShutdownHook( shutdownHook );
+            }
+            catch ( IllegalStateException e )
+            {
+                // already shutting down, the hook is running or about to
+            }
+            shutdownHook = null;
+        }
+
+        for ( Map.Entry<Integer, Process> server : servers.entrySet() )
+        {
+            getLogger().debug( "[XVFB] Stopping display :" + server.getKey() );
+            server.getValue().destroy();
+        }
+        servers.clear();
+        idle.clear();
+    }
+
+    private int start()
+        throws LaunchFlashPlayerException
+    {
+        int display = FIRST_DISPLAY;
+        for ( int attempt = 0; attempt < MAX_ATTEMPTS; attempt++, display++ )
+        {
+            while ( servers.containsKey( display ) || new File( "/tmp/.X" + display + "-lock" ).exists() )
+            {
+                display++;
+            }
+
+            getLogger().debug( "[XVFB] Starting display :" + display );
+            Process process;
+            try
+            {
+                ProcessBuilder builder =
+                    new ProcessBuilder( "Xvfb", ":" + display, "-screen", "0", SCREEN, "-nolisten", "tcp" );
+                process = builder.redirectErrorStream( true ).start();
+            }
+            catch ( IOException e )
+            {
+                throw new LaunchFlashPlayerException( "Failed to launch Xvfb, is it installed?", e );
+            }
+            new StreamPumper( process.getInputStream(), new XvfbConsumer( display ) ).start();
+
+            if ( waitForServer( process, display ) )
+            {
+                servers.put( display, process );
+                if ( shutdownHook == null )
+                {
+                    shutdownHook = new Thread( "xvfb display pool shutdown" )
+                    {
+                        @Override
+                        public void run()
+                        {
+                            stopServers();
+                        }
+                    };
+                    Runtime.getRuntime().addShutdownHook( shutdownHook );
+                }
+                return display;
+            }
+
+            // most likely someone else took the display in the meantime
+            process.destroy();
+        }
+
+        throw new LaunchFlashPlayerException( "Unable to start Xvfb after " + MAX_ATTEMPTS + " attempts" );
+    }
+
+    private void stopServers()
+    {
+        Process[] processes;
+        synchronized ( this )
+        {
+            processes = servers.values().toArray( new Process[servers.size()] );
+        }
+        for ( Process process : processes )
+        {
+            process.destroy();
+        }
+    }
+
+    private boolean waitForServer( Process process, int display )
+        throws LaunchFlashPlayerException
+    {
+        File socket = new File( "/tmp/.X11-unix/X" + display );
+        long deadline = System.currentTimeMillis() + STARTUP_TIMEOUT;
+        try
+        {
+            while ( System.currentTimeMillis() < deadline )
+            {
+                if ( !isAlive( process ) )
+                {
+                    return false;
+                }
+                if ( socket.exists() )
+                {
+                    // a server losing the lock race exits right away, give it the chance to do so
+                    Thread.sleep( 50 );
+                    return isAlive( process );
+                }
+                Thread.sleep( 50 );
+            }
+        }
+        catch ( InterruptedException e )
+        {
+            process.destroy();
+            throw new LaunchFlashPlayerException( "Interrupted while starting Xvfb", e );
+        }
+        return false;
+    }
+
+    private static boolean isAlive( Process process )
+    {
+        if ( process == null )
+        {
+            return false;
+        }
+        try
+        {
+            process.exitValue();
+            return false;
+        }
+        catch ( IllegalThreadStateException e )
+        {
+            return true;
+        }
+    }
+
+    private class XvfbConsumer
+        implements StreamConsumer
+    {
+
+        private final String prefix;
+
+        public XvfbConsumer( int display )
+        {
+            this.prefix = "[XVFB :" + display + "] ";
+        }
+
+        public void consumeLine( String line )
+        {
+            getLogger().debug( prefix + line );
+        }
+
+    }
+
+}
@@ -0,0 +1,139 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.test.monitor;
+
+import static net.flexmojos.oss.test.monitor.CommConstraints.NULL_BYTE;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * Splits the stream sent by the test runner into messages delimited by {@link CommConstraints#NULL_BYTE}. The bytes are
+ * read and decoded as UTF-8 in chunks, into buffers reused for every message.
+ */
+public class MessageReader
+{
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ReadableByteChannel channel;
+
+    private final CharsetDecoder decoder;
+
+    private final ByteBuffer bytes = ByteBuffer.allocate( BUFFER_SIZE );
+
+    private final CharBuffer chars = CharBuffer.allocate( BUFFER_SIZE );
+
+    // decoded chars not returned yet, starting at messageStart
+    private final StringBuilder message = new StringBuilder();
+
+    private int messageStart;
+
+    private boolean eof;
+
+    public MessageReader( InputStream in )
+    {
+        this( Channels.newChannel( in ) );
+    }
+
+    public MessageReader( ReadableByteChannel channel )
+    {
+        this.channel = channel;
+        this.decoder = Charset.forName( "UTF-8" ).newDecoder();
+        decoder.onMalformedInput( CodingErrorAction.REPLACE );
+        decoder.onUnmappableCharacter( CodingErrorAction.REPLACE );
+    }
+
+    /**
+     * Blocks until a whole message is available.
+     * 
+     * @return the next message, without the delimiter, or <code>null</code> once the stream is over
+     */
+    public String readMessage()
+        throws IOException
+    {
+        int scanned = messageStart;
+        while ( true )
+        {
+            for ( int i = scanned; i < message.length(); i++ )
+            {
+                if ( message.charAt( i ) == NULL_BYTE )
+                {
+                    String data = message.substring( messageStart, i );
+                    messageStart = i + 1;
+                    return data;
+                }
+            }
+
+            // no delimiter on what is decoded so far, drop what was already returned and read some more
+            message.delete( 0, messageStart );
+            messageStart = 0;
+            scanned = message.length();
+
+            if ( eof || !fill() )
+            {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * @return what was received after the last message, a message cut short by the end of the stream
+     */
+    public String getPending()
+    {
+        return message.substring( messageStart );
+    }
+
+    private boolean fill()
+        throws IOException
+    {
+        int read = channel.read( bytes );
+        if ( read == -1 )
+        {
+            eof = true;
+        }
+
+        bytes.flip();
+        CoderResult result;
+        do
+        {
+            result = decoder.decode( bytes, chars, eof );
+            if ( eof && result.isUnderflow() )
+            {
+                result = decoder.flush( chars );
+            }
+            chars.flip();
+            message.append( chars );
+            chars.clear();
+        }
+        while ( result.isOverflow() );
+        bytes.compact();
+
+        return read != -1 || message.length() > messageStart;
+    }
+
+}
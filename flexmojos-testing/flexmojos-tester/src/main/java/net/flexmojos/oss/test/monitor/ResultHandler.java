@@ -54,44 +54,36 @@ public class ResultHandler
     protected void handleRequest()
         throws SocketException, IOException
     {
-        StringBuffer buffer = new StringBuffer();
-        int bite = -1;
+        MessageReader reader = new MessageReader( in );
+        String data;
 
-        while ( ( bite = in.read() ) != -1 )
+        while ( ( data = reader.readMessage() ) != null )
         {
-            final char chr = (char) bite;
-
-            if ( chr == NULL_BYTE )
+            if ( getLogger().isDebugEnabled() )
             {
-                final String data = buffer.toString();
                 getLogger().debug( "[RESULT] Recivied data: " + data );
-                buffer = new StringBuffer();
-
-                if ( data.endsWith( END_OF_TEST_SUITE ) )
-                {
-                    getLogger().debug( "[RESULT] End test suite" );
-
-                    this.testReportData.add( data );
-                }
-                else if ( data.equals( END_OF_TEST_RUN ) )
-                {
-                    getLogger().debug( "[RESULT] End test run - sending ACK: " + ACK_OF_TEST_RESULT );
+            }
 
-                    // Sending the acknowledgement to testrunner
+            if ( data.endsWith( END_OF_TEST_SUITE ) )
+            {
+                getLogger().debug( "[RESULT] End test suite" );
 
-                    BufferedWriter out = new BufferedWriter( new OutputStreamWriter( super.out ) );
-                    out.write( ACK_OF_TEST_RESULT + NULL_BYTE );
-                    out.flush();
-                    break;
-                }
+                this.testReportData.add( data );
             }
-            else
+            else if ( data.equals( END_OF_TEST_RUN ) )
             {
-                buffer.append( chr );
+                getLogger().debug( "[RESULT] End test run - sending ACK: " + ACK_OF_TEST_RESULT );
+
+                // Sending the acknowledgement to testrunner
+
+                BufferedWriter out = new BufferedWriter( new OutputStreamWriter( super.out ) );
+                out.write( ACK_OF_TEST_RESULT + NULL_BYTE );
+                out.flush();
+                break;
             }
         }
 
-        getLogger().debug( "[RESULT] Socket buffer " + buffer );
+        getLogger().debug( "[RESULT] Socket buffer " + reader.getPending() );
     }
 
     public void start(int testPort)
@@ -0,0 +1,177 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.test;
+
+import static net.flexmojos.oss.test.monitor.CommConstraints.ACK_OF_TEST_RESULT;
+import static net.flexmojos.oss.test.monitor.CommConstraints.END_OF_TEST_RUN;
+import static net.flexmojos.oss.test.monitor.CommConstraints.EOL;
+import static net.flexmojos.oss.test.monitor.CommConstraints.FINISHED;
+import static net.flexmojos.oss.test.monitor.CommConstraints.NULL_BYTE;
+import static net.flexmojos.oss.test.monitor.CommConstraints.OK;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.fail;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.ConnectException;
+import java.net.Socket;
+import java.util.List;
+
+import org.codehaus.plexus.PlexusTestNGCase;
+import net.flexmojos.oss.test.monitor.MessageReader;
+import net.flexmojos.oss.util.OSUtils;
+import net.flexmojos.oss.util.SocketUtil;
+import org.testng.Reporter;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+public class DefaultTestRunnerTest
+    extends PlexusTestNGCase
+{
+
+    /**
+     * Plays the swf side of the protocol: answers one status query, sends the results and reports FINISHED on the next
+     * status query.
+     */
+    private static class FakePlayer
+        extends Thread
+    {
+
+        private final int testPort;
+
+        private final int testControlPort;
+
+        private Throwable error;
+
+        FakePlayer( int testPort, int testControlPort )
+        {
+            this.testPort = testPort;
+            this.testControlPort = testControlPort;
+            setDaemon( true );
+        }
+
+        @Override
+        public void run()
+        {
+            try
+            {
+                Socket control = connect( testControlPort );
+                BufferedReader status = new BufferedReader( new InputStreamReader( control.getInputStream() ) );
+                OutputStream statusOut = control.getOutputStream();
+                status.readLine();
+                statusOut.write( ( OK + EOL ).getBytes( "UTF-8" ) );
+                statusOut.flush();
+
+                Socket results = connect( testPort );
+                OutputStream out = results.getOutputStream();
+                out.write( ( "<testsuite name=\"SomeTest\"></testsuite>" + NULL_BYTE + END_OF_TEST_RUN + NULL_BYTE ).getBytes( "UTF-8" ) );
+                out.flush();
+                assertEquals( new MessageReader( results.getInputStream() ).readMessage(), ACK_OF_TEST_RESULT );
+                results.close();
+
+                status.readLine();
+                statusOut.write( ( FINISHED + EOL ).getBytes( "UTF-8" ) );
+                statusOut.flush();
+                control.close();
+            }
+            catch ( Throwable e )
+            {
+                error = e;
+            }
+        }
+
+        private Socket connect( int port )
+            throws IOException, InterruptedException
+        {
+            while ( true )
+            {
+                try
+                {
+                    return new Socket( "localhost", port );
+                }
+                catch ( ConnectException e )
+                {
+                    // the runner is still opening its server sockets
+                    Thread.sleep( 10 );
+                }
+            }
+        }
+    }
+
+    @Test( timeOut = 20000 )
+    public void returnOnceThePlayerIsGone()
+        throws Exception
+    {
+        List<String> results = null;
+        try
+        {
+            results = run();
+        }
+        catch ( TestRunnerException e )
+        {
+            // the sockets must be done by the time the player is seen closed
+            fail( e.getMessage(), e );
+        }
+        assertEquals( results.size(), 1 );
+    }
+
+    @Test( groups = "benchmark", timeOut = 20000 )
+    public void playerExitToResults()
+        throws Exception
+    {
+        long start = System.currentTimeMillis();
+        run();
+        // the player runs for 500ms, polling and waiting out the sockets grace time would take 1.5s more
+        Reporter.log( "Test run with a 500ms player: " + ( System.currentTimeMillis() - start ) + " ms", true );
+    }
+
+    private List<String> run()
+        throws Exception
+    {
+        if ( OSUtils.isWindows() )
+        {
+            throw new SkipException( "Uses sh as flashplayer" );
+        }
+
+        File swf = File.createTempFile( "DefaultTestRunnerTest", ".swf" );
+        swf.deleteOnExit();
+
+        TestRequest request = new TestRequest();
+        request.setSwf( swf );
+        request.setTestPort( SocketUtil.freePort() );
+        request.setTestControlPort( SocketUtil.freePort() );
+        request.setFirstConnectionTimeout( 5000 );
+        request.setTestTimeout( 5000 );
+        request.setAllowHeadlessMode( false );
+        // the player closes 500ms after launch, long after the results are in
+        request.setFlashplayerCommand( "sh", "-c", "sleep 0.5" );
+
+        FakePlayer player = new FakePlayer( request.getTestPort(), request.getTestControlPort() );
+        player.start();
+
+        List<String> results = lookup( TestRunner.class ).run( request );
+
+        player.join();
+        assertEquals( player.error, null );
+        return results;
+    }
+
+}
@@ -0,0 +1,101 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.test.launcher;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.codehaus.plexus.PlexusTestNGCase;
+import net.flexmojos.oss.util.OSUtils;
+import org.testng.SkipException;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class XvfbDisplayPoolTest
+    extends PlexusTestNGCase
+{
+
+    private XvfbDisplayPool pool;
+
+    @BeforeMethod
+    public void setUp()
+        throws Exception
+    {
+        if ( !OSUtils.isLinux() )
+        {
+            throw new SkipException( "Xvfb is only used on linux" );
+        }
+        try
+        {
+            new ProcessBuilder( "Xvfb", "-help" ).redirectErrorStream( true ).start().waitFor();
+        }
+        catch ( IOException e )
+        {
+            throw new SkipException( "Xvfb is not installed" );
+        }
+
+        pool = lookup( XvfbDisplayPool.class );
+    }
+
+    @AfterMethod
+    public void tearDown()
+    {
+        if ( pool != null )
+        {
+            pool.dispose();
+        }
+    }
+
+    @Test( timeOut = 30000 )
+    public void reuseReleasedDisplay()
+        throws Exception
+    {
+        int first = pool.lease();
+        int second = pool.lease();
+        assertTrue( first != second );
+        assertTrue( new File( "/tmp/.X11-unix/X" + first ).exists() );
+        assertEquals( pool.getSize(), 2 );
+
+        pool.release( first );
+        assertEquals( pool.lease(), first );
+        assertEquals( pool.getSize(), 2 );
+    }
+
+    @Test( timeOut = 30000 )
+    public void disposeStopsServers()
+        throws Exception
+    {
+        int display = pool.lease();
+        pool.dispose();
+        assertEquals( pool.getSize(), 0 );
+
+        // Xvfb removes its lock on the way out
+        File lock = new File( "/tmp/.X" + display + "-lock" );
+        for ( int i = 0; i < 50 && lock.exists(); i++ )
+        {
+            Thread.sleep( 100 );
+        }
+        assertFalse( lock.exists() );
+    }
+
+}
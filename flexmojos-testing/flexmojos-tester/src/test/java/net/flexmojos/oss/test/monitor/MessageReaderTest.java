@@ -0,0 +1,245 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.test.monitor;
+
+import static net.flexmojos.oss.test.monitor.CommConstraints.END_OF_TEST_RUN;
+import static net.flexmojos.oss.test.monitor.CommConstraints.END_OF_TEST_SUITE;
+import static net.flexmojos.oss.test.monitor.CommConstraints.NULL_BYTE;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.Reporter;
+import org.testng.annotations.Test;
+
+public class MessageReaderTest
+{
+
+    @Test
+    public void splitMessages()
+        throws Exception
+    {
+        MessageReader reader = new MessageReader( stream( "first" + NULL_BYTE + NULL_BYTE + "second" + NULL_BYTE ) );
+
+        assertEquals( reader.readMessage(), "first" );
+        assertEquals( reader.readMessage(), "" );
+        assertEquals( reader.readMessage(), "second" );
+        assertNull( reader.readMessage() );
+        assertNull( reader.readMessage() );
+        assertEquals( reader.getPending(), "" );
+    }
+
+    @Test
+    public void messageCutShort()
+        throws Exception
+    {
+        MessageReader reader = new MessageReader( stream( "complete" + NULL_BYTE + "<testsuite" ) );
+
+        assertEquals( reader.readMessage(), "complete" );
+        assertNull( reader.readMessage() );
+        assertEquals( reader.getPending(), "<testsuite" );
+    }
+
+    @Test
+    public void multiByteCharactersAcrossChunks()
+        throws Exception
+    {
+        // large enough to cross the read buffer, with the multi byte chars landing on both sides of its edges
+        StringBuilder data = new StringBuilder();
+        while ( data.length() < 200 * 1024 )
+        {
+            data.append( "Test\u00e9 \u00e7\u00e3o \u65e5\u672c " );
+        }
+        String message = data.toString();
+
+        MessageReader reader = new MessageReader( stream( message + NULL_BYTE + message + NULL_BYTE ) );
+        assertEquals( reader.readMessage(), message );
+        assertEquals( reader.readMessage(), message );
+        assertNull( reader.readMessage() );
+    }
+
+    @Test( timeOut = 60000 )
+    public void sameMessagesAsByteByByte()
+        throws Exception
+    {
+        byte[] stream = resultStream( 5, 10 );
+
+        List<String> legacy = readByteByByte( replay( stream ) );
+        MessageReader reader = new MessageReader( replay( stream ) );
+        for ( String expected : legacy )
+        {
+            assertEquals( reader.readMessage(), new String( expected.getBytes( "ISO-8859-1" ), "UTF-8" ) );
+        }
+        assertEquals( legacy.size(), 6 );
+        assertNull( reader.readMessage() );
+    }
+
+    /**
+     * Replays the result stream of a 50k tests run through a socket, comparing the byte by byte reading done before
+     * with the chunked reader.
+     */
+    @Test( groups = "benchmark", timeOut = 120000 )
+    public void benchmark()
+        throws Exception
+    {
+        byte[] stream = resultStream( 500, 100 );
+
+        for ( int warmup = 0; warmup < 2; warmup++ )
+        {
+            long start = System.nanoTime();
+            List<String> legacy = readByteByByte( replay( stream ) );
+            long legacyTime = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            List<String> chunked = new ArrayList<String>();
+            MessageReader reader = new MessageReader( replay( stream ) );
+            String message;
+            while ( ( message = reader.readMessage() ) != null )
+            {
+                chunked.add( message );
+            }
+            long chunkedTime = System.nanoTime() - start;
+
+            assertEquals( chunked.size(), 501 );
+            assertEquals( legacy.size(), 501 );
+            // the byte by byte reading mangled anything but ASCII
+            for ( int i = 0; i < legacy.size(); i++ )
+            {
+                assertEquals( new String( legacy.get( i ).getBytes( "ISO-8859-1" ), "UTF-8" ), chunked.get( i ) );
+            }
+            if ( warmup == 1 )
+            {
+                Reporter.log( "[MessageReaderTest] " + stream.length / 1024 + " KiB, 50000 tests: byte by byte "
+                    + legacyTime / 1000000 + " ms, chunked " + chunkedTime / 1000000 + " ms", true );
+            }
+        }
+    }
+
+    private static InputStream stream( String data )
+        throws IOException
+    {
+        return new ByteArrayInputStream( data.getBytes( "UTF-8" ) );
+    }
+
+    private static byte[] resultStream( int suites, int tests )
+        throws IOException
+    {
+        StringBuilder stream = new StringBuilder();
+        for ( int i = 0; i < suites; i++ )
+        {
+            String suite = "net.flexmojos.oss.example.SuiteNumber" + i;
+            stream.append( "<testsuite errors=\"0\" failures=\"1\" name=\"" ).append( suite );
+            stream.append( "\" tests=\"" ).append( tests ).append( "\" time=\"1.5\">" );
+            for ( int j = 0; j < tests; j++ )
+            {
+                stream.append( "<testcase classname=\"" ).append( suite ).append( "\" name=\"testMethod" ).append( j );
+                stream.append( "\" time=\"0.015\"" );
+                if ( j == 0 )
+                {
+                    stream.append( "><failure message=\"Expected &lt;caf\u00e9&gt;\" type=\"Error\">" );
+                    stream.append( "<![CDATA[Error: Expected <caf\u00e9> at " ).append( suite ).append( "]]>" );
+                    stream.append( "</failure></testcase>" );
+                }
+                else
+                {
+                    stream.append( "/>" );
+                }
+            }
+            stream.append( END_OF_TEST_SUITE ).append( NULL_BYTE );
+        }
+        stream.append( END_OF_TEST_RUN ).append( NULL_BYTE );
+        return stream.toString().getBytes( "UTF-8" );
+    }
+
+    /**
+     * @return the reading end of a socket the stream is written to
+     */
+    private static InputStream replay( final byte[] stream )
+        throws IOException
+    {
+        final ServerSocket server = new ServerSocket( 0 );
+        Thread writer = new Thread( "result stream replay" )
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    Socket socket = server.accept();
+                    server.close();
+                    try
+                    {
+                        OutputStream out = socket.getOutputStream();
+                        // written a few KiB at a time, as the flash player does
+                        for ( int i = 0; i < stream.length; i += 4096 )
+                        {
+                            out.write( stream, i, Math.min( 4096, stream.length - i ) );
+                        }
+                        out.flush();
+                    }
+                    finally
+                    {
+                        socket.close();
+                    }
+                }
+                catch ( IOException e )
+                {
+                    e.printStackTrace();
+                }
+            }
+        };
+        writer.setDaemon( true );
+        writer.start();
+
+        return new Socket( "localhost", server.getLocalPort() ).getInputStream();
+    }
+
+    /**
+     * How {@link ResultHandler} used to read the stream, each byte taken as a char
+     */
+    private static List<String> readByteByByte( InputStream in )
+        throws IOException
+    {
+        List<String> messages = new ArrayList<String>();
+        StringBuffer buffer = new StringBuffer();
+        int bite;
+        while ( ( bite = in.read() ) != -1 )
+        {
+            final char chr = (char) bite;
+            if ( chr == NULL_BYTE )
+            {
+                messages.add( buffer.toString() );
+                buffer = new StringBuffer();
+            }
+            else
+            {
+                buffer.append( chr );
+            }
+        }
+        return messages;
+    }
+
+}
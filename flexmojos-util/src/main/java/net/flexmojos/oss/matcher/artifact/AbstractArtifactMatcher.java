@@ -17,6 +17,8 @@
  */
 package net.flexmojos.oss.matcher.artifact;
 
+import static org.hamcrest.Matchers.equalTo;
+
 import org.hamcrest.Description;
 import org.hamcrest.Matcher;
 import org.hamcrest.TypeSafeMatcher;
@@ -28,12 +30,33 @@ abstract class AbstractArtifactMatcher<E>
 
     private Matcher<? extends String> elementMatcher;
 
+    private String expectedValue;
+
     public AbstractArtifactMatcher( Matcher<? extends String> elementMatcher, String element )
     {
         this.elementMatcher = elementMatcher;
         this.element = element;
     }
 
+    public AbstractArtifactMatcher( String expectedValue, String element )
+    {
+        this( equalTo( expectedValue ), element );
+        this.expectedValue = expectedValue;
+    }
+
+    String getElement()
+    {
+        return element;
+    }
+
+    /**
+     * @return the exact value required by this matcher, or null when it was built from an arbitrary matcher
+     */
+    String getExpectedValue()
+    {
+        return expectedValue;
+    }
+
     public void describeTo( Description description )
     {
         description.appendText( "a dependency with " + element + " " ).appendDescriptionOf( elementMatcher );
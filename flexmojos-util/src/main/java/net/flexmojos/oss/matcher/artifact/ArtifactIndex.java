@@ -0,0 +1,180 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.matcher.artifact;
+
+import static org.hamcrest.Matchers.allOf;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.maven.artifact.Artifact;
+import org.hamcrest.Matcher;
+
+/**
+ * Dependencies of a project grouped by scope, by type and by groupId:artifactId. A query made of {@link ArtifactMatcher}
+ * built from plain strings only scans the smallest matching group, instead of every dependency. Other matchers are
+ * still honored, they are just evaluated against the narrowed candidates.
+ */
+public class ArtifactIndex
+{
+
+    private static final String SCOPE = "scope";
+
+    private static final String TYPE = "type";
+
+    private static final String KEY = "groupId:artifactId";
+
+    private final Collection<? extends Artifact> source;
+
+    private final List<Artifact> all;
+
+    private final Map<String, Map<String, List<Artifact>>> groups = new HashMap<String, Map<String, List<Artifact>>>();
+
+    public ArtifactIndex( Collection<? extends Artifact> artifacts )
+    {
+        this.source = artifacts;
+        this.all = new ArrayList<Artifact>( artifacts );
+
+        for ( Artifact artifact : all )
+        {
+            add( SCOPE, artifact.getScope(), artifact );
+            add( TYPE, artifact.getType(), artifact );
+            add( KEY, artifact.getGroupId() + ":" + artifact.getArtifactId(), artifact );
+        }
+    }
+
+    /**
+     * @return true when the given collection is the one this index was built from. Changes made to that collection
+     *         afterwards are not seen, whoever changes it must build a new index.
+     */
+    public boolean isIndexOf( Collection<? extends Artifact> artifacts )
+    {
+        return artifacts == source;
+    }
+
+    /**
+     * @return the artifacts matching all the matchers, in the order of the indexed collection
+     */
+    public Set<Artifact> select( Matcher<? extends Artifact>... matchers )
+    {
+        Matcher<?> matcher = allOf( matchers );
+
+        Set<Artifact> result = new LinkedHashSet<Artifact>();
+        for ( Artifact artifact : candidates( matchers ) )
+        {
+            if ( matcher.matches( artifact ) )
+            {
+                result.add( artifact );
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the first artifact matching all the matchers, or null if none does
+     */
+    public Artifact selectFirst( Matcher<? extends Artifact>... matchers )
+    {
+        Matcher<?> matcher = allOf( matchers );
+
+        for ( Artifact artifact : candidates( matchers ) )
+        {
+            if ( matcher.matches( artifact ) )
+            {
+                return artifact;
+            }
+        }
+        return null;
+    }
+
+    private void add( String group, String value, Artifact artifact )
+    {
+        Map<String, List<Artifact>> values = groups.get( group );
+        if ( values == null )
+        {
+            values = new HashMap<String, List<Artifact>>();
+            groups.put( group, values );
+        }
+        List<Artifact> list = values.get( value );
+        if ( list == null )
+        {
+            list = new ArrayList<Artifact>();
+            values.put( value, list );
+        }
+        list.add( artifact );
+    }
+
+    private List<Artifact> candidates( Matcher<? extends Artifact>... matchers )
+    {
+        String groupId = null;
+        String artifactId = null;
+        List<Artifact> candidates = all;
+        for ( Matcher<? extends Artifact> matcher : matchers )
+        {
+            if ( !( matcher instanceof AbstractArtifactMatcher ) )
+            {
+                continue;
+            }
+
+            AbstractArtifactMatcher<?> artifactMatcher = (AbstractArtifactMatcher<?>) matcher;
+            String value = artifactMatcher.getExpectedValue();
+            if ( value == null )
+            {
+                continue;
+            }
+
+            String element = artifactMatcher.getElement();
+            if ( SCOPE.equals( element ) || TYPE.equals( element ) )
+            {
+                candidates = smallest( candidates, element, value );
+            }
+            else if ( "groupId".equals( element ) )
+            {
+                groupId = value;
+            }
+            else if ( "artifactId".equals( element ) )
+            {
+                artifactId = value;
+            }
+        }
+
+        if ( groupId != null && artifactId != null )
+        {
+            candidates = smallest( candidates, KEY, groupId + ":" + artifactId );
+        }
+        return candidates;
+    }
+
+    private List<Artifact> smallest( List<Artifact> candidates, String group, String value )
+    {
+        Map<String, List<Artifact>> values = groups.get( group );
+        List<Artifact> list = values == null ? null : values.get( value );
+        if ( list == null )
+        {
+            return Collections.emptyList();
+        }
+        return list.size() < candidates.size() ? list : candidates;
+    }
+
+}
@@ -17,8 +17,6 @@
  */
 package net.flexmojos.oss.matcher.artifact;
 
-import static org.hamcrest.Matchers.equalTo;
-
 import org.apache.maven.artifact.Artifact;
 import org.hamcrest.Matcher;
 
@@ -32,6 +30,11 @@ public class ArtifactMatcher
             super( elementMatcher, "artifactId" );
         }
 
+        ArtifactIdMatcher( String value )
+        {
+            super( value, "artifactId" );
+        }
+
         @Override
         protected String getValue( Artifact item )
         {
@@ -47,6 +50,11 @@ public class ArtifactMatcher
             super( elementMatcher, "classifier" );
         }
 
+        public ClassifierMatcher( String value )
+        {
+            super( value, "classifier" );
+        }
+
         @Override
         protected String getValue( Artifact item )
         {
@@ -62,6 +70,11 @@ public class ArtifactMatcher
             super( elementMatcher, "groupId" );
         }
 
+        public GroupIdMatcher( String value )
+        {
+            super( value, "groupId" );
+        }
+
         @Override
         protected String getValue( Artifact item )
         {
@@ -77,6 +90,11 @@ public class ArtifactMatcher
             super( elementMatcher, "scope" );
         }
 
+        public ScopeMatcher( String value )
+        {
+            super( value, "scope" );
+        }
+
         @Override
         protected String getValue( Artifact item )
         {
@@ -92,6 +110,11 @@ public class ArtifactMatcher
             super( elementMatcher, "type" );
         }
 
+        public TypeMatcher( String value )
+        {
+            super( value, "type" );
+        }
+
         @Override
         protected String getValue( Artifact item )
         {
@@ -107,6 +130,11 @@ public class ArtifactMatcher
             super( elementMatcher, "version" );
         }
 
+        public VersionMatcher( String value )
+        {
+            super( value, "version" );
+        }
+
         @Override
         protected String getValue( Artifact item )
         {
@@ -126,7 +154,7 @@ public class ArtifactMatcher
 
     public static ArtifactIdMatcher artifactId( String artifactId )
     {
-        return artifactId( equalTo( artifactId ) );
+        return new ArtifactIdMatcher( artifactId );
     }
 
     public static ClassifierMatcher classifier( Matcher<? extends String> classifier )
@@ -136,7 +164,7 @@ public class ArtifactMatcher
 
     public static ClassifierMatcher classifier( String classifier )
     {
-        return classifier( equalTo( classifier ) );
+        return new ClassifierMatcher( classifier );
     }
 
     public static GroupIdMatcher groupId( Matcher<? extends String> groupId )
@@ -146,7 +174,7 @@ public class ArtifactMatcher
 
     public static GroupIdMatcher groupId( String groupId )
     {
-        return groupId( equalTo( groupId ) );
+        return new GroupIdMatcher( groupId );
     }
 
     public static ScopeMatcher scope( Matcher<? extends String> scope )
@@ -156,7 +184,7 @@ public class ArtifactMatcher
 
     public static ScopeMatcher scope( String scope )
     {
-        return scope( equalTo( scope ) );
+        return new ScopeMatcher( scope );
     }
 
     public static TypeMatcher type( Matcher<? extends String> type )
@@ -166,7 +194,7 @@ public class ArtifactMatcher
 
     public static TypeMatcher type( String type )
     {
-        return type( equalTo( type ) );
+        return new TypeMatcher( type );
     }
 
     public static VersionMatcher version( Matcher<? extends String> versionMatcher )
@@ -176,7 +204,7 @@ public class ArtifactMatcher
 
     public static VersionMatcher version( String version )
     {
-        return version( equalTo( version ) );
+        return new VersionMatcher( version );
     }
 
     private ArtifactMatcher()
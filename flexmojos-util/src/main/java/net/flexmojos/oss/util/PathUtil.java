@@ -19,11 +19,15 @@ package net.flexmojos.oss.util;
 
 import java.io.File;
 import java.io.IOException;
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * this class provides functions used to generate a relative path from two absolute paths
@@ -34,11 +38,116 @@ import java.util.List;
 public class PathUtil
 {
 
+    /**
+     * How many canonical files are remembered, 0 disables the cache
+     */
+    private static final int CACHE_SIZE = Integer.getInteger( "flexmojos.canonicalPathCacheSize", 20000 );
+
+    /**
+     * Canonical files by absolute path, least recently used are dropped first
+     */
+    @SuppressWarnings( "serial" )
+    private static final Map<String, File> CANONICAL_FILES = new LinkedHashMap<String, File>( 1024, 0.75f, true )
+    {
+        @Override
+        protected boolean removeEldestEntry( Map.Entry<String, File> eldest )
+        {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    private static Reference<Object> cacheScope = new WeakReference<Object>( null );
+
     static
     {
         new PathUtil();
     }
 
+    /**
+     * Scopes the canonical path cache, usually to the maven execution request (the session is cloned for each project
+     * of a parallel build, the request is not). When the scope changes (a new build on the same JVM) everything cached
+     * so far is dropped.
+     */
+    public static void bindCache( Object scope )
+    {
+        if ( scope == null )
+        {
+            return;
+        }
+
+        synchronized ( CANONICAL_FILES )
+        {
+            if ( cacheScope.get() != scope )
+            {
+                CANONICAL_FILES.clear();
+                cacheScope = new WeakReference<Object>( scope );
+            }
+        }
+    }
+
+    /**
+     * Forgets the canonical path of the given file and of everything below it. Must be called when the build creates
+     * or moves files whose canonical path could have been resolved before (like links or directories moved in place).
+     */
+    public static void invalidate( File file )
+    {
+        if ( file == null )
+        {
+            return;
+        }
+
+        String path = file.getAbsolutePath();
+        String children = path.endsWith( File.separator ) ? path : path + File.separator;
+        synchronized ( CANONICAL_FILES )
+        {
+            for ( Iterator<String> iterator = CANONICAL_FILES.keySet().iterator(); iterator.hasNext(); )
+            {
+                String key = iterator.next();
+                if ( key.equals( path ) || key.startsWith( children ) )
+                {
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops every cached canonical path
+     */
+    public static void clearCache()
+    {
+        synchronized ( CANONICAL_FILES )
+        {
+            CANONICAL_FILES.clear();
+        }
+    }
+
+    private static File cachedCanonicalFile( String absolutePath )
+    {
+        if ( absolutePath == null )
+        {
+            return null;
+        }
+
+        synchronized ( CANONICAL_FILES )
+        {
+            return CANONICAL_FILES.get( absolutePath );
+        }
+    }
+
+    private static void cacheCanonicalFile( String absolutePath, File canonicalFile )
+    {
+        if ( absolutePath == null || canonicalFile == null || CACHE_SIZE <= 0 )
+        {
+            return;
+        }
+
+        synchronized ( CANONICAL_FILES )
+        {
+            CANONICAL_FILES.put( absolutePath, canonicalFile );
+        }
+    }
+
     public static boolean existAll( File... files )
     {
         if ( files == null )
@@ -148,9 +257,18 @@ public class PathUtil
             return null;
         }
 
+        String absolutePath = file.getAbsolutePath();
+        File canonicalFile = cachedCanonicalFile( absolutePath );
+        if ( canonicalFile != null )
+        {
+            return canonicalFile;
+        }
+
         try
         {
-            return file.getCanonicalFile();
+            canonicalFile = file.getCanonicalFile();
+            cacheCanonicalFile( absolutePath, canonicalFile );
+            return canonicalFile;
         }
         catch ( IOException e )
         {
@@ -377,9 +495,18 @@ public class PathUtil
             return null;
         }
 
+        String absolutePath = file.getAbsolutePath();
+        File canonicalFile = cachedCanonicalFile( absolutePath );
+        if ( canonicalFile != null )
+        {
+            return canonicalFile.getPath();
+        }
+
         try
         {
-            return file.getCanonicalPath();
+            String canonicalPath = file.getCanonicalPath();
+            cacheCanonicalFile( absolutePath, canonicalPath == null ? null : new File( canonicalPath ) );
+            return canonicalPath;
         }
         catch ( IOException e )
         {
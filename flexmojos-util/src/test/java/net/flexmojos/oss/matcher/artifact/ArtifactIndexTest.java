@@ -0,0 +1,197 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.matcher.artifact;
+
+import static net.flexmojos.oss.matcher.artifact.ArtifactMatcher.artifactId;
+import static net.flexmojos.oss.matcher.artifact.ArtifactMatcher.groupId;
+import static net.flexmojos.oss.matcher.artifact.ArtifactMatcher.scope;
+import static net.flexmojos.oss.matcher.artifact.ArtifactMatcher.type;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.anyOf;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.hamcrest.Matcher;
+import org.testng.Reporter;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class ArtifactIndexTest
+{
+
+    private static final String[] SCOPES = { "compile", "merged", "internal", "external", "rsl", "caching", "test" };
+
+    private static final String[] TYPES = { "swc", "swc", "swc", "rb.swc", "swf", "css", "zip" };
+
+    private Set<Artifact> artifacts;
+
+    private ArtifactIndex index;
+
+    @BeforeMethod
+    public void createIndex()
+    {
+        artifacts = createArtifacts( 500 );
+        index = new ArtifactIndex( artifacts );
+    }
+
+    @SuppressWarnings( "unchecked" )
+    @Test
+    public void sameResultAsFilter()
+    {
+        List<Matcher<? extends Artifact>[]> queries = new ArrayList<Matcher<? extends Artifact>[]>();
+        queries.add( new Matcher[] { type( "swc" ) } );
+        queries.add( new Matcher[] { type( "rb.swc" ) } );
+        queries.add( new Matcher[] { type( "swc" ), scope( "merged" ) } );
+        queries.add( new Matcher[] { anyOf( type( "swc" ), type( "css" ) ), scope( "internal" ) } );
+        queries.add( new Matcher[] { groupId( "org.example.g3" ), artifactId( "lib-33" ) } );
+        queries.add( new Matcher[] { groupId( "org.example.g3" ), artifactId( "lib-33" ), type( "swc" ) } );
+        queries.add( new Matcher[] { groupId( startsWith( "org.example.g1" ) ), not( scope( "test" ) ) } );
+        queries.add( new Matcher[] { type( "unknown" ) } );
+        queries.add( new Matcher[0] );
+
+        for ( Matcher<? extends Artifact>[] query : queries )
+        {
+            Set<Artifact> expected = filter( artifacts, query );
+            assertEquals( new ArrayList<Artifact>( index.select( query ) ), new ArrayList<Artifact>( expected ) );
+            assertEquals( index.selectFirst( query ), expected.isEmpty() ? null : expected.iterator().next() );
+        }
+    }
+
+    @SuppressWarnings( "unchecked" )
+    @Test
+    public void missingGroup()
+    {
+        assertTrue( index.select( groupId( "org.example.g3" ), artifactId( "missing" ) ).isEmpty() );
+        assertNull( index.selectFirst( scope( "theme" ) ) );
+    }
+
+    @Test
+    public void staleIndex()
+    {
+        assertTrue( index.isIndexOf( artifacts ) );
+        assertTrue( !index.isIndexOf( new LinkedHashSet<Artifact>( artifacts ) ) );
+    }
+
+    /**
+     * Compares the index with a linear filter over a 500 dependencies project, running the queries made by the
+     * compiler mojos while building their configuration. Each indexed query first checks the index is still the one of
+     * the dependencies, as the mojo does.
+     */
+    @SuppressWarnings( "unchecked" )
+    @Test( groups = "benchmark" )
+    public void benchmark()
+    {
+        Matcher<? extends Artifact>[][] queries =
+            new Matcher[][] { { type( "swc" ), scope( "external" ) }, { type( "swc" ), scope( "internal" ) },
+                { type( "swc" ), scope( "merged" ) }, { type( "swc" ), scope( "rsl" ) }, { type( "rb.swc" ) },
+                { anyOf( type( "swc" ), type( "css" ) ), scope( "theme" ) },
+                { groupId( "com.adobe.flex.framework" ), artifactId( "playerglobal" ), type( "swc" ) } };
+
+        int iterations = 2000;
+        for ( int warmup = 0; warmup < 2; warmup++ )
+        {
+            long start = System.nanoTime();
+            int filtered = 0;
+            for ( int i = 0; i < iterations; i++ )
+            {
+                for ( Matcher<? extends Artifact>[] query : queries )
+                {
+                    filtered += filter( artifacts, query ).size();
+                }
+            }
+            long filterTime = System.nanoTime() - start;
+
+            // the set returned by the shared getter
+            Set<Artifact> dependencies = Collections.unmodifiableSet( artifacts );
+            index = null;
+            start = System.nanoTime();
+            int indexed = 0;
+            for ( int i = 0; i < iterations; i++ )
+            {
+                for ( Matcher<? extends Artifact>[] query : queries )
+                {
+                    indexed += indexOf( dependencies ).select( query ).size();
+                }
+            }
+            long indexTime = System.nanoTime() - start;
+
+            assertEquals( indexed, filtered );
+            if ( warmup == 1 )
+            {
+                Reporter.log( "[ArtifactIndexTest] " + artifacts.size() + " dependencies, "
+                    + ( iterations * queries.length ) + " queries: filter " + filterTime / 1000000 + " ms, index "
+                    + indexTime / 1000000 + " ms", true );
+            }
+        }
+    }
+
+    private ArtifactIndex indexOf( Set<Artifact> dependencies )
+    {
+        if ( index == null || !index.isIndexOf( dependencies ) )
+        {
+            index = new ArtifactIndex( dependencies );
+        }
+        return index;
+    }
+
+    @SuppressWarnings( "unchecked" )
+    private static Set<Artifact> filter( Collection<Artifact> artifacts, Matcher<? extends Artifact>... matchers )
+    {
+        Matcher<?> matcher = allOf( matchers );
+        Set<Artifact> result = new LinkedHashSet<Artifact>();
+        for ( Artifact artifact : artifacts )
+        {
+            if ( matcher.matches( artifact ) )
+            {
+                result.add( artifact );
+            }
+        }
+        return result;
+    }
+
+    private static Set<Artifact> createArtifacts( int count )
+    {
+        Set<Artifact> artifacts = new LinkedHashSet<Artifact>();
+        for ( int i = 0; i < count; i++ )
+        {
+            artifacts.add( createArtifact( i ) );
+        }
+        return artifacts;
+    }
+
+    private static Artifact createArtifact( int i )
+    {
+        String type = TYPES[i % TYPES.length];
+        return new DefaultArtifact( "org.example.g" + ( i % 10 ), "lib-" + i, "1.0", SCOPES[i % SCOPES.length], type,
+                                    null, new DefaultArtifactHandler( type ) );
+    }
+
+}
@@ -21,6 +21,7 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasItems;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -33,6 +34,9 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 
+import org.codehaus.plexus.util.FileUtils;
+import org.testng.Reporter;
+import org.testng.SkipException;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
@@ -274,4 +278,154 @@ public class PathUtilTest
                     equalTo( "../../velo2" ) );
     }
 
+    @Test
+    public void testCanonicalCacheInvalidation()
+        throws IOException
+    {
+        File dir = createTempDir( "links" );
+        try
+        {
+            File a = new File( dir, "a" );
+            File b = new File( dir, "b" );
+            a.mkdirs();
+            b.mkdirs();
+            File link = new File( dir, "link" );
+            try
+            {
+                java.nio.file.Files.createSymbolicLink( link.toPath(), a.toPath() );
+            }
+            catch ( Exception e )
+            {
+                throw new SkipException( "Symbolic links not supported: " + e );
+            }
+
+            File file = new File( link, "file.txt" );
+            assertThat( PathUtil.file( file ), equalTo( new File( a, "file.txt" ).getCanonicalFile() ) );
+
+            // the build relinks, the cache still answers the old target
+            link.delete();
+            java.nio.file.Files.createSymbolicLink( link.toPath(), b.toPath() );
+            assertThat( PathUtil.path( file ), equalTo( new File( a, "file.txt" ).getCanonicalPath() ) );
+
+            PathUtil.invalidate( link );
+            assertThat( PathUtil.path( file ), equalTo( new File( b, "file.txt" ).getCanonicalPath() ) );
+            assertThat( PathUtil.file( file ), not( equalTo( new File( a, "file.txt" ).getCanonicalFile() ) ) );
+        }
+        finally
+        {
+            FileUtils.deleteDirectory( dir );
+        }
+    }
+
+    @Test
+    public void testCanonicalCacheScope()
+        throws IOException
+    {
+        File dir = createTempDir( "scope" );
+        try
+        {
+            File a = new File( dir, "a" );
+            a.mkdirs();
+            File link = new File( dir, "link" );
+            try
+            {
+                java.nio.file.Files.createSymbolicLink( link.toPath(), a.toPath() );
+            }
+            catch ( Exception e )
+            {
+                throw new SkipException( "Symbolic links not supported: " + e );
+            }
+
+            Object request = new Object();
+            PathUtil.bindCache( request );
+            assertThat( PathUtil.path( link ), equalTo( a.getCanonicalPath() ) );
+
+            link.delete();
+            link.mkdirs();
+            PathUtil.bindCache( request );
+            assertThat( PathUtil.path( link ), equalTo( a.getCanonicalPath() ) );
+
+            // a new build starts with an empty cache
+            PathUtil.bindCache( new Object() );
+            assertThat( PathUtil.path( link ), equalTo( link.getCanonicalPath() ) );
+        }
+        finally
+        {
+            FileUtils.deleteDirectory( dir );
+        }
+    }
+
+    /**
+     * Resolves every file of a 10k files tree a few times, as done while building the compiler arguments, with plain
+     * canonicalization and with the cache.
+     */
+    @Test( groups = "benchmark" )
+    public void testCanonicalCacheBenchmark()
+        throws IOException
+    {
+        File dir = createTempDir( "tree" );
+        try
+        {
+            List<File> files = new ArrayList<File>();
+            for ( int i = 0; i < 100; i++ )
+            {
+                File pkg = new File( dir, "src/main/flex/com/example/module" + i + "/view" );
+                pkg.mkdirs();
+                for ( int j = 0; j < 100; j++ )
+                {
+                    File file = new File( pkg, "Component" + j + ".mxml" );
+                    file.createNewFile();
+                    // relative to the package, as found on source paths
+                    files.add( new File( pkg.getPath() + "/../view/" + file.getName() ) );
+                }
+            }
+
+            int passes = 5;
+            for ( int warmup = 0; warmup < 2; warmup++ )
+            {
+                long start = System.nanoTime();
+                String[] expected = null;
+                for ( int pass = 0; pass < passes; pass++ )
+                {
+                    expected = new String[files.size()];
+                    for ( int i = 0; i < expected.length; i++ )
+                    {
+                        expected[i] = files.get( i ).getCanonicalPath();
+                    }
+                }
+                long canonicalTime = System.nanoTime() - start;
+
+                PathUtil.clearCache();
+                start = System.nanoTime();
+                String[] paths = null;
+                for ( int pass = 0; pass < passes; pass++ )
+                {
+                    paths = PathUtil.paths( files );
+                }
+                long cachedTime = System.nanoTime() - start;
+
+                assertThat( paths, equalTo( expected ) );
+                if ( warmup == 1 )
+                {
+                    Reporter.log( "[PathUtilTest] " + files.size() + " files x " + passes + " passes: canonical "
+                        + canonicalTime / 1000000 + " ms, cached " + cachedTime / 1000000 + " ms", true );
+                }
+            }
+        }
+        finally
+        {
+            FileUtils.deleteDirectory( dir );
+            PathUtil.clearCache();
+        }
+    }
+
+    private File createTempDir( String name )
+        throws IOException
+    {
+        File dir = File.createTempFile( "pathutil-" + name, "" );
+        dir.delete();
+        dir.mkdirs();
+        return dir;
+    }
+
 }